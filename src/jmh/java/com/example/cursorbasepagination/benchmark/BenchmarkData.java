@@ -0,0 +1,35 @@
+package com.example.cursorbasepagination.benchmark;
+
+import com.example.cursorbasepagination.entity.Post;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Dữ liệu giả lập dùng chung cho các benchmark.
+ */
+final class BenchmarkData {
+    private static final long BASE_TIME = 1_700_000_000_000L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Tạo danh sách bài viết sắp xếp theo (created_at DESC, id DESC), giống kết quả từ PostMapper.
+     */
+    static List<Post> posts(int count) {
+        List<Post> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Post post = new Post();
+            post.setId(1_000_000L - i);
+            post.setTitle("Bài viết " + i);
+            post.setContent("Nội dung bài viết " + i);
+            post.setCreatedAt(new Date(BASE_TIME - i * 1000L));
+            post.setUserId((long) (i % 100));
+            post.setCategory("category-" + (i % 10));
+            posts.add(post);
+        }
+        return posts;
+    }
+}
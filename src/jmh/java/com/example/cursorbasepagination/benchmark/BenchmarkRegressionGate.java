@@ -0,0 +1,119 @@
+package com.example.cursorbasepagination.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * So sánh kết quả JMH hiện tại với baseline và trả về mã lỗi khác 0 nếu có hồi quy.
+ *
+ * <p>Một benchmark bị coi là hồi quy khi throughput giảm quá {@code jmh.gate.maxThroughputDrop}
+ * hoặc {@code gc.alloc.rate.norm} (byte cấp phát mỗi thao tác) tăng quá {@code jmh.gate.maxAllocIncrease}.
+ * Gate cũng thất bại khi thiếu file baseline hoặc khi một benchmark có trong baseline không còn trong kết quả
+ * (bị xóa, đổi tên hoặc đổi tham số), để hồi quy không thể lọt qua chỉ vì benchmark không được chạy.
+ *
+ * <p>Mục baseline chưa có điểm (score null, ví dụ benchmark mới thêm) chỉ được kiểm tra là có chạy; cập nhật
+ * baseline bằng cách chép {@code target/jmh-result.json} của một lần chạy trên máy tham chiếu vào
+ * {@code src/jmh/resources/jmh-baseline.json}.
+ */
+public final class BenchmarkRegressionGate {
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    private BenchmarkRegressionGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Cách dùng: BenchmarkRegressionGate <jmh-result.json> <jmh-baseline.json>");
+            System.exit(2);
+        }
+
+        double maxThroughputDrop = Double.parseDouble(System.getProperty("jmh.gate.maxThroughputDrop", "0.10"));
+        double maxAllocIncrease = Double.parseDouble(System.getProperty("jmh.gate.maxAllocIncrease", "0.05"));
+
+        File resultFile = new File(args[0]);
+        File baselineFile = new File(args[1]);
+        if (!baselineFile.exists()) {
+            System.err.println("Không tìm thấy baseline tại " + baselineFile
+                    + ". Sao chép " + resultFile + " vào vị trí này để tạo baseline.");
+            System.exit(1);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> current = index(objectMapper.readTree(resultFile));
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(baselineFile));
+
+        List<String> regressions = new ArrayList<>();
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                regressions.add(name + " có trong baseline nhưng không có trong kết quả");
+            }
+        }
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println("[MỚI] " + entry.getKey());
+                continue;
+            }
+            if (!(base.path("primaryMetric").path("score").asDouble() > 0)) {
+                System.out.println("[CHƯA ĐO] " + entry.getKey());
+                continue;
+            }
+
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            double score = entry.getValue().path("primaryMetric").path("score").asDouble();
+            double throughputChange = (score - baseScore) / baseScore;
+
+            Double baseAlloc = allocation(base);
+            Double alloc = allocation(entry.getValue());
+            double allocChange = baseAlloc != null && alloc != null && baseAlloc > 0
+                    ? (alloc - baseAlloc) / baseAlloc : 0;
+
+            System.out.printf("%s: throughput %+.1f%%, alloc/op %+.1f%%%n",
+                    entry.getKey(), throughputChange * 100, allocChange * 100);
+
+            if (-throughputChange > maxThroughputDrop) {
+                regressions.add(entry.getKey() + " chậm hơn " + String.format("%.1f%%", -throughputChange * 100));
+            }
+            if (allocChange > maxAllocIncrease) {
+                regressions.add(entry.getKey() + " cấp phát nhiều hơn " + String.format("%.1f%%", allocChange * 100));
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            regressions.forEach(r -> System.err.println("[HỒI QUY] " + r));
+            System.exit(1);
+        }
+    }
+
+    // Đánh chỉ mục kết quả theo tên benchmark kèm tham số, ví dụ "PaginationBenchmark.firstPage{pageSize=10}"
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> indexed = new TreeMap<>();
+        for (JsonNode result : results) {
+            String name = result.path("benchmark").asText();
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+            indexed.put(name + new TreeMap<>(paramsOf(result)), result);
+        }
+        return indexed;
+    }
+
+    private static Map<String, String> paramsOf(JsonNode result) {
+        Map<String, String> params = new HashMap<>();
+        result.path("params").fields().forEachRemaining(e -> params.put(e.getKey(), e.getValue().asText()));
+        return params;
+    }
+
+    // Các bản JMH cũ đặt tiền tố "·" trước tên metric thứ cấp
+    private static Double allocation(JsonNode result) {
+        JsonNode secondary = result.path("secondaryMetrics");
+        for (Iterator<String> it = secondary.fieldNames(); it.hasNext(); ) {
+            String name = it.next();
+            if (name.replace("·", "").equals(ALLOC_METRIC)) {
+                return secondary.path(name).path("score").asDouble();
+            }
+        }
+        return null;
+    }
+}
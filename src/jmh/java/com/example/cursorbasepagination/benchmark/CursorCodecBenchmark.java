@@ -0,0 +1,69 @@
+package com.example.cursorbasepagination.benchmark;
+
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.util.CursorUtils;
+import com.example.cursorbasepagination.util.cursor.BinaryCursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmark mã hóa/giải mã cursor: định dạng JSON+Base64 cũ và codec nhị phân.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CursorCodecBenchmark {
+    private final CursorUtils<Post> cursorUtils = new CursorUtils<>();
+    private final BinaryCursorCodec binaryCodec = new BinaryCursorCodec();
+    private final Map<String, Function<Object, Object>> transformers = CursorUtils.createDateTransformers("createdAt");
+    private final Function<Post, Map<String, Object>> cursorFieldsExtractor = post -> {
+        Map<String, Object> cursorFields = new HashMap<>();
+        cursorFields.put("id", post.getId());
+        cursorFields.put("createdAt", post.getCreatedAt());
+        return cursorFields;
+    };
+
+    private Post post;
+    private String jsonCursor;
+    private String binaryCursor;
+
+    @Setup
+    public void setUp() {
+        post = BenchmarkData.posts(1).get(0);
+        jsonCursor = cursorUtils.encodeCursor(post, cursorFieldsExtractor);
+        binaryCursor = binaryCodec.encode(PostCursor.of(post));
+    }
+
+    @Benchmark
+    public String encodeCursorJson() {
+        return cursorUtils.encodeCursor(post, cursorFieldsExtractor);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeCursorJson() {
+        return cursorUtils.decodeCursor(jsonCursor, transformers);
+    }
+
+    @Benchmark
+    public String encodeCursorBinary() {
+        return binaryCodec.encode(PostCursor.of(post));
+    }
+
+    @Benchmark
+    public PostCursor decodeCursorBinary() {
+        return binaryCodec.decode(binaryCursor);
+    }
+
+    @Benchmark
+    public PostCursor decodeCursorBinaryFromLegacy() {
+        return binaryCodec.decode(jsonCursor);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.cursorbasepagination.benchmark;
+
+import com.example.cursorbasepagination.dto.request.CursorPageRequest;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.util.CursorUtils;
+import com.example.cursorbasepagination.util.cursor.BinaryCursorCodec;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmark {@link CursorUtils#handlePagination} với các supplier giả lập (không có database),
+ * đo chi phí phân trang thuần túy theo kích thước trang.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private final CursorCodec<PostCursor> binaryCodec = new BinaryCursorCodec();
+    private final Function<Post, Map<String, Object>> cursorFieldsExtractor = post -> {
+        Map<String, Object> cursorFields = new HashMap<>();
+        cursorFields.put("id", post.getId());
+        cursorFields.put("createdAt", post.getCreatedAt());
+        return cursorFields;
+    };
+
+    // Kết quả giả lập của truy vấn: limit + 1 phần tử để phát hiện trang tiếp theo
+    private List<Post> rows;
+    private String jsonCursor;
+    private String binaryCursor;
+
+    @Setup
+    public void setUp() {
+        rows = BenchmarkData.posts(pageSize + 1);
+        jsonCursor = new CursorUtils<Post>().encodeCursor(rows.get(0), cursorFieldsExtractor);
+        binaryCursor = binaryCodec.encode(PostCursor.of(rows.get(0)));
+    }
+
+    @Benchmark
+    public CursorPageResponse<Post> firstPage() {
+        return CursorUtils.handlePagination(
+                request(null),
+                binaryCodec,
+                () -> rows,
+                cursor -> rows,
+                cursor -> rows,
+                cursor -> 1,
+                cursor -> 1,
+                PostCursor::of);
+    }
+
+    @Benchmark
+    public CursorPageResponse<Post> nextPageBinaryCursor() {
+        return CursorUtils.handlePagination(
+                request(binaryCursor),
+                binaryCodec,
+                () -> rows,
+                cursor -> rows,
+                cursor -> rows,
+                cursor -> 1,
+                cursor -> 1,
+                PostCursor::of);
+    }
+
+    @Benchmark
+    public CursorPageResponse<Post> nextPageJsonCursor() {
+        return CursorUtils.handlePagination(
+                request(jsonCursor),
+                () -> rows,
+                () -> rows,
+                () -> rows,
+                () -> 1,
+                cursorFieldsExtractor);
+    }
+
+    private CursorPageRequest request(String cursor) {
+        CursorPageRequest pageRequest = new CursorPageRequest();
+        pageRequest.setCursor(cursor);
+        pageRequest.setLimit(pageSize);
+        return pageRequest;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.cursorbasepagination.benchmark;
+
+import com.example.cursorbasepagination.config.ResponseFormats;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.util.cursor.BinaryCursorCodec;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh JSON, Smile và CBOR cho một trang bài viết: thời gian serialize (encode) và parse (decode)
+ * theo kích thước trang. Kích thước payload không phụ thuộc vào lần đo nên được in một lần trong setup
+ * (dòng bắt đầu bằng {@code [payload]} trong output của JMH).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseFormatBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private ResponseFormats.Format format;
+
+    private ObjectMapper mapper;
+    private CursorPageResponse<Post> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Cấu hình mặc định của Spring cho ObjectMapper, giống mapper của ứng dụng
+        mapper = new ResponseFormats(Jackson2ObjectMapperBuilder.json().build()).mapper(format);
+
+        List<Post> posts = BenchmarkData.posts(pageSize);
+        CursorCodec<PostCursor> codec = new BinaryCursorCodec();
+        page = new CursorPageResponse<>(posts,
+                codec.encode(PostCursor.of(posts.get(posts.size() - 1))),
+                codec.encode(PostCursor.of(posts.get(0))),
+                true, true);
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf("%n[payload] format=%s pageSize=%d bytes=%d (%.1f byte/bài viết)%n",
+                format, pageSize, encoded.length, (double) encoded.length / pageSize);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public JsonNode decode() throws IOException {
+        return mapper.readTree(encoded);
+    }
+}
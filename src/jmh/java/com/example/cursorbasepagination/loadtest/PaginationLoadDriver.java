@@ -0,0 +1,180 @@
+package com.example.cursorbasepagination.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load driver vòng kín cho phân trang sâu: mỗi worker đi theo nextCursor từ trang đầu tới độ sâu cho trước,
+ * gửi request kế tiếp ngay khi nhận được phản hồi. Độ trễ được gom theo dạng bộ lọc và nhóm độ sâu
+ * (1, 2-10, 11-100, ...) rồi in p50/p95/p99, để thấy độ trễ của keyset không tăng theo độ sâu.
+ *
+ * <p>Chạy (ứng dụng đang chạy, dữ liệu từ profile seed):
+ * <pre>
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.cursorbasepagination.loadtest.PaginationLoadDriver \
+ *     -Dexec.args="baseUrl=http://localhost:8080 concurrency=16 depth=1000 walks=64 limit=20 shapes=none,category:category-0,userId:1"
+ * </pre>
+ * Dạng bộ lọc: {@code none} dùng /api/posts, {@code tên:giá trị} dùng /api/posts/filter với tham số tương ứng.
+ *
+ * <p>Mỗi worker là một virtual thread nên có thể mô phỏng hàng nghìn client đồng thời. So sánh mô hình
+ * luồng-mỗi-request với virtual thread: chạy ứng dụng hai lần, với {@code spring.threads.virtual.enabled=false}
+ * và {@code =true} (cùng pool kết nối, {@code server.tomcat.max-connections} lớn hơn concurrency), rồi chạy
+ * driver với {@code concurrency=1000}, {@code 5000}, {@code 10000} và {@code walks} bằng concurrency;
+ * so sánh request/giây và p99 in ra, cùng {@code pagination.db-bulkhead.wait} và lỗi 503 ở actuator.
+ */
+public final class PaginationLoadDriver {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final int depth;
+    private final int limit;
+    // Độ trễ (nano giây) theo dạng bộ lọc, rồi theo nhóm độ sâu
+    private final Map<String, Map<Integer, List<Long>>> latencies = new ConcurrentHashMap<>();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    private PaginationLoadDriver(String baseUrl, int depth, int limit) {
+        this.baseUrl = baseUrl;
+        this.depth = depth;
+        this.limit = limit;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String baseUrl = options.getOrDefault("baseUrl", "http://localhost:8080");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        int depth = Integer.parseInt(options.getOrDefault("depth", "500"));
+        int walks = Integer.parseInt(options.getOrDefault("walks", "32"));
+        int limit = Integer.parseInt(options.getOrDefault("limit", "20"));
+        List<String> shapes = Arrays.asList(options.getOrDefault("shapes", "none").split(","));
+
+        PaginationLoadDriver driver = new PaginationLoadDriver(baseUrl, depth, limit);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().factory());
+        List<Future<?>> futures = new ArrayList<>();
+        // Mỗi lượt đi là một lần duyệt từ trang đầu tới độ sâu depth với một dạng bộ lọc
+        for (int i = 0; i < walks; i++) {
+            String shape = shapes.get(i % shapes.size());
+            futures.add(workers.submit(() -> driver.walk(shape)));
+        }
+        long started = System.nanoTime();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        workers.shutdown();
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        driver.report(seconds);
+    }
+
+    private void walk(String shape) {
+        String cursor = null;
+        for (int page = 1; page <= depth; page++) {
+            String url = url(shape, cursor);
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = httpClient.send(
+                        HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                long elapsed = System.nanoTime() - start;
+                if (response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                    return;
+                }
+                record(shape, page, elapsed);
+
+                JsonNode body = OBJECT_MAPPER.readTree(response.body());
+                if (!body.path("hasNext").asBoolean(false)) {
+                    return;
+                }
+                cursor = body.path("nextCursor").asText(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                errors.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private String url(String shape, String cursor) {
+        StringBuilder url = new StringBuilder(baseUrl);
+        if (shape.equals("none")) {
+            url.append("/api/posts?limit=").append(limit);
+        } else {
+            String[] parts = shape.split(":", 2);
+            url.append("/api/posts/filter?limit=").append(limit)
+                    .append('&').append(parts[0]).append('=').append(encode(parts[1]));
+        }
+        if (cursor != null) {
+            url.append("&cursor=").append(encode(cursor));
+        }
+        return url.toString();
+    }
+
+    private void record(String shape, int page, long nanos) {
+        latencies.computeIfAbsent(shape, s -> new ConcurrentHashMap<>())
+                .computeIfAbsent(bucket(page), b -> Collections.synchronizedList(new ArrayList<>()))
+                .add(nanos);
+    }
+
+    // Nhóm độ sâu theo lũy thừa của 10: 1, 2-10, 11-100, 101-1000, ...
+    private static int bucket(int page) {
+        int upper = 1;
+        while (page > upper) {
+            upper *= 10;
+        }
+        return upper;
+    }
+
+    private void report(double seconds) {
+        long total = 0;
+        System.out.printf("%-28s %-12s %8s %10s %10s %10s%n", "dạng bộ lọc", "độ sâu", "số mẫu", "p50 (ms)", "p95 (ms)", "p99 (ms)");
+        for (Map.Entry<String, Map<Integer, List<Long>>> shape : new TreeMap<>(latencies).entrySet()) {
+            for (Map.Entry<Integer, List<Long>> bucket : new TreeMap<>(shape.getValue()).entrySet()) {
+                long[] samples = bucket.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+                total += samples.length;
+                int upper = bucket.getKey();
+                String range = upper == 1 ? "1" : (upper / 10 + 1) + "-" + upper;
+                System.out.printf("%-28s %-12s %8d %10.2f %10.2f %10.2f%n", shape.getKey(), range, samples.length,
+                        percentile(samples, 0.50), percentile(samples, 0.95), percentile(samples, 0.99));
+            }
+        }
+        System.out.printf("%d request trong %.1f giây (%.0f request/giây), %d lỗi%n",
+                total, seconds, total / seconds, errors.get());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dao.PostShards;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache số lượng bài viết ước lượng theo bộ lọc đã chuẩn hóa, dùng cho "khoảng N kết quả".
+ *
+ * <p>Giá trị được tính trên executor nền và request phân trang không bao giờ chờ: khi chưa có giá trị
+ * thì trả về null (lần sau sẽ có). Sau {@code refresh-interval} giá trị cũ vẫn được trả về trong khi
+ * được tính lại ở nền; quá {@code max-staleness} thì bị loại bỏ. Số bộ lọc được giữ bị giới hạn
+ * bởi {@code maximum-size}.
+ *
+ * <p>Ước lượng lấy từ EXPLAIN (rows * filtered / 100) nên không phải quét index. Khi ước lượng nhỏ hơn
+ * {@code exact-threshold} (bộ lọc chọn lọc cao), chạy COUNT(*) thật vì số dòng phải đếm ít.
+ * Ở chế độ phân mảnh, mỗi shard liên quan tự ước lượng (hoặc đếm) rồi kết quả được cộng lại.
+ *
+ * <p>Bộ lọc theo title không được ước lượng: mỗi chuỗi con là một bộ lọc khác nhau nên cache gần như không
+ * bao giờ trúng, và LIKE '%...%' không dùng được index nên COUNT(*) đắt. Việc tính chạy trên
+ * {@code threads} luồng với hàng đợi tối đa {@code queue-size} việc; khi đầy, việc mới bị bỏ (lần tính đầu
+ * được thử lại ở request sau, lần làm mới giữ giá trị cũ). Các {@link PostsChangedEvent} trong vòng
+ * {@code refresh-delay} được gộp lại để mỗi bộ lọc chỉ được tính lại một lần cho cả loạt thay đổi.
+ */
+@Slf4j
+@Component
+public class CountEstimateCache {
+    private final PostMapper postMapper;
+    // null khi không phân mảnh
+    private final PostShards postShards;
+    private final boolean enabled;
+    private final long exactThreshold;
+    private final Duration refreshDelay;
+    private final ExecutorService executor;
+    private final AsyncLoadingCache<PostFilter, Long> cache;
+    // Bộ lọc cần tính lại ở lần làm mới kế tiếp
+    private final Set<PostFilter> stale = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final Counter rejected;
+
+    public CountEstimateCache(
+            PostMapper postMapper,
+            ObjectProvider<PostShards> postShards,
+            MeterRegistry meterRegistry,
+            @Value("${pagination.count-estimate.enabled:true}") boolean enabled,
+            @Value("${pagination.count-estimate.maximum-size:10000}") long maximumSize,
+            @Value("${pagination.count-estimate.refresh-interval:1m}") Duration refreshInterval,
+            @Value("${pagination.count-estimate.max-staleness:10m}") Duration maxStaleness,
+            @Value("${pagination.count-estimate.exact-threshold:10000}") long exactThreshold,
+            @Value("${pagination.count-estimate.threads:1}") int threads,
+            @Value("${pagination.count-estimate.queue-size:100}") int queueSize,
+            @Value("${pagination.count-estimate.refresh-delay:1s}") Duration refreshDelay) {
+        this.postMapper = postMapper;
+        this.postShards = postShards.getIfAvailable();
+        this.enabled = enabled;
+        this.exactThreshold = exactThreshold;
+        this.refreshDelay = refreshDelay;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), daemonThreadFactory());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refreshInterval)
+                .expireAfterWrite(maxStaleness)
+                .recordStats()
+                .buildAsync((filter, ignored) -> submit(filter));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "posts.countEstimate");
+        this.rejected = meterRegistry.counter("pagination.count-estimate.rejected");
+    }
+
+    /**
+     * Lấy số lượng ước lượng cho bộ lọc mà không chờ.
+     *
+     * @param filter Bộ lọc đã chuẩn hóa
+     * @return Số lượng ước lượng, hoặc null nếu chưa tính xong (hoặc đã tắt, hoặc bộ lọc theo title)
+     */
+    public Long estimate(PostFilter filter) {
+        if (!enabled || filter.getTitle() != null) {
+            return null;
+        }
+        CompletableFuture<Long> future = cache.get(filter);
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    /**
+     * Đánh dấu các bộ lọc bị ảnh hưởng khi bài viết thay đổi; chúng được tính lại ở nền sau
+     * {@code refresh-delay} (giá trị cũ vẫn được dùng cho tới khi có giá trị mới).
+     */
+    @EventListener
+    public void onPostsChanged(PostsChangedEvent event) {
+        for (PostFilter filter : cache.asMap().keySet()) {
+            if (event.affects(filter)) {
+                stale.add(filter);
+            }
+        }
+        if (!stale.isEmpty() && refreshScheduled.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(refreshDelay.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(this::refreshStale);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Mỗi bộ lọc được tính lại một lần cho cả loạt sự kiện đã gộp
+    private void refreshStale() {
+        refreshScheduled.set(false);
+        for (PostFilter filter : stale) {
+            stale.remove(filter);
+            cache.synchronous().refresh(filter);
+        }
+    }
+
+    // Hàng đợi đầy thì bỏ việc: future bị hủy nên Caffeine bỏ lần tính đầu (không ghi log) và giữ giá trị cũ
+    // khi làm mới
+    private CompletableFuture<Long> submit(PostFilter filter) {
+        try {
+            return CompletableFuture.supplyAsync(() -> load(filter), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            CompletableFuture<Long> discarded = new CompletableFuture<>();
+            discarded.cancel(false);
+            return discarded;
+        }
+    }
+
+    private Long load(PostFilter filter) {
+        if (postShards == null) {
+            return load(postMapper, filter);
+        }
+        long total = 0;
+        for (Long count : postShards.query(filter.getUserId(), mapper -> load(mapper, filter))) {
+            total += count;
+        }
+        return total;
+    }
+
+    private long load(PostMapper mapper, PostFilter filter) {
+        long estimate = explainEstimate(mapper, filter);
+        if (estimate > exactThreshold) {
+            return estimate;
+        }
+        // Bộ lọc chọn lọc cao: đếm chính xác trên ít dòng
+        return mapper.countWithFilters(filter.getTitle(), filter.getCategory(), filter.getUserId(),
+                filter.getStartDate(), filter.getEndDate());
+    }
+
+    private long explainEstimate(PostMapper mapper, PostFilter filter) {
+        List<Map<String, Object>> plan = mapper.explainWithFilters(filter.getTitle(), filter.getCategory(),
+                filter.getUserId(), filter.getStartDate(), filter.getEndDate());
+        if (plan.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> row = plan.get(0);
+        double rows = row.get("rows") instanceof Number n ? n.doubleValue() : 0;
+        double filtered = row.get("filtered") instanceof Number n ? n.doubleValue() : 100;
+        long estimate = Math.round(rows * filtered / 100);
+        log.debug("Ước lượng số bài viết cho {}: {}", filter, estimate);
+        return estimate;
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "count-estimate-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
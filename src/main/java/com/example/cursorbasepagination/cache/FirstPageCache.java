@@ -0,0 +1,140 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Cache trong tiến trình cho trang đầu tiên, khóa theo bộ lọc đã chuẩn hóa, limit và fields.
+ *
+ * <p>Giới hạn theo số mục và TTL; các request đồng thời cho cùng một khóa chỉ chạy một truy vấn
+ * (các request còn lại chờ kết quả). nextCursor trong trang được cache chỉ chứa khóa (createdAt, id)
+ * của phần tử cuối nên trang thứ hai vẫn tiếp nối đúng. Trang đang được tải khi có {@link PostsChangedEvent}
+ * ảnh hưởng tới nó vẫn được trả cho request đang chờ nhưng không được lưu, vì có thể đã đọc trước thay đổi.
+ * Thống kê hit/miss/eviction được công bố qua Micrometer với tên cache {@code posts.firstPage}.
+ */
+@Slf4j
+@Component
+public class FirstPageCache {
+    private final boolean enabled;
+    private final Cache<Key, CursorPageResponse<Post>> cache;
+    // Các trang đang được tải, cờ bật khi có thay đổi ảnh hưởng trong lúc tải
+    private final Map<Key, AtomicBoolean> loading = new ConcurrentHashMap<>();
+
+    public FirstPageCache(
+            MeterRegistry meterRegistry,
+            @Value("${pagination.first-page-cache.enabled:true}") boolean enabled,
+            @Value("${pagination.first-page-cache.maximum-size:1000}") long maximumSize,
+            @Value("${pagination.first-page-cache.ttl:10s}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "posts.firstPage");
+    }
+
+    /**
+     * Lấy trang đầu tiên từ cache, hoặc tải bằng loader nếu chưa có.
+     *
+     * @param filter Bộ lọc đã chuẩn hóa
+     * @param limit Số phần tử mỗi trang
+     * @param fields Các trường được chọn (null = tất cả)
+     * @param loader Hàm tải trang đầu tiên từ database
+     * @return Trang đầu tiên
+     */
+    public CursorPageResponse<Post> get(PostFilter filter, int limit, Set<String> fields,
+                                        Supplier<CursorPageResponse<Post>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(filter, limit, fields);
+        AtomicBoolean invalidated = new AtomicBoolean();
+        // Caffeine không lưu khi hàm tính trả về null
+        AtomicReference<CursorPageResponse<Post>> loaded = new AtomicReference<>();
+        CursorPageResponse<Post> page = cache.get(key, k -> {
+            loading.put(k, invalidated);
+            try {
+                loaded.set(loader.get());
+            } finally {
+                loading.remove(k);
+            }
+            return invalidated.get() ? null : loaded.get();
+        });
+        return page != null ? page : loaded.get();
+    }
+
+    /**
+     * Vô hiệu hóa các trang đầu bị ảnh hưởng khi bài viết thay đổi.
+     */
+    @EventListener
+    public void onPostsChanged(PostsChangedEvent event) {
+        // Trang đang tải không nằm trong asMap() nên phải đánh dấu riêng
+        loading.forEach((key, invalidated) -> {
+            if (event.affects(key.filter)) {
+                invalidated.set(true);
+            }
+        });
+        if (event.isGlobal()) {
+            invalidateAll();
+            return;
+        }
+        cache.asMap().keySet().removeIf(key -> event.affects(key.filter));
+    }
+
+    /**
+     * Xóa toàn bộ cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        log.debug("Đã xóa toàn bộ cache trang đầu tiên");
+    }
+
+    private static final class Key {
+        private final PostFilter filter;
+        private final int limit;
+        private final Set<String> fields;
+
+        private Key(PostFilter filter, int limit, Set<String> fields) {
+            this.filter = filter;
+            this.limit = limit;
+            this.fields = fields;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return limit == that.limit && filter.equals(that.filter) && Objects.equals(fields, that.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, limit, fields);
+        }
+    }
+}
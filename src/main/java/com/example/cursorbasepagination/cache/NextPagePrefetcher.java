@@ -0,0 +1,207 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Tải trước trang kế tiếp trên executor nền có giới hạn.
+ *
+ * <p>Sau khi trả về một trang có hasNext, truy vấn cho nextCursor được chạy nền và kết quả
+ * được giữ ngắn hạn theo khóa (bộ lọc, limit, fields, cursor). Request tiếp theo với cursor đó
+ * lấy kết quả từ bộ nhớ (hoặc chờ truy vấn đang chạy) thay vì truy vấn lại.
+ *
+ * <p>Số truy vấn chạy đồng thời bị giới hạn bởi {@code max-concurrent-queries} (ngân sách kết nối
+ * dành cho tải trước trong pool), tổng số truy vấn đang chờ/chạy bởi {@code max-in-flight};
+ * vượt quá thì bỏ qua việc tải trước. Các counter {@code pagination.prefetch} (issued/hit/miss/rejected)
+ * cho biết tỉ lệ hit.
+ */
+@Slf4j
+@Component
+public class NextPagePrefetcher {
+    private final boolean enabled;
+    private final Duration waitTimeout;
+    private final Semaphore inFlight;
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final ThreadPoolExecutor executor;
+    private final Cache<Key, CompletableFuture<List<Post>>> results;
+
+    private final Counter issued;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejected;
+
+    public NextPagePrefetcher(
+            MeterRegistry meterRegistry,
+            @Value("${pagination.prefetch.enabled:false}") boolean enabled,
+            @Value("${pagination.prefetch.max-concurrent-queries:2}") int maxConcurrentQueries,
+            @Value("${pagination.prefetch.max-in-flight:64}") int maxInFlight,
+            @Value("${pagination.prefetch.ttl:5s}") Duration ttl,
+            @Value("${pagination.prefetch.wait-timeout:200ms}") Duration waitTimeout) {
+        this.enabled = enabled;
+        this.waitTimeout = waitTimeout;
+        this.inFlight = new Semaphore(maxInFlight);
+        // Số luồng bằng ngân sách kết nối, hàng đợi đủ cho phần còn lại của max-in-flight
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrentQueries, maxConcurrentQueries,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, maxInFlight)),
+                daemonThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxInFlight * 16L)
+                .expireAfterWrite(ttl)
+                .build();
+
+        this.issued = meterRegistry.counter("pagination.prefetch", "result", "issued");
+        this.hits = meterRegistry.counter("pagination.prefetch", "result", "hit");
+        this.misses = meterRegistry.counter("pagination.prefetch", "result", "miss");
+        this.rejected = meterRegistry.counter("pagination.prefetch", "result", "rejected");
+        Gauge.builder("pagination.prefetch.in_flight", inFlightCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Tạo khóa tải trước cho trang bắt đầu sau cursor.
+     */
+    public static Key key(PostFilter filter, int limit, Set<String> fields, PostCursor cursor) {
+        return new Key(filter, limit, fields, cursor.getId(), cursor.getCreatedAtMillis());
+    }
+
+    /**
+     * Lấy trang đã được tải trước cho khóa nếu có, nếu không thì chạy loader.
+     */
+    public List<Post> fetch(Key key, Supplier<List<Post>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        CompletableFuture<List<Post>> prefetched = results.asMap().remove(key);
+        if (prefetched != null) {
+            try {
+                List<Post> posts = prefetched.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                hits.increment();
+                return posts;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                log.debug("Không dùng được trang tải trước: {}", e.toString());
+            }
+        }
+        misses.increment();
+        return loader.get();
+    }
+
+    /**
+     * Bắt đầu tải trước trang cho khóa trên executor nền. Bỏ qua nếu đã vượt giới hạn.
+     */
+    public void prefetch(Key key, Supplier<List<Post>> loader) {
+        if (!enabled || results.getIfPresent(key) != null) {
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            rejected.increment();
+            return;
+        }
+
+        CompletableFuture<List<Post>> future = new CompletableFuture<>();
+        results.put(key, future);
+        try {
+            inFlightCount.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    future.complete(loader.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                    results.asMap().remove(key, future);
+                } finally {
+                    inFlightCount.decrementAndGet();
+                    inFlight.release();
+                }
+            });
+            issued.increment();
+        } catch (RejectedExecutionException e) {
+            results.asMap().remove(key, future);
+            inFlightCount.decrementAndGet();
+            inFlight.release();
+            rejected.increment();
+        }
+    }
+
+    /**
+     * Bỏ các trang tải trước có thể đã cũ khi bài viết thay đổi.
+     */
+    @EventListener
+    public void onPostsChanged(PostsChangedEvent event) {
+        results.asMap().keySet().removeIf(key -> event.affects(key.filter));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "page-prefetch-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Khóa của một trang tải trước.
+     */
+    public static final class Key {
+        private final PostFilter filter;
+        private final int limit;
+        private final Set<String> fields;
+        private final long cursorId;
+        private final long cursorCreatedAt;
+
+        private Key(PostFilter filter, int limit, Set<String> fields, long cursorId, long cursorCreatedAt) {
+            this.filter = filter;
+            this.limit = limit;
+            this.fields = fields;
+            this.cursorId = cursorId;
+            this.cursorCreatedAt = cursorCreatedAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return limit == that.limit && cursorId == that.cursorId && cursorCreatedAt == that.cursorCreatedAt
+                    && filter.equals(that.filter) && Objects.equals(fields, that.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, limit, fields, cursorId, cursorCreatedAt);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dto.request.CursorPageRequest;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Gộp các request trang giống hệt nhau đang chạy đồng thời (single-flight): request đầu tiên với một khóa
+ * (bộ lọc, cursor, chiều, limit, fields) chạy truy vấn, các request đến trong lúc truy vấn đang chạy chờ và
+ * nhận cùng một {@link CursorPageResponse}. Kết quả không được giữ lại sau khi truy vấn xong, nên không có
+ * request nào nhận dữ liệu cũ hơn truy vấn đang chạy lúc nó đến.
+ *
+ * <p>Request chờ quá {@code wait-timeout} thì tự chạy truy vấn của mình. Lỗi của truy vấn được chia sẻ cho
+ * mọi request đang chờ. Khi bài viết thay đổi, truy vấn đang chạy của các bộ lọc bị ảnh hưởng không nhận thêm
+ * request mới. Counter {@code pagination.coalesce} (leader/collapsed/timeout) cho biết số request được gộp.
+ */
+@Slf4j
+@Component
+public class PageRequestCoalescer {
+    private final boolean enabled;
+    private final Duration waitTimeout;
+    private final Map<Key, CompletableFuture<CursorPageResponse<Post>>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter collapsed;
+    private final Counter timeouts;
+
+    public PageRequestCoalescer(
+            MeterRegistry meterRegistry,
+            @Value("${pagination.coalescing.enabled:true}") boolean enabled,
+            @Value("${pagination.coalescing.wait-timeout:2s}") Duration waitTimeout) {
+        this.enabled = enabled;
+        this.waitTimeout = waitTimeout;
+
+        this.leaders = meterRegistry.counter("pagination.coalesce", "result", "leader");
+        this.collapsed = meterRegistry.counter("pagination.coalesce", "result", "collapsed");
+        this.timeouts = meterRegistry.counter("pagination.coalesce", "result", "timeout");
+        Gauge.builder("pagination.coalesce.in_flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Tạo khóa gộp cho một request trang. Gọi sau khi vị trí bắt đầu (lastCreatedAt/lastId) đã được đổi thành cursor.
+     */
+    public static Key key(PostFilter filter, CursorPageRequest pageRequest, int limit, Set<String> fields) {
+        return new Key(filter, pageRequest.getCursor(), pageRequest.getDirection(), limit, fields);
+    }
+
+    /**
+     * Chạy truy vấn, hoặc chờ kết quả của truy vấn giống hệt đang chạy.
+     */
+    public CursorPageResponse<Post> execute(Key key, Supplier<CursorPageResponse<Post>> query) {
+        if (!enabled) {
+            return query.get();
+        }
+
+        CompletableFuture<CursorPageResponse<Post>> future = new CompletableFuture<>();
+        CompletableFuture<CursorPageResponse<Post>> running = inFlight.putIfAbsent(key, future);
+        if (running == null) {
+            leaders.increment();
+            try {
+                CursorPageResponse<Post> response = query.get();
+                future.complete(response);
+                return response;
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, future);
+            }
+        }
+
+        try {
+            CursorPageResponse<Post> response = running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            collapsed.increment();
+            return response;
+        } catch (ExecutionException e) {
+            collapsed.increment();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Truy vấn trang thất bại", e.getCause());
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            log.debug("Chờ truy vấn đang chạy quá {} ms, tự truy vấn", waitTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return query.get();
+    }
+
+    /**
+     * Truy vấn đang chạy của bộ lọc bị ảnh hưởng có thể không thấy thay đổi, nên request đến sau phải truy vấn lại.
+     */
+    @EventListener
+    public void onPostsChanged(PostsChangedEvent event) {
+        if (event.isGlobal()) {
+            inFlight.clear();
+            return;
+        }
+        inFlight.keySet().removeIf(key -> event.affects(key.filter));
+    }
+
+    /**
+     * Khóa của một request trang.
+     */
+    public static final class Key {
+        private final PostFilter filter;
+        private final String cursor;
+        private final CursorPageRequest.PaginationDirection direction;
+        private final int limit;
+        private final Set<String> fields;
+
+        private Key(PostFilter filter, String cursor, CursorPageRequest.PaginationDirection direction,
+                    int limit, Set<String> fields) {
+            this.filter = filter;
+            this.cursor = cursor;
+            this.direction = direction;
+            this.limit = limit;
+            this.fields = fields;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return limit == that.limit && direction == that.direction && filter.equals(that.filter)
+                    && Objects.equals(cursor, that.cursor) && Objects.equals(fields, that.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, cursor, direction, limit, fields);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.config.ResponseFormats;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ETag và nội dung đã serialize (JSON, Smile hoặc CBOR) của các trang bài viết.
+ *
+ * <p>ETag là hash FNV-1a 64 bit của (id, createdAt) các phần tử, cờ và cursor của trang, các trường được chọn,
+ * totalEstimate, định dạng và phiên bản dữ liệu. Phiên bản tăng mỗi khi có {@link PostsChangedEvent} nên sửa nội dung
+ * mà không đổi (id, createdAt) vẫn làm ETag thay đổi.
+ *
+ * <p>Nội dung của trang được giữ theo ETag (giới hạn theo tổng số byte), nên request lặp lại cho trang nóng
+ * không phải chạy Jackson.
+ */
+@Component
+public class PageResponseCache {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ResponseFormats responseFormats;
+    private final boolean enabled;
+    private final AtomicLong version = new AtomicLong();
+    private final Cache<String, byte[]> cache;
+
+    public PageResponseCache(
+            ResponseFormats responseFormats,
+            MeterRegistry meterRegistry,
+            @Value("${pagination.response-cache.enabled:true}") boolean enabled,
+            @Value("${pagination.response-cache.maximum-size:16MB}") DataSize maximumSize,
+            @Value("${pagination.response-cache.ttl:30s}") Duration ttl) {
+        this.responseFormats = responseFormats;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, byte[] value) -> value.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "posts.pageBytes");
+    }
+
+    /**
+     * Tính ETag mạnh (có dấu nháy) cho trang.
+     *
+     * @param page Trang bài viết
+     * @param fields Các trường được chọn (null = tất cả)
+     * @param format Định dạng của nội dung
+     * @return ETag, ví dụ "\"5f0c9e2a1b3d4c67\""
+     */
+    public String etag(CursorPageResponse<Post> page, Set<String> fields, ResponseFormats.Format format) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, version.get());
+        hash = mix(hash, format.ordinal());
+        for (Post post : page.getItems()) {
+            hash = mix(hash, post.getId() != null ? post.getId() : 0L);
+            Date createdAt = post.getCreatedAt();
+            hash = mix(hash, createdAt != null ? createdAt.getTime() : 0L);
+        }
+        hash = mix(hash, (page.isHasNext() ? 1 : 0) | (page.isHasPrevious() ? 2 : 0));
+        hash = mix(hash, page.getTotalEstimate() != null ? page.getTotalEstimate() : -1L);
+        hash = mix(hash, page.getNextCursor());
+        hash = mix(hash, page.getPreviousCursor());
+        // Thứ tự của fields không ảnh hưởng tới nội dung
+        hash = mix(hash, fields != null ? String.join(",", new TreeSet<>(fields)) : null);
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Lấy nội dung của trang theo ETag (ETag đã gồm định dạng và fields), serialize bằng Jackson nếu chưa có.
+     * Trang đã chọn trường (fields khác null) không ghi các trường null của bài viết.
+     */
+    public byte[] serialize(String etag, CursorPageResponse<Post> page, Set<String> fields,
+                            ResponseFormats.Format format) {
+        if (!enabled) {
+            return responseFormats.write(page, format, fields != null);
+        }
+        return cache.get(etag, key -> responseFormats.write(page, format, fields != null));
+    }
+
+    /**
+     * Kiểm tra header If-None-Match có khớp ETag không (so sánh yếu như RFC 9110 quy định cho If-None-Match).
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Đổi phiên bản dữ liệu và bỏ nội dung đã giữ khi bài viết thay đổi.
+     */
+    @EventListener
+    public void onPostsChanged(PostsChangedEvent event) {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1L);
+        }
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash, value.length());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache bài viết đầy đủ theo id cho chế độ deferred join (pagination.deferred-join.enabled=true).
+ *
+ * <p>Truy vấn trang chỉ lấy (id, created_at) trên index phủ, sau đó {@link #hydrate} điền các trường còn lại:
+ * bài viết có sẵn trong cache được dùng lại, phần còn thiếu được lấy bằng một câu {@code WHERE id IN (...)}.
+ * Bài viết nóng xuất hiện ở nhiều feed và nhiều tổ hợp bộ lọc vì vậy chỉ được đọc một lần.
+ * Giới hạn theo số mục và TTL, thống kê công bố với tên cache {@code posts.rows}.
+ */
+@Slf4j
+@Component
+public class PostRowCache {
+    private final PostMapper postMapper;
+    private final boolean enabled;
+    private final Cache<Long, Post> cache;
+
+    public PostRowCache(
+            PostMapper postMapper,
+            MeterRegistry meterRegistry,
+            @Value("${pagination.deferred-join.enabled:false}") boolean enabled,
+            @Value("${pagination.deferred-join.maximum-size:100000}") long maximumSize,
+            @Value("${pagination.deferred-join.ttl:5m}") Duration ttl) {
+        this.postMapper = postMapper;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "posts.rows");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Điền các trường của bài viết cho một trang chỉ có (id, createdAt), giữ nguyên thứ tự.
+     * Bài viết đã bị xóa giữa hai pha bị bỏ khỏi trang.
+     *
+     * @param keys Trang kết quả của pha thứ nhất
+     * @param fields Các trường cần trả về ngoài id và createdAt (null = tất cả)
+     * @return Trang với các bài viết đã được điền, là bản sao nên cache không bị thay đổi
+     */
+    public List<Post> hydrate(List<Post> keys, Set<String> fields) {
+        if (keys.isEmpty()) {
+            return keys;
+        }
+
+        List<Long> ids = new ArrayList<>(keys.size());
+        for (Post key : keys) {
+            ids.add(key.getId());
+        }
+        Map<Long, Post> rows = new HashMap<>(cache.getAllPresent(ids));
+        if (rows.size() < ids.size()) {
+            List<Long> missing = new ArrayList<>(ids.size() - rows.size());
+            for (Long id : ids) {
+                if (!rows.containsKey(id)) {
+                    missing.add(id);
+                }
+            }
+            for (Post post : postMapper.findByIds(missing)) {
+                cache.put(post.getId(), post);
+                rows.put(post.getId(), post);
+            }
+            log.debug("Deferred join: {} bài viết từ cache, {} từ database", ids.size() - missing.size(), missing.size());
+        }
+
+        List<Post> page = new ArrayList<>(keys.size());
+        for (Long id : ids) {
+            Post row = rows.get(id);
+            if (row != null) {
+                page.add(project(row, fields));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Bỏ các bài viết đã thay đổi theo id. Bài viết mới thêm chưa có trong cache nên không bỏ gì; sự kiện
+     * toàn cục hoặc không rõ id thì bỏ toàn bộ cache thay vì duyệt từng mục.
+     */
+    @EventListener
+    public void onPostsChanged(PostsChangedEvent event) {
+        if (event.isGlobal() || !event.hasPostIds()) {
+            cache.invalidateAll();
+            return;
+        }
+        if (!event.getPostIds().isEmpty()) {
+            cache.invalidateAll(event.getPostIds());
+        }
+    }
+
+    // Bản sao chỉ gồm các trường được chọn, để JSON bỏ qua các trường không được yêu cầu
+    private static Post project(Post row, Set<String> fields) {
+        Post post = new Post();
+        post.setId(row.getId());
+        post.setCreatedAt(row.getCreatedAt());
+        if (fields == null || fields.contains("title")) {
+            post.setTitle(row.getTitle());
+        }
+        if (fields == null || fields.contains("content")) {
+            post.setContent(row.getContent());
+        }
+        if (fields == null || fields.contains("userId")) {
+            post.setUserId(row.getUserId());
+        }
+        if (fields == null || fields.contains("category")) {
+            post.setCategory(row.getCategory());
+        }
+        return post;
+    }
+}
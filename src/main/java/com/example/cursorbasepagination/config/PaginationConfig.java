@@ -0,0 +1,43 @@
+package com.example.cursorbasepagination.config;
+
+import com.example.cursorbasepagination.monitoring.PaginationMetrics;
+import com.example.cursorbasepagination.util.cursor.BinaryCursorCodec;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import com.example.cursorbasepagination.util.cursor.KeysetCursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.example.cursorbasepagination.util.cursor.SearchCursor;
+import com.example.cursorbasepagination.util.cursor.SearchCursorCodec;
+import com.example.cursorbasepagination.util.keyset.KeysetCursor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cấu hình các thành phần dùng chung cho phân trang.
+ */
+@Configuration
+public class PaginationConfig {
+
+    /**
+     * Codec cursor của bài viết: định dạng nhị phân, có đo thời gian và lỗi giải mã.
+     */
+    @Bean
+    public CursorCodec<PostCursor> postCursorCodec(PaginationMetrics paginationMetrics) {
+        return paginationMetrics.instrument(new BinaryCursorCodec());
+    }
+
+    /**
+     * Codec cursor của tìm kiếm theo độ liên quan.
+     */
+    @Bean
+    public CursorCodec<SearchCursor> searchCursorCodec(PaginationMetrics paginationMetrics) {
+        return paginationMetrics.instrument(new SearchCursorCodec());
+    }
+
+    /**
+     * Codec cursor của phân trang theo thứ tự sắp xếp tùy chọn (nhiều khóa, có kiểu).
+     */
+    @Bean
+    public CursorCodec<KeysetCursor> keysetCursorCodec(PaginationMetrics paginationMetrics) {
+        return paginationMetrics.instrument(new KeysetCursorCodec());
+    }
+}
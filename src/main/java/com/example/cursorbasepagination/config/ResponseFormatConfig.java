@@ -0,0 +1,30 @@
+package com.example.cursorbasepagination.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Đăng ký Smile và CBOR cho content negotiation của Spring MVC, dùng cùng mapper với các trang được cache
+ * trong PageResponseCache. Spring Boot đặt các converter này thay cho converter mặc định cùng loại.
+ */
+@Configuration
+public class ResponseFormatConfig {
+
+    @Bean
+    public ResponseFormats responseFormats(ObjectMapper objectMapper) {
+        return new ResponseFormats(objectMapper);
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ResponseFormats responseFormats) {
+        return new MappingJackson2SmileHttpMessageConverter(responseFormats.mapper(ResponseFormats.Format.SMILE));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ResponseFormats responseFormats) {
+        return new MappingJackson2CborHttpMessageConverter(responseFormats.mapper(ResponseFormats.Format.CBOR));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.cursorbasepagination.config;
+
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.Post;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Các định dạng của trang bài viết theo header Accept: JSON (mặc định), Smile và CBOR.
+ *
+ * <p>Hai định dạng nhị phân không lặp lại tên trường ở mỗi phần tử: Smile tham chiếu lại tên (và chuỗi ngắn
+ * như category) đã ghi, CBOR dùng stringref. Cursor được ghi dạng byte thô thay vì chuỗi base64url;
+ * client mã hóa lại bằng base64url (không padding) khi gửi cursor lên query string.
+ *
+ * <p>Mapper nhị phân là bản sao của ObjectMapper của ứng dụng nên có cùng module và cấu hình.
+ *
+ * <p>Mỗi định dạng có thêm một mapper cho phản hồi đã chọn trường (tham số fields): mapper này bỏ các trường null
+ * của bài viết, để trường không được chọn không xuất hiện. Phản hồi không chọn trường giữ nguyên dạng cũ (có khóa null).
+ */
+public class ResponseFormats {
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    public static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON),
+        SMILE(APPLICATION_SMILE),
+        CBOR(APPLICATION_CBOR);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private final Map<Format, ObjectMapper> mappers = new EnumMap<>(Format.class);
+    private final Map<Format, ObjectMapper> projectedMappers = new EnumMap<>(Format.class);
+
+    public ResponseFormats(ObjectMapper objectMapper) {
+        mappers.put(Format.JSON, objectMapper);
+        mappers.put(Format.SMILE, withRawCursors(objectMapper.copyWith(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build())));
+        mappers.put(Format.CBOR, withRawCursors(objectMapper.copyWith(CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build())));
+        // Bản sao riêng để không thay đổi mapper dùng chung của ứng dụng
+        for (Map.Entry<Format, ObjectMapper> entry : mappers.entrySet()) {
+            projectedMappers.put(entry.getKey(),
+                    entry.getValue().copy().addMixIn(Post.class, ProjectedPostMixin.class));
+        }
+    }
+
+    public ObjectMapper mapper(Format format) {
+        return mappers.get(format);
+    }
+
+    /**
+     * @param projected Phản hồi đã chọn trường: bỏ các trường null của bài viết
+     */
+    public ObjectMapper mapper(Format format, boolean projected) {
+        return projected ? projectedMappers.get(format) : mappers.get(format);
+    }
+
+    /**
+     * Serialize phản hồi theo định dạng.
+     */
+    public byte[] write(Object value, Format format, boolean projected) {
+        try {
+            return mapper(format, projected).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Không thể serialize phản hồi", e);
+        }
+    }
+
+    /**
+     * Chọn định dạng theo header Accept: định dạng được hỗ trợ có quality cao nhất, mặc định là JSON.
+     */
+    public static Format negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return Format.JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (IllegalArgumentException e) {
+            return Format.JSON;
+        }
+        Format best = Format.JSON;
+        double bestQuality = 0;
+        for (MediaType mediaType : mediaTypes) {
+            double quality = mediaType.getQualityValue();
+            Format format = match(mediaType);
+            // Cùng quality thì giữ lựa chọn xuất hiện trước trong header
+            if (format != null && quality > bestQuality) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static Format match(MediaType mediaType) {
+        if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+            return Format.JSON;
+        }
+        for (Format format : Format.values()) {
+            if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static ObjectMapper withRawCursors(ObjectMapper mapper) {
+        return mapper.addMixIn(CursorPageResponse.class, RawCursorMixin.class);
+    }
+
+    // Áp dụng cho Post và các lớp con (FeedPost, ScoredPost) khi phản hồi đã chọn trường
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    abstract static class ProjectedPostMixin {
+    }
+
+    // Chỉ áp dụng cho mapper nhị phân: nextCursor/previousCursor được ghi dạng byte
+    abstract static class RawCursorMixin {
+        @JsonSerialize(using = RawCursorSerializer.class)
+        abstract String getNextCursor();
+
+        @JsonSerialize(using = RawCursorSerializer.class)
+        abstract String getPreviousCursor();
+    }
+
+    /**
+     * Ghi cursor base64url dưới dạng byte thô; cursor không phải base64url (ví dụ định dạng cũ) được giữ nguyên chuỗi.
+     */
+    public static class RawCursorSerializer extends StdSerializer<String> {
+        public RawCursorSerializer() {
+            super(String.class);
+        }
+
+        @Override
+        public void serialize(String cursor, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            byte[] bytes;
+            try {
+                bytes = Base64.getUrlDecoder().decode(cursor);
+            } catch (IllegalArgumentException e) {
+                gen.writeString(cursor);
+                return;
+            }
+            gen.writeBinary(bytes);
+        }
+    }
+}
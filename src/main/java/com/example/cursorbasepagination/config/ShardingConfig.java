@@ -0,0 +1,73 @@
+package com.example.cursorbasepagination.config;
+
+import com.example.cursorbasepagination.dao.DatabaseBulkhead;
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dao.PostShards;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.plugin.Interceptor;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.boot.autoconfigure.MybatisProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cấu hình chế độ phân mảnh (pagination.sharding.enabled=true): mỗi shard có pool kết nối và
+ * SqlSessionFactory riêng, dùng chung mapper XML, biến cấu hình (seekMode) và interceptor với datasource chính.
+ *
+ * <p>Các DataSource của shard không được đăng ký làm bean để không ảnh hưởng tới DataSource chính
+ * do Spring Boot tự cấu hình.
+ */
+@Configuration
+@ConditionalOnProperty(name = "pagination.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public PostShards postShards(ShardingProperties shardingProperties,
+                                 MybatisProperties mybatisProperties,
+                                 ObjectProvider<Interceptor> interceptors,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads)
+            throws Exception {
+        if (shardingProperties.getShards().isEmpty()) {
+            throw new IllegalStateException("Cần khai báo ít nhất một shard trong pagination.sharding.shards");
+        }
+
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        List<PostMapper> mappers = new ArrayList<>();
+        for (int i = 0; i < shardingProperties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = shardingProperties.getShards().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            dataSource.setPoolName("posts-shard-" + i);
+            dataSource.setMaximumPoolSize(shardingProperties.getMaximumPoolSize());
+            dataSources.add(dataSource);
+
+            SqlSessionFactoryBean factory = new SqlSessionFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setMapperLocations(mybatisProperties.resolveMapperLocations());
+            factory.setTypeAliasesPackage(mybatisProperties.getTypeAliasesPackage());
+            factory.setConfigurationProperties(mybatisProperties.getConfigurationProperties());
+            // Bulkhead được tính theo pool của datasource chính, mỗi shard đã có pool riêng
+            factory.setPlugins(interceptors.orderedStream()
+                    .filter(interceptor -> !(interceptor instanceof DatabaseBulkhead))
+                    .toArray(Interceptor[]::new));
+            mappers.add(new SqlSessionTemplate(factory.getObject()).getMapper(PostMapper.class));
+        }
+        return new PostShards(mappers, dataSources, virtualThreads,
+                shardingProperties.getMaximumPoolSize(), shardingProperties.getQueryTimeout());
+    }
+}
@@ -1,14 +1,45 @@
 package com.example.cursorbasepagination.controller;
 
+import com.example.cursorbasepagination.cache.PageResponseCache;
+import com.example.cursorbasepagination.config.ResponseFormats;
 import com.example.cursorbasepagination.dto.request.CursorPageRequest;
+import com.example.cursorbasepagination.dto.request.FeedRequest;
+import com.example.cursorbasepagination.dto.request.PostFilter;
 import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.dto.response.IngestResult;
 import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.entity.ScoredPost;
+import com.example.cursorbasepagination.service.PostExportService;
+import com.example.cursorbasepagination.service.PostIngestService;
 import com.example.cursorbasepagination.service.PostService;
+import com.example.cursorbasepagination.service.impl.LiveTailHub;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.example.cursorbasepagination.util.keyset.PostSorts;
+import com.example.cursorbasepagination.util.keyset.SortSpec;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Bộ điều khiển REST cho thực thể Bài viết với phân trang dựa trên con trỏ.
@@ -16,31 +47,77 @@ import java.util.Date;
 @RestController
 @RequestMapping("/api/posts")
 public class PostController {
+    // Các trường có thể chọn qua tham số fields (id và createdAt luôn được trả về)
+    private static final Set<String> SELECTABLE_FIELDS = Set.of("id", "createdAt", "title", "content", "userId", "category");
+    // Số id tối đa cho mỗi lần lấy nội dung
+    private static final int MAX_CONTENT_IDS = 500;
+    // Số feed tối đa cho mỗi lần gọi /feeds
+    private static final int MAX_FEEDS = 50;
+    // Tổng số bài viết tối đa (số feed × limit) của một lần gọi /feeds, bằng giới hạn của /content
+    private static final int MAX_FEED_ROWS = MAX_CONTENT_IDS;
+    // Số bài viết tối đa mỗi phía của cửa sổ /{id}/around
+    private static final int MAX_WINDOW_SIDE = 100;
+
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private PostExportService postExportService;
+
+    @Autowired
+    private PostIngestService postIngestService;
+
+    @Autowired
+    private PageResponseCache pageResponseCache;
+
+    @Autowired
+    private LiveTailHub liveTailHub;
+
+    @Autowired
+    private ResponseFormats responseFormats;
+
+    // Thời gian client/CDN được dùng lại trang mà không hỏi lại server
+    @Value("${pagination.response-cache.max-age:5s}")
+    private Duration pageMaxAge;
+
+    // Thời gian tối đa của một request export, thay cho timeout bất đồng bộ mặc định của các endpoint khác
+    @Value("${pagination.export.timeout:1h}")
+    private Duration exportTimeout;
+
     /**
      * Lấy bài viết với phân trang dựa trên con trỏ đơn giản.
+     * Không có cursor nhưng có lastCreatedAt (và lastId) thì trang bắt đầu ngay tại thời điểm đó.
+     * Hỗ trợ GET có điều kiện qua ETag/If-None-Match, và Smile/CBOR theo header Accept.
      */
     @GetMapping
-    public CursorPageResponse<Post> getPosts(
+    public ResponseEntity<byte[]> getPosts(
             @RequestParam(required = false) String cursor,
             @RequestParam(required = false, defaultValue = "10") Integer limit,
-            @RequestParam(required = false, defaultValue = "NEXT") CursorPageRequest.PaginationDirection direction) {
+            @RequestParam(required = false, defaultValue = "NEXT") CursorPageRequest.PaginationDirection direction,
+            @RequestParam(required = false) Set<String> fields,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date lastCreatedAt,
+            @RequestParam(required = false) Long lastId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
         CursorPageRequest pageRequest = new CursorPageRequest();
         pageRequest.setCursor(cursor);
         pageRequest.setLimit(limit);
         pageRequest.setDirection(direction);
+        pageRequest.setFields(validateFields(fields));
+        pageRequest.setLastCreatedAt(lastCreatedAt);
+        pageRequest.setLastId(lastId);
 
-        return postService.getPosts(pageRequest);
+        return conditionalPage(postService.getPosts(pageRequest), pageRequest.getFields(), ifNoneMatch, accept);
     }
 
     /**
      * Lấy bài viết với nhiều điều kiện lọc và phân trang dựa trên con trỏ.
+     * Không có cursor nhưng có lastCreatedAt (và lastId) thì trang bắt đầu ngay tại thời điểm đó.
+     * Hỗ trợ GET có điều kiện qua ETag/If-None-Match, và Smile/CBOR theo header Accept.
      */
     @GetMapping("/filter")
-    public CursorPageResponse<Post> getPostsWithFilters(
+    public ResponseEntity<byte[]> getPostsWithFilters(
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) Long userId,
@@ -48,13 +125,281 @@ public class PostController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate,
             @RequestParam(required = false) String cursor,
             @RequestParam(required = false, defaultValue = "10") Integer limit,
-            @RequestParam(required = false, defaultValue = "NEXT") CursorPageRequest.PaginationDirection direction) {
+            @RequestParam(required = false, defaultValue = "NEXT") CursorPageRequest.PaginationDirection direction,
+            @RequestParam(required = false) Set<String> fields,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date lastCreatedAt,
+            @RequestParam(required = false) Long lastId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
         CursorPageRequest pageRequest = new CursorPageRequest();
         pageRequest.setCursor(cursor);
         pageRequest.setLimit(limit);
         pageRequest.setDirection(direction);
+        pageRequest.setFields(validateFields(fields));
+        pageRequest.setLastCreatedAt(lastCreatedAt);
+        pageRequest.setLastId(lastId);
+
+        return conditionalPage(postService.getPostsWithFilters(title, category, userId, startDate, endDate, pageRequest),
+                pageRequest.getFields(), ifNoneMatch, accept);
+    }
+
+    /**
+     * Lấy cửa sổ bài viết quanh một bài viết: before bài mới hơn, bài viết đó, rồi after bài cũ hơn.
+     * nextCursor/previousCursor dùng tiếp với /api/posts.
+     */
+    @GetMapping("/{id}/around")
+    public ResponseEntity<Object> getPostsAround(
+            @PathVariable Long id,
+            @RequestParam(required = false, defaultValue = "10") Integer before,
+            @RequestParam(required = false, defaultValue = "10") Integer after,
+            @RequestParam(required = false) Set<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        if (before < 0 || after < 0 || before > MAX_WINDOW_SIDE || after > MAX_WINDOW_SIDE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "before và after phải nằm trong khoảng 0.." + MAX_WINDOW_SIDE);
+        }
+
+        Set<String> selectedFields = validateFields(fields);
+        CursorPageResponse<Post> response = postService.getPostsAround(id, before, after, selectedFields);
+        if (response == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy bài viết: " + id);
+        }
+        return projected(response, selectedFields != null, accept);
+    }
+
+    /**
+     * Lấy bài viết theo thứ tự sắp xếp tùy chọn, ví dụ sort=category:asc,createdAt:desc.
+     * Khóa id được tự thêm vào cuối; chỉ chấp nhận các thứ tự có index tương ứng.
+     */
+    @GetMapping("/sorted")
+    public ResponseEntity<Object> getPostsSorted(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") Integer limit,
+            @RequestParam(required = false, defaultValue = "NEXT") CursorPageRequest.PaginationDirection direction,
+            @RequestParam(required = false) Set<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        SortSpec<Post> sortSpec;
+        try {
+            sortSpec = PostSorts.parse(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        CursorPageRequest pageRequest = new CursorPageRequest();
+        pageRequest.setCursor(cursor);
+        pageRequest.setLimit(limit);
+        pageRequest.setDirection(direction);
+        pageRequest.setFields(validateFields(fields));
+
+        CursorPageResponse<Post> page;
+        try {
+            page = postService.getPostsSorted(sortSpec, pageRequest);
+        } catch (IllegalArgumentException e) {
+            // Cursor không khớp với thứ tự sắp xếp
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return projected(page, pageRequest.getFields() != null, accept);
+    }
+
+    /**
+     * Lấy trang cho nhiều feed (nhiều người dùng/danh mục) trong một request và một câu lệnh SQL.
+     */
+    @PostMapping("/feeds")
+    public ResponseEntity<Object> getFeeds(
+            @RequestBody FeedRequest feedRequest,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (feedRequest.getFeeds() == null || feedRequest.getFeeds().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cần ít nhất một feed");
+        }
+        if (feedRequest.getFeeds().size() > MAX_FEEDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tối đa " + MAX_FEEDS + " feed mỗi lần");
+        }
+        // Cả lô là một câu lệnh UNION ALL nên giới hạn tổng số dòng chứ không chỉ số feed
+        int limit = feedRequest.getLimit() != null && feedRequest.getLimit() > 0 ? feedRequest.getLimit() : 10;
+        if ((long) limit * feedRequest.getFeeds().size() > MAX_FEED_ROWS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Số feed × limit tối đa " + MAX_FEED_ROWS + " bài viết mỗi lần");
+        }
+        Set<String> keys = new HashSet<>();
+        for (FeedRequest.FeedSpec spec : feedRequest.getFeeds()) {
+            if (spec.getKey() != null && !keys.add(spec.getKey())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Khóa feed bị trùng: " + spec.getKey());
+            }
+        }
+        feedRequest.setFields(validateFields(feedRequest.getFields()));
+
+        Map<String, CursorPageResponse<Post>> feeds = postService.getFeeds(feedRequest);
+        return projected(feeds, feedRequest.getFields() != null, accept);
+    }
+
+    /**
+     * Tìm kiếm bài viết theo tiêu đề (toàn văn), phân trang theo độ liên quan với cursor (score, createdAt, id).
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Object> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") Integer limit,
+            @RequestParam(required = false, defaultValue = "NEXT") CursorPageRequest.PaginationDirection direction,
+            @RequestParam(required = false) Set<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chuỗi tìm kiếm không được rỗng");
+        }
+
+        CursorPageRequest pageRequest = new CursorPageRequest();
+        pageRequest.setCursor(cursor);
+        pageRequest.setLimit(limit);
+        pageRequest.setDirection(direction);
+        pageRequest.setFields(validateFields(fields));
+
+        CursorPageResponse<ScoredPost> page = postService.searchPosts(q, category, userId, pageRequest);
+        return projected(page, pageRequest.getFields() != null, accept);
+    }
+
+    /**
+     * Lấy nội dung của nhiều bài viết theo id, dùng kèm với danh sách đã phân trang bằng fields không có content.
+     * Mỗi phần tử chỉ gồm id và content.
+     */
+    @GetMapping("/content")
+    public ResponseEntity<Object> getContents(
+            @RequestParam List<Long> ids,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ids.size() > MAX_CONTENT_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tối đa " + MAX_CONTENT_IDS + " id mỗi lần");
+        }
+        return projected(postService.getContents(ids), true, accept);
+    }
+
+    /**
+     * Export toàn bộ bài viết theo bộ lọc dưới dạng NDJSON hoặc CSV, ghi ra ngay khi đọc từ database.
+     * Truyền cursor của checkpoint cuối cùng nhận được để tiếp tục một lần export bị ngắt;
+     * cursor hỏng hoặc của bộ lọc khác bị từ chối với 400 trước khi bắt đầu ghi.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPosts(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "NDJSON") PostExportService.ExportFormat format,
+            @RequestParam(required = false) Set<String> fields,
+            HttpServletRequest request) {
+
+        PostFilter filter = PostFilter.of(title, category, userId, startDate, endDate);
+        Set<String> selectedFields = validateFields(fields);
+        // Kiểm tra cursor ở đây: khi StreamingResponseBody chạy thì status 200 đã được gửi
+        PostCursor resumeFrom;
+        try {
+            resumeFrom = postExportService.decodeCheckpoint(filter, cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        MediaType contentType = format == PostExportService.ExportFormat.CSV
+                ? new MediaType("text", "csv")
+                : MediaType.APPLICATION_NDJSON;
+
+        // Chỉ request export được chạy lâu, các request bất đồng bộ khác giữ timeout mặc định
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        StreamingResponseBody body = out -> postExportService.export(filter, resumeFrom, selectedFields, format, out);
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
+
+    /**
+     * Nhận bài viết mới hơn cursor theo bộ lọc qua Server-Sent Events (sự kiện "posts", mỗi sự kiện là một mảng).
+     * Cursor là previousCursor của trang đầu tiên; khi kết nối lại, header Last-Event-ID được dùng làm cursor.
+     * Không có cursor thì chỉ nhận bài viết tạo từ lúc kết nối.
+     */
+    @GetMapping(value = "/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tailPosts(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        if (!liveTailHub.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Live tail đã bị tắt");
+        }
+        PostFilter filter = PostFilter.of(title, category, userId, startDate, endDate);
+        try {
+            return liveTailHub.subscribe(filter, lastEventId != null ? lastEventId : cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * Thêm bài viết hàng loạt từ một mảng JSON hoặc NDJSON (mỗi dòng một bài viết), ghi theo lô trong lúc đọc body.
+     * Phần tử lỗi được báo theo vị trí trong kết quả, các phần tử hợp lệ vẫn được thêm.
+     * Trả về 429 nếu đã đủ số request thêm hàng loạt chạy đồng thời.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<IngestResult> bulkInsert(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(postIngestService.ingest(body));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
+
+    // Trả về 304 nếu client đã có đúng trang này, ngược lại trả về trang theo định dạng trong Accept
+    // (lấy từ cache nếu có) kèm ETag
+    private ResponseEntity<byte[]> conditionalPage(CursorPageResponse<Post> page, Set<String> fields,
+                                                   String ifNoneMatch, String accept) {
+        ResponseFormats.Format format = ResponseFormats.negotiate(accept);
+        String etag = pageResponseCache.etag(page, fields, format);
+        CacheControl cacheControl = CacheControl.maxAge(pageMaxAge).mustRevalidate();
+        if (PageResponseCache.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.getMediaType())
+                .body(pageResponseCache.serialize(etag, page, fields, format));
+    }
+
+    // Phản hồi đã chọn trường được serialize bằng mapper bỏ trường null (theo định dạng trong Accept),
+    // phản hồi đầy đủ đi qua các converter của Spring MVC như bình thường
+    private ResponseEntity<Object> projected(Object body, boolean projected, String accept) {
+        if (!projected) {
+            return ResponseEntity.ok(body);
+        }
+        ResponseFormats.Format format = ResponseFormats.negotiate(accept);
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.getMediaType())
+                .body(responseFormats.write(body, format, true));
+    }
 
-        return postService.getPostsWithFilters(title, category, userId, startDate, endDate, pageRequest);
+    // Kiểm tra tên các trường được yêu cầu, null nghĩa là lấy tất cả
+    private static Set<String> validateFields(Set<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        for (String field : fields) {
+            if (!SELECTABLE_FIELDS.contains(field)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Trường không hợp lệ: " + field);
+            }
+        }
+        return fields;
     }
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.example.cursorbasepagination.dao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulkhead cho database: giới hạn số câu lệnh mapper chạy đồng thời bằng số kết nối của pool.
+ *
+ * <p>Khi request chạy trên virtual thread (spring.threads.virtual.enabled=true), số request đồng thời không còn
+ * bị giới hạn bởi pool luồng của Tomcat, nên phần vượt quá pool kết nối phải xếp hàng ở đây: virtual thread
+ * chờ Semaphore chỉ bị park (không giữ carrier thread), rẻ hơn nhiều so với chờ trong Hikari rồi hết
+ * connectionTimeout. Chờ quá {@code acquire-timeout} thì câu lệnh bị từ chối với 503.
+ * Câu lệnh trả về {@link Cursor} (export dạng stream) giữ kết nối tới khi cursor được đóng, nên permit
+ * cũng chỉ được trả lại khi đó.
+ *
+ * <p>Mặc định bật cùng với virtual thread. Metrics: {@code pagination.db-bulkhead.wait},
+ * {@code pagination.db-bulkhead.queued}, {@code pagination.db-bulkhead.rejected}.
+ */
+@Slf4j
+@Component
+@Order(DatabaseBulkhead.ORDER)
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class DatabaseBulkhead implements Interceptor {
+    // Interceptor được MyBatis áp dụng theo order tăng dần và cái sau bọc ngoài, nên interceptor đo thời gian
+    // có order nhỏ hơn ORDER chạy bên trong bulkhead và không tính thời gian chờ permit
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    private final boolean enabled;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public DatabaseBulkhead(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${pagination.db-bulkhead.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+            @Value("${pagination.db-bulkhead.max-concurrent:0}") int maxConcurrent,
+            @Value("${pagination.db-bulkhead.acquire-timeout:5s}") Duration acquireTimeout) {
+        this.enabled = enabled;
+        this.acquireTimeout = acquireTimeout;
+        // 0 = bằng kích thước pool kết nối chính
+        int size = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource);
+        // Công bằng để câu lệnh chờ lâu nhất được chạy trước, tránh p99 bị kéo dài bởi việc chen hàng
+        this.permits = new Semaphore(size, true);
+        if (enabled) {
+            log.info("Bulkhead database: tối đa {} câu lệnh đồng thời", size);
+        }
+
+        this.waitTimer = Timer.builder("pagination.db-bulkhead.wait")
+                .description("Thời gian chờ bulkhead trước khi chạy câu lệnh")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("pagination.db-bulkhead.rejected")
+                .description("Số câu lệnh bị từ chối vì chờ bulkhead quá lâu")
+                .register(meterRegistry);
+        Gauge.builder("pagination.db-bulkhead.queued", permits, Semaphore::getQueueLength)
+                .description("Số câu lệnh đang chờ bulkhead")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!enabled) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            rejected.increment();
+            MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+            throw new BulkheadFullException("Database đang quá tải, không chạy được " + ms.getId());
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            permits.release();
+            throw e;
+        }
+        if (result instanceof Cursor<?> cursor) {
+            return new PermitCursor<>(cursor, permits);
+        }
+        permits.release();
+        return result;
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        // Giá trị mặc định của Hikari
+        return 10;
+    }
+
+    /**
+     * Cursor trả permit về bulkhead khi được đóng (một lần duy nhất), kể cả khi SqlSession đóng hộ.
+     */
+    private static final class PermitCursor<T> implements Cursor<T> {
+        private final Cursor<T> delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitCursor(Cursor<T> delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return delegate.isConsumed();
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return delegate.getCurrentIndex();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return delegate.iterator();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Câu lệnh không được chạy vì bulkhead đầy quá acquire-timeout.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class BulkheadFullException extends RuntimeException {
+        public BulkheadFullException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package com.example.cursorbasepagination.dao;
 
+import com.example.cursorbasepagination.dto.request.FeedQuery;
+import com.example.cursorbasepagination.entity.FeedPost;
 import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.entity.ScoredPost;
+import com.example.cursorbasepagination.util.keyset.KeysetCursor;
+import com.example.cursorbasepagination.util.keyset.SortSpec;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultMap;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Data Access Object cho entity Post.
@@ -18,9 +29,10 @@ public interface PostMapper {
      * Lấy trang đầu tiên của danh sách bài viết.
      *
      * @param limit số lượng bài viết tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
      * @return danh sách bài viết trang đầu tiên
      */
-    List<Post> findFirstPage(@Param("limit") int limit);
+    List<Post> findFirstPage(@Param("limit") int limit, @Param("fields") Set<String> fields);
 
     /**
      * Lấy trang tiếp theo dựa trên cursor.
@@ -28,12 +40,14 @@ public interface PostMapper {
      * @param lastId ID của bài viết cuối cùng trong trang hiện tại
      * @param lastCreatedAt ngày tạo của bài viết cuối cùng trong trang hiện tại
      * @param limit số lượng bài viết tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
      * @return danh sách bài viết của trang tiếp theo
      */
     List<Post> findNextPage(
             @Param("lastId") Long lastId,
             @Param("lastCreatedAt") Date lastCreatedAt,
-            @Param("limit") int limit);
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
 
     /**
      * Lấy trang trước đó dựa trên cursor.
@@ -41,12 +55,14 @@ public interface PostMapper {
      * @param firstId ID của bài viết đầu tiên trong trang hiện tại
      * @param firstCreatedAt ngày tạo của bài viết đầu tiên trong trang hiện tại
      * @param limit số lượng bài viết tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
      * @return danh sách bài viết của trang trước đó
      */
     List<Post> findPreviousPage(
             @Param("firstId") Long firstId,
             @Param("firstCreatedAt") Date firstCreatedAt,
-            @Param("limit") int limit);
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
 
     /**
      * Kiểm tra xem có trang trước đó hay không.
@@ -59,6 +75,17 @@ public interface PostMapper {
             @Param("firstId") Long firstId,
             @Param("firstCreatedAt") Date firstCreatedAt);
 
+    /**
+     * Kiểm tra xem có trang tiếp theo hay không.
+     *
+     * @param lastId ID của bài viết cuối cùng trong trang hiện tại
+     * @param lastCreatedAt ngày tạo của bài viết cuối cùng trong trang hiện tại
+     * @return 1 nếu có trang tiếp theo, 0 nếu không có
+     */
+    Integer checkHasNext(
+            @Param("lastId") Long lastId,
+            @Param("lastCreatedAt") Date lastCreatedAt);
+
 
     /**
      * Lấy trang đầu tiên với nhiều điều kiện lọc.
@@ -69,6 +96,7 @@ public interface PostMapper {
      * @param startDate ngày bắt đầu của khoảng thời gian cần lọc (có thể null)
      * @param endDate ngày kết thúc của khoảng thời gian cần lọc (có thể null)
      * @param limit số lượng bài viết tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
      * @return danh sách bài viết trang đầu tiên với các điều kiện lọc
      */
     List<Post> findWithFiltersFirstPage(
@@ -77,7 +105,8 @@ public interface PostMapper {
             @Param("userId") Long userId,
             @Param("startDate") Date startDate,
             @Param("endDate") Date endDate,
-            @Param("limit") int limit);
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
 
     /**
      * Lấy trang tiếp theo với nhiều điều kiện lọc.
@@ -90,6 +119,7 @@ public interface PostMapper {
      * @param lastId ID của bài viết cuối cùng trong trang hiện tại
      * @param lastCreatedAt ngày tạo của bài viết cuối cùng trong trang hiện tại
      * @param limit số lượng bài viết tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
      * @return danh sách bài viết của trang tiếp theo với các điều kiện lọc
      */
     List<Post> findWithFiltersNextPage(
@@ -100,7 +130,8 @@ public interface PostMapper {
             @Param("endDate") Date endDate,
             @Param("lastId") Long lastId,
             @Param("lastCreatedAt") Date lastCreatedAt,
-            @Param("limit") int limit);
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
 
     /**
      * Lấy trang trước đó với nhiều điều kiện lọc.
@@ -113,6 +144,7 @@ public interface PostMapper {
      * @param firstId ID của bài viết đầu tiên trong trang hiện tại
      * @param firstCreatedAt ngày tạo của bài viết đầu tiên trong trang hiện tại
      * @param limit số lượng bài viết tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
      * @return danh sách bài viết của trang trước đó với các điều kiện lọc
      */
     List<Post> findWithFiltersPreviousPage(
@@ -123,7 +155,8 @@ public interface PostMapper {
             @Param("endDate") Date endDate,
             @Param("firstId") Long firstId,
             @Param("firstCreatedAt") Date firstCreatedAt,
-            @Param("limit") int limit);
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
 
     /**
      * Kiểm tra xem có trang trước đó không với các điều kiện lọc.
@@ -145,4 +178,285 @@ public interface PostMapper {
             @Param("endDate") Date endDate,
             @Param("firstId") Long firstId,
             @Param("firstCreatedAt") Date firstCreatedAt);
-}
\ No newline at end of file
+
+    /**
+     * Kiểm tra xem có trang tiếp theo không với các điều kiện lọc.
+     *
+     * @param title tiêu đề cần lọc (có thể null)
+     * @param category danh mục cần lọc (có thể null)
+     * @param userId ID người dùng cần lọc (có thể null)
+     * @param startDate ngày bắt đầu của khoảng thời gian cần lọc (có thể null)
+     * @param endDate ngày kết thúc của khoảng thời gian cần lọc (có thể null)
+     * @param lastId ID của bài viết cuối cùng trong trang hiện tại
+     * @param lastCreatedAt ngày tạo của bài viết cuối cùng trong trang hiện tại
+     * @return 1 nếu có trang tiếp theo, 0 nếu không có
+     */
+    Integer checkHasNextFilters(
+            @Param("title") String title,
+            @Param("category") String category,
+            @Param("userId") Long userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate,
+            @Param("lastId") Long lastId,
+            @Param("lastCreatedAt") Date lastCreatedAt);
+
+    /**
+     * Kế hoạch thực thi (EXPLAIN) của truy vấn đếm với các điều kiện lọc, dùng để ước lượng số dòng.
+     *
+     * @param title tiêu đề cần lọc (có thể null)
+     * @param category danh mục cần lọc (có thể null)
+     * @param userId ID người dùng cần lọc (có thể null)
+     * @param startDate ngày bắt đầu của khoảng thời gian cần lọc (có thể null)
+     * @param endDate ngày kết thúc của khoảng thời gian cần lọc (có thể null)
+     * @return các dòng của EXPLAIN (cột rows và filtered)
+     */
+    List<Map<String, Object>> explainWithFilters(
+            @Param("title") String title,
+            @Param("category") String category,
+            @Param("userId") Long userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate);
+
+    /**
+     * Đếm chính xác số bài viết thỏa mãn các điều kiện lọc.
+     *
+     * @param title tiêu đề cần lọc (có thể null)
+     * @param category danh mục cần lọc (có thể null)
+     * @param userId ID người dùng cần lọc (có thể null)
+     * @param startDate ngày bắt đầu của khoảng thời gian cần lọc (có thể null)
+     * @param endDate ngày kết thúc của khoảng thời gian cần lọc (có thể null)
+     * @return số bài viết
+     */
+    long countWithFilters(
+            @Param("title") String title,
+            @Param("category") String category,
+            @Param("userId") Long userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate);
+
+    /**
+     * Lấy một trang cho nhiều feed trong một câu lệnh (UNION ALL các truy vấn con có LIMIT riêng).
+     *
+     * @param feeds danh sách bộ lọc và vị trí seek của từng feed
+     * @param limit số lượng bài viết tối đa trả về cho mỗi feed
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return bài viết của tất cả các feed, mỗi bài viết mang chỉ số feed trong danh sách
+     */
+    List<FeedPost> findFeeds(
+            @Param("feeds") List<FeedQuery> feeds,
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
+
+    /**
+     * Tìm kiếm bài viết theo tiêu đề bằng FULLTEXT index, sắp xếp theo độ liên quan giảm dần.
+     *
+     * @param query chuỗi cần tìm
+     * @param category danh mục cần lọc (có thể null)
+     * @param userId ID người dùng cần lọc (có thể null)
+     * @param lastScore điểm của kết quả cuối cùng trong trang hiện tại (null cho trang đầu tiên)
+     * @param lastCreatedAt ngày tạo của kết quả cuối cùng trong trang hiện tại
+     * @param lastId ID của kết quả cuối cùng trong trang hiện tại
+     * @param limit số lượng kết quả tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return danh sách kết quả kèm điểm liên quan
+     */
+    List<ScoredPost> searchByTitle(
+            @Param("query") String query,
+            @Param("category") String category,
+            @Param("userId") Long userId,
+            @Param("lastScore") Double lastScore,
+            @Param("lastCreatedAt") Date lastCreatedAt,
+            @Param("lastId") Long lastId,
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
+
+    /**
+     * Lấy trang tìm kiếm trước đó theo tiêu đề.
+     *
+     * @param query chuỗi cần tìm
+     * @param category danh mục cần lọc (có thể null)
+     * @param userId ID người dùng cần lọc (có thể null)
+     * @param firstScore điểm của kết quả đầu tiên trong trang hiện tại
+     * @param firstCreatedAt ngày tạo của kết quả đầu tiên trong trang hiện tại
+     * @param firstId ID của kết quả đầu tiên trong trang hiện tại
+     * @param limit số lượng kết quả tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return danh sách kết quả theo thứ tự ngược
+     */
+    List<ScoredPost> searchByTitlePrevious(
+            @Param("query") String query,
+            @Param("category") String category,
+            @Param("userId") Long userId,
+            @Param("firstScore") Double firstScore,
+            @Param("firstCreatedAt") Date firstCreatedAt,
+            @Param("firstId") Long firstId,
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
+
+    /**
+     * Đọc tuần tự toàn bộ bài viết thỏa mãn bộ lọc, theo thứ tự (created_at DESC, id DESC).
+     * Kết quả được stream từ server nên bộ nhớ sử dụng không phụ thuộc số dòng.
+     * Cursor phải được đóng (cùng với SqlSession) sau khi đọc xong.
+     *
+     * @param title tiêu đề cần lọc (có thể null)
+     * @param category danh mục cần lọc (có thể null)
+     * @param userId ID người dùng cần lọc (có thể null)
+     * @param startDate ngày bắt đầu của khoảng thời gian cần lọc (có thể null)
+     * @param endDate ngày kết thúc của khoảng thời gian cần lọc (có thể null)
+     * @param lastId ID của bài viết cuối cùng đã đọc, để tiếp tục (có thể null)
+     * @param lastCreatedAt ngày tạo của bài viết cuối cùng đã đọc, để tiếp tục (có thể null)
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return cursor của MyBatis trên kết quả
+     */
+    Cursor<Post> streamWithFilters(
+            @Param("title") String title,
+            @Param("category") String category,
+            @Param("userId") Long userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate,
+            @Param("lastId") Long lastId,
+            @Param("lastCreatedAt") Date lastCreatedAt,
+            @Param("fields") Set<String> fields);
+
+    /**
+     * Lấy nội dung của nhiều bài viết theo id.
+     *
+     * @param ids danh sách ID bài viết
+     * @return danh sách bài viết chỉ gồm id và content
+     */
+    List<Post> findContentByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Lấy đầy đủ nhiều bài viết theo id (pha thứ hai của deferred join).
+     *
+     * @param ids danh sách ID bài viết
+     * @return danh sách bài viết đầy đủ các trường, không theo thứ tự của ids
+     */
+    List<Post> findByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Lấy một bài viết theo id.
+     *
+     * @param id ID bài viết
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return bài viết, hoặc null nếu không tồn tại
+     */
+    Post findById(@Param("id") Long id, @Param("fields") Set<String> fields);
+
+    /**
+     * Lấy các bài viết đứng ngay trước và ngay sau một bài viết mốc trong một câu lệnh (UNION ALL).
+     *
+     * @param anchorId ID của bài viết mốc
+     * @param anchorCreatedAt ngày tạo của bài viết mốc
+     * @param before số bài viết mới hơn tối đa (feedIndex = 0, theo thứ tự tăng dần)
+     * @param after số bài viết cũ hơn tối đa (feedIndex = 1, theo thứ tự giảm dần)
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return bài viết của cả hai phía, phân biệt bằng feedIndex
+     */
+    List<FeedPost> findAround(
+            @Param("anchorId") Long anchorId,
+            @Param("anchorCreatedAt") Date anchorCreatedAt,
+            @Param("before") int before,
+            @Param("after") int after,
+            @Param("fields") Set<String> fields);
+
+    /**
+     * Lấy một trang theo thứ tự sắp xếp khai báo. Để lấy trang trước đó, truyền sort.reversed()
+     * và đảo lại kết quả.
+     *
+     * @param sort thứ tự sắp xếp (phải có index tương ứng, xem PostSorts)
+     * @param cursor giá trị khóa của bài viết cuối cùng đã đọc (null cho trang đầu tiên)
+     * @param limit số lượng bài viết tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return danh sách bài viết theo thứ tự sort
+     */
+    @SelectProvider(type = PostSortSqlProvider.class, method = "findSortedPage")
+    @ResultMap("PostResultMap")
+    List<Post> findSortedPage(
+            @Param("sort") SortSpec<Post> sort,
+            @Param("cursor") KeysetCursor cursor,
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
+
+    /**
+     * Kiểm tra có bài viết nào đứng sau cursor theo thứ tự sắp xếp hay không.
+     *
+     * @param sort thứ tự sắp xếp
+     * @param cursor giá trị khóa của bài viết làm mốc
+     * @return 1 nếu có, 0 nếu không có
+     */
+    @SelectProvider(type = PostSortSqlProvider.class, method = "existsAfter")
+    Integer checkSortedExists(
+            @Param("sort") SortSpec<Post> sort,
+            @Param("cursor") KeysetCursor cursor);
+
+    /**
+     * Danh sách phân vùng của bảng posts theo thứ tự cận trên tăng dần (rỗng nếu bảng không được phân vùng).
+     *
+     * @return mỗi phần tử gồm name (tên phân vùng) và description (cận trên, hoặc MAXVALUE)
+     */
+    List<Map<String, Object>> findPartitions();
+
+    /**
+     * Lấy các bài viết cũ hơn cursor trong một phân vùng, theo thứ tự (created_at DESC, id DESC).
+     *
+     * @param partition tên phân vùng (lấy từ findPartitions)
+     * @param title tiêu đề cần lọc (có thể null)
+     * @param category danh mục cần lọc (có thể null)
+     * @param userId ID người dùng cần lọc (có thể null)
+     * @param startDate ngày bắt đầu của khoảng thời gian cần lọc (có thể null)
+     * @param endDate ngày kết thúc của khoảng thời gian cần lọc (có thể null)
+     * @param lastId ID của bài viết cuối cùng trong trang hiện tại (null cho trang đầu tiên)
+     * @param lastCreatedAt ngày tạo của bài viết cuối cùng trong trang hiện tại (null cho trang đầu tiên)
+     * @param limit số lượng bài viết tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return danh sách bài viết trong phân vùng
+     */
+    List<Post> findInPartitionOlder(
+            @Param("partition") String partition,
+            @Param("title") String title,
+            @Param("category") String category,
+            @Param("userId") Long userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate,
+            @Param("lastId") Long lastId,
+            @Param("lastCreatedAt") Date lastCreatedAt,
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
+
+    /**
+     * Lấy các bài viết mới hơn cursor trong một phân vùng, theo thứ tự (created_at ASC, id ASC).
+     *
+     * @param partition tên phân vùng (lấy từ findPartitions)
+     * @param title tiêu đề cần lọc (có thể null)
+     * @param category danh mục cần lọc (có thể null)
+     * @param userId ID người dùng cần lọc (có thể null)
+     * @param startDate ngày bắt đầu của khoảng thời gian cần lọc (có thể null)
+     * @param endDate ngày kết thúc của khoảng thời gian cần lọc (có thể null)
+     * @param firstId ID của bài viết đầu tiên trong trang hiện tại
+     * @param firstCreatedAt ngày tạo của bài viết đầu tiên trong trang hiện tại
+     * @param limit số lượng bài viết tối đa trả về
+     * @param fields các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return danh sách bài viết trong phân vùng theo thứ tự ngược
+     */
+    List<Post> findInPartitionNewer(
+            @Param("partition") String partition,
+            @Param("title") String title,
+            @Param("category") String category,
+            @Param("userId") Long userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate,
+            @Param("firstId") Long firstId,
+            @Param("firstCreatedAt") Date firstCreatedAt,
+            @Param("limit") int limit,
+            @Param("fields") Set<String> fields);
+
+    /**
+     * Thêm nhiều bài viết trong một câu lệnh INSERT nhiều dòng (VALUES (...), (...), ...).
+     * Id do database sinh và không được gán lại vào danh sách.
+     *
+     * @param posts các bài viết cần thêm (không rỗng)
+     * @return số dòng đã thêm
+     */
+    int insertBatch(@Param("posts") List<Post> posts);
+}
@@ -0,0 +1,148 @@
+package com.example.cursorbasepagination.dao;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Các shard của bảng posts, phân mảnh theo user_id: bài viết của userId nằm ở shard
+ * {@code floorMod(userId, số shard)}.
+ */
+public class PostShards implements Closeable {
+    private final List<PostMapper> mappers;
+    private final List<? extends Closeable> dataSources;
+    private final ExecutorService executor;
+    private final Duration queryTimeout;
+
+    /**
+     * @param mappers Mapper của từng shard, theo thứ tự shard
+     * @param dataSources Các pool kết nối được đóng cùng với PostShards
+     * @param virtualThreads Chạy mỗi truy vấn của shard trên một virtual thread riêng
+     * @param connectionsPerShard Số kết nối tối đa tới mỗi shard
+     * @param queryTimeout Thời gian chờ tối đa kết quả của tất cả shard trong một lần fan-out
+     */
+    public PostShards(List<PostMapper> mappers, List<? extends Closeable> dataSources, boolean virtualThreads,
+                      int connectionsPerShard, Duration queryTimeout) {
+        this.mappers = List.copyOf(mappers);
+        this.dataSources = List.copyOf(dataSources);
+        this.queryTimeout = queryTimeout;
+        // Số truy vấn song song tới mỗi shard chỉ bị giới hạn bởi pool kết nối của shard: với virtual thread mỗi
+        // truy vấn có luồng riêng, ngược lại pool luồng có đúng số luồng bằng tổng số kết nối của các shard
+        this.executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("posts-shard-query-", 1).factory())
+                : Executors.newFixedThreadPool(mappers.size() * Math.max(1, connectionsPerShard),
+                        daemonThreadFactory());
+    }
+
+    public int size() {
+        return mappers.size();
+    }
+
+    /**
+     * Shard chứa bài viết của người dùng.
+     */
+    public int route(long userId) {
+        return Math.floorMod(userId, mappers.size());
+    }
+
+    /**
+     * Mapper của shard chứa bài viết của người dùng.
+     */
+    public PostMapper mapper(long userId) {
+        return mappers.get(route(userId));
+    }
+
+    /**
+     * Chạy truy vấn trên các shard liên quan: chỉ shard của userId nếu có, ngược lại tất cả shard (song song).
+     *
+     * @param userId ID người dùng trong bộ lọc (có thể null)
+     * @param query Truy vấn trên mapper của một shard
+     * @return Kết quả của từng shard được truy vấn
+     * @throws ShardTimeoutException nếu các shard không trả lời hết trong query-timeout
+     */
+    public <R> List<R> query(Long userId, Function<PostMapper, R> query) {
+        if (userId != null) {
+            return List.of(query.apply(mappers.get(route(userId))));
+        }
+        if (mappers.size() == 1) {
+            return List.of(query.apply(mappers.get(0)));
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(mappers.size());
+        for (PostMapper mapper : mappers) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(mapper), executor));
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        long deadline = System.nanoTime() + queryTimeout.toNanos();
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (TimeoutException e) {
+            cancel(futures);
+            throw new ShardTimeoutException("Các shard không trả lời trong " + queryTimeout.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new ShardTimeoutException("Bị ngắt khi chờ kết quả của các shard");
+        } catch (ExecutionException e) {
+            cancel(futures);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    // Không chờ các shard còn lại khi kết quả đã không dùng được
+    private static void cancel(List<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (Closeable dataSource : dataSources) {
+            try {
+                dataSource.close();
+            } catch (Exception ignored) {
+                // Đang tắt ứng dụng
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "posts-shard-query-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Fan-out không hoàn tất trong query-timeout.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class ShardTimeoutException extends RuntimeException {
+        public ShardTimeoutException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.cursorbasepagination.dao;
+
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.util.keyset.KeysetCursor;
+import com.example.cursorbasepagination.util.keyset.SortKey;
+import com.example.cursorbasepagination.util.keyset.SortSpec;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sinh câu lệnh SQL cho phân trang theo thứ tự sắp xếp khai báo ({@link SortSpec}).
+ * Tên cột chỉ lấy từ các cột khai báo sẵn, mọi giá trị của cursor đều được bind qua #{...}.
+ */
+public class PostSortSqlProvider {
+
+    /**
+     * SELECT một trang theo thứ tự sort, bắt đầu sau cursor (hoặc từ đầu nếu cursor null).
+     */
+    public static String findSortedPage(Map<String, Object> params) {
+        @SuppressWarnings("unchecked")
+        SortSpec<Post> sort = (SortSpec<Post>) params.get("sort");
+        KeysetCursor cursor = (KeysetCursor) params.get("cursor");
+        @SuppressWarnings("unchecked")
+        Set<String> fields = (Set<String>) params.get("fields");
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(selectColumns(fields, sort)).append(" FROM posts");
+        if (cursor != null) {
+            sql.append(" WHERE ").append(sort.seekPredicate(cursor, "cursor.values"));
+        }
+        sql.append(" ORDER BY ").append(sort.orderByClause()).append(" LIMIT #{limit}");
+        return sql.toString();
+    }
+
+    /**
+     * Kiểm tra có dòng nào đứng sau cursor theo thứ tự sort không (EXISTS dừng ở dòng đầu tiên).
+     */
+    public static String existsAfter(Map<String, Object> params) {
+        @SuppressWarnings("unchecked")
+        SortSpec<Post> sort = (SortSpec<Post>) params.get("sort");
+        KeysetCursor cursor = (KeysetCursor) params.get("cursor");
+
+        return "SELECT EXISTS(SELECT 1 FROM posts WHERE "
+                + sort.seekPredicate(cursor, "cursor.values") + " LIMIT 1)";
+    }
+
+    // Giống fragment selectColumns trong PostMapper.xml, cộng thêm các cột khóa sắp xếp (cần để tạo cursor)
+    private static String selectColumns(Set<String> fields, SortSpec<Post> sort) {
+        StringBuilder columns = new StringBuilder("id, created_at");
+        if (selected("title", fields, sort)) {
+            columns.append(", title");
+        }
+        if (selected("content", fields, sort)) {
+            columns.append(", content");
+        }
+        if (selected("userId", fields, sort)) {
+            columns.append(", user_id");
+        }
+        if (selected("category", fields, sort)) {
+            columns.append(", category");
+        }
+        return columns.toString();
+    }
+
+    private static boolean selected(String field, Set<String> fields, SortSpec<Post> sort) {
+        if (fields == null || fields.contains(field)) {
+            return true;
+        }
+        for (SortKey<Post> key : sort.getKeys()) {
+            if (key.getColumn().fieldName().equals(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.cursorbasepagination.dto.request;
 
 import java.util.Date;
+import java.util.Set;
 
 public class CursorPageRequest {
     private String cursor;
     private Integer limit;
+    // Vị trí bắt đầu khi không có cursor (nhảy tới một thời điểm), lastId có thể bỏ trống
     private Long lastId;
     private Date lastCreatedAt;
     private PaginationDirection direction;
+    // Các trường cần lấy ngoài id và createdAt (null = tất cả)
+    private Set<String> fields;
 
     // Enum để chỉ định hướng điều hướng
     public enum PaginationDirection {
@@ -60,6 +64,14 @@ public class CursorPageRequest {
         this.direction = direction;
     }
 
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public void setFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
     // Kiểm tra xem có phải là trang đầu tiên không
     public boolean isFirstPage() {
         return cursor == null || cursor.isEmpty();
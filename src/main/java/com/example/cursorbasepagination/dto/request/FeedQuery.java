@@ -0,0 +1,30 @@
+package com.example.cursorbasepagination.dto.request;
+
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+
+import java.util.Date;
+
+/**
+ * Tham số của một feed trong truy vấn nhiều feed: bộ lọc và vị trí seek đã giải mã.
+ */
+public class FeedQuery {
+    private final PostFilter filter;
+    private final PostCursor cursor;
+
+    public FeedQuery(PostFilter filter, PostCursor cursor) {
+        this.filter = filter;
+        this.cursor = cursor;
+    }
+
+    public PostFilter getFilter() {
+        return filter;
+    }
+
+    public Long getLastId() {
+        return cursor != null ? cursor.getId() : null;
+    }
+
+    public Date getLastCreatedAt() {
+        return cursor != null ? cursor.getCreatedAt() : null;
+    }
+}
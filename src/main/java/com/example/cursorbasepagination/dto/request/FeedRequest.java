@@ -0,0 +1,113 @@
+package com.example.cursorbasepagination.dto.request;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Request lấy nhiều feed (mỗi feed là một bộ lọc) trong một lần gọi.
+ */
+public class FeedRequest {
+    private List<FeedSpec> feeds = new ArrayList<>();
+    private Integer limit = 10;
+    private Set<String> fields;
+
+    public List<FeedSpec> getFeeds() {
+        return feeds;
+    }
+
+    public void setFeeds(List<FeedSpec> feeds) {
+        this.feeds = feeds;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public void setFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Một feed: khóa để nhận diện trong kết quả, bộ lọc và cursor (tùy chọn) để lấy trang tiếp theo.
+     */
+    public static class FeedSpec {
+        private String key;
+        private String title;
+        private String category;
+        private Long userId;
+        private Date startDate;
+        private Date endDate;
+        private String cursor;
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public Date getStartDate() {
+            return startDate;
+        }
+
+        public void setStartDate(Date startDate) {
+            this.startDate = startDate;
+        }
+
+        public Date getEndDate() {
+            return endDate;
+        }
+
+        public void setEndDate(Date endDate) {
+            this.endDate = endDate;
+        }
+
+        public String getCursor() {
+            return cursor;
+        }
+
+        public void setCursor(String cursor) {
+            this.cursor = cursor;
+        }
+
+        // Bộ lọc đã chuẩn hóa của feed
+        public PostFilter toFilter() {
+            return PostFilter.of(title, category, userId, startDate, endDate);
+        }
+    }
+}
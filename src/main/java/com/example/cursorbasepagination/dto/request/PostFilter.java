@@ -0,0 +1,97 @@
+package com.example.cursorbasepagination.dto.request;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Bộ lọc bài viết đã được chuẩn hóa, dùng làm khóa cho cache và các thao tác theo bộ lọc.
+ * Chuỗi rỗng hoặc chỉ có khoảng trắng được coi như không lọc (null).
+ */
+public final class PostFilter {
+    private final String title;
+    private final String category;
+    private final Long userId;
+    private final Date startDate;
+    private final Date endDate;
+
+    private PostFilter(String title, String category, Long userId, Date startDate, Date endDate) {
+        this.title = title;
+        this.category = category;
+        this.userId = userId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public static PostFilter of(String title, String category, Long userId, Date startDate, Date endDate) {
+        return new PostFilter(normalize(title), normalize(category), userId,
+                startDate != null ? new Date(startDate.getTime()) : null,
+                endDate != null ? new Date(endDate.getTime()) : null);
+    }
+
+    /**
+     * Bộ lọc rỗng (không có điều kiện nào).
+     */
+    public static PostFilter none() {
+        return new PostFilter(null, null, null, null, null);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Date getStartDate() {
+        return startDate;
+    }
+
+    public Date getEndDate() {
+        return endDate;
+    }
+
+    // Kiểm tra bộ lọc không có điều kiện nào
+    public boolean isEmpty() {
+        return title == null && category == null && userId == null && startDate == null && endDate == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PostFilter)) {
+            return false;
+        }
+        PostFilter that = (PostFilter) o;
+        return Objects.equals(title, that.title)
+                && Objects.equals(category, that.category)
+                && Objects.equals(userId, that.userId)
+                && Objects.equals(startDate, that.startDate)
+                && Objects.equals(endDate, that.endDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(title, category, userId, startDate, endDate);
+    }
+
+    @Override
+    public String toString() {
+        return "PostFilter{title=" + title + ", category=" + category + ", userId=" + userId
+                + ", startDate=" + startDate + ", endDate=" + endDate + "}";
+    }
+}
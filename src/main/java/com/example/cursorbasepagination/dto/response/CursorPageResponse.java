@@ -1,5 +1,7 @@
 package com.example.cursorbasepagination.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class CursorPageResponse <T>{
@@ -8,6 +10,9 @@ public class CursorPageResponse <T>{
     private String previousCursor;
     private boolean hasNext;
     private boolean hasPrevious;
+    // Tổng số phần tử ước lượng theo bộ lọc (không trả về khi chưa có)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalEstimate;
 
     public CursorPageResponse(List<T> items, String nextCursor, String previousCursor, boolean hasNext, boolean hasPrevious) {
         this.items = items;
@@ -56,4 +61,12 @@ public class CursorPageResponse <T>{
     public void setHasPrevious(boolean hasPrevious) {
         this.hasPrevious = hasPrevious;
     }
-}
\ No newline at end of file
+
+    public Long getTotalEstimate() {
+        return totalEstimate;
+    }
+
+    public void setTotalEstimate(Long totalEstimate) {
+        this.totalEstimate = totalEstimate;
+    }
+}
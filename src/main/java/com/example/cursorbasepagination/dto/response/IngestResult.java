@@ -0,0 +1,95 @@
+package com.example.cursorbasepagination.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kết quả của một lần thêm hàng loạt: số phần tử đã nhận, đã thêm, bị lỗi và chi tiết lỗi theo vị trí.
+ */
+public class IngestResult {
+    private long received;
+    private long inserted;
+    private long failed;
+    // Danh sách lỗi bị cắt ở pagination.ingest.max-reported-failures phần tử
+    private List<Failure> failures = new ArrayList<>();
+    private boolean failuresTruncated;
+    // Request dừng giữa chừng (JSON hỏng), các phần tử phía sau không được đọc
+    private boolean aborted;
+
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(List<Failure> failures) {
+        this.failures = failures;
+    }
+
+    public boolean isFailuresTruncated() {
+        return failuresTruncated;
+    }
+
+    public void setFailuresTruncated(boolean failuresTruncated) {
+        this.failuresTruncated = failuresTruncated;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public void setAborted(boolean aborted) {
+        this.aborted = aborted;
+    }
+
+    /**
+     * Lỗi của một phần tử, index tính từ 0 theo thứ tự trong body của request.
+     */
+    public static class Failure {
+        private long index;
+        private String message;
+
+        public Failure(long index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        public void setIndex(long index) {
+            this.index = index;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
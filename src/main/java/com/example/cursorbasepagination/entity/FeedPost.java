@@ -0,0 +1,19 @@
+package com.example.cursorbasepagination.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Bài viết kèm chỉ số của feed mà nó thuộc về trong truy vấn nhiều feed.
+ */
+public class FeedPost extends Post {
+    @JsonIgnore
+    private Integer feedIndex;
+
+    public Integer getFeedIndex() {
+        return feedIndex;
+    }
+
+    public void setFeedIndex(Integer feedIndex) {
+        this.feedIndex = feedIndex;
+    }
+}
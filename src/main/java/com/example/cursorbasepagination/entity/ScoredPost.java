@@ -0,0 +1,16 @@
+package com.example.cursorbasepagination.entity;
+
+/**
+ * Bài viết kèm điểm liên quan của tìm kiếm toàn văn.
+ */
+public class ScoredPost extends Post {
+    private Double score;
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+}
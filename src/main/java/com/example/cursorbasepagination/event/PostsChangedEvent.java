@@ -0,0 +1,78 @@
+package com.example.cursorbasepagination.event;
+
+import com.example.cursorbasepagination.dto.request.PostFilter;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Sự kiện phát ra khi bài viết được thêm/sửa/xóa, để các cache phía đọc tự vô hiệu hóa.
+ * Nếu cả categories và userIds đều null, mọi mục cache đều bị coi là cũ.
+ *
+ * <p>postIds là id của các bài viết đã có bị sửa hoặc xóa: rỗng khi chỉ thêm mới, null khi không rõ.
+ * Cache theo từng bài viết dựa vào đó để chỉ bỏ đúng các bài viết đã thay đổi.
+ */
+public class PostsChangedEvent {
+    private final Set<String> categories;
+    private final Set<Long> userIds;
+    private final Set<Long> postIds;
+
+    public PostsChangedEvent(Set<String> categories, Set<Long> userIds) {
+        this(categories, userIds, null);
+    }
+
+    public PostsChangedEvent(Set<String> categories, Set<Long> userIds, Set<Long> postIds) {
+        this.categories = categories;
+        this.userIds = userIds;
+        this.postIds = postIds;
+    }
+
+    /**
+     * Sự kiện chỉ có bài viết mới được thêm, không bài viết đã có nào bị sửa hoặc xóa.
+     */
+    public static PostsChangedEvent inserted(Set<String> categories, Set<Long> userIds) {
+        return new PostsChangedEvent(categories, userIds, Collections.emptySet());
+    }
+
+    /**
+     * Sự kiện ảnh hưởng tới toàn bộ dữ liệu.
+     */
+    public static PostsChangedEvent all() {
+        return new PostsChangedEvent(null, null);
+    }
+
+    public Set<String> getCategories() {
+        return categories != null ? categories : Collections.emptySet();
+    }
+
+    public Set<Long> getUserIds() {
+        return userIds != null ? userIds : Collections.emptySet();
+    }
+
+    public Set<Long> getPostIds() {
+        return postIds != null ? postIds : Collections.emptySet();
+    }
+
+    // Biết chính xác các bài viết đã có bị sửa/xóa (getPostIds rỗng nghĩa là chỉ thêm mới)
+    public boolean hasPostIds() {
+        return postIds != null;
+    }
+
+    // Kiểm tra sự kiện có ảnh hưởng tới toàn bộ dữ liệu không
+    public boolean isGlobal() {
+        return categories == null && userIds == null;
+    }
+
+    /**
+     * Kiểm tra thay đổi có thể ảnh hưởng tới kết quả của bộ lọc không.
+     * Các điều kiện title/ngày không được xét nên kết quả luôn thiên về an toàn (vô hiệu hóa thừa).
+     */
+    public boolean affects(PostFilter filter) {
+        if (isGlobal()) {
+            return true;
+        }
+        boolean categoryMatches = filter.getCategory() == null || getCategories().contains(filter.getCategory());
+        boolean userMatches = filter.getUserId() == null || getUserIds().contains(filter.getUserId());
+        return categoryMatches && userMatches;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.cursorbasepagination.monitoring;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dto.request.FeedQuery;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.example.cursorbasepagination.util.keyset.PostSorts;
+import com.example.cursorbasepagination.util.keyset.SortSpec;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+
+/**
+ * Kiểm tra khi khởi động: chạy EXPLAIN cho mọi câu SELECT của {@link PostMapper} với từng dạng bộ lọc
+ * và ghi cảnh báo nếu MySQL không dùng index nào (quét toàn bảng).
+ *
+ * <p>Câu lệnh không dựng được với tham số mẫu (ví dụ câu lệnh mới cần tham số chưa có trong sampleParams)
+ * được bỏ qua kèm log, thay vì báo lỗi như một câu lệnh không dùng index.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "pagination.explain-check.enabled", havingValue = "true")
+public class IndexUsageVerifier implements ApplicationRunner {
+
+    private static final String NAMESPACE = PostMapper.class.getName() + ".";
+
+    // Câu lệnh không đọc bảng posts (findPartitions đọc information_schema)
+    private static final Set<String> EXCLUDED = Set.of("findPartitions");
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            Connection connection = session.getConnection();
+            for (String statementId : statementIds(configuration)) {
+                MappedStatement ms = configuration.getMappedStatement(statementId);
+                for (Map.Entry<String, Map<String, Object>> shape : filterShapes().entrySet()) {
+                    explain(connection, ms, shape.getKey(), shape.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Các câu SELECT của PostMapper cần kiểm tra.
+     */
+    static Set<String> statementIds(Configuration configuration) {
+        // getMappedStatements() chứa cả tên đầy đủ và tên rút gọn, nên lọc trùng theo id
+        Set<String> statementIds = new TreeSet<>();
+        for (Object statement : configuration.getMappedStatements()) {
+            if (statement instanceof MappedStatement ms
+                    && ms.getId().startsWith(NAMESPACE)
+                    && ms.getSqlCommandType() == SqlCommandType.SELECT
+                    && !EXCLUDED.contains(ms.getId().substring(NAMESPACE.length()))
+                    // Câu lệnh đã là EXPLAIN, hoặc cần tên phân vùng thật, thì bỏ qua
+                    && !ms.getId().startsWith(NAMESPACE + "explain")
+                    && !ms.getId().startsWith(NAMESPACE + "findInPartition")) {
+                statementIds.add(ms.getId());
+            }
+        }
+        return statementIds;
+    }
+
+    private void explain(Connection connection, MappedStatement ms, String shape, Map<String, Object> params) {
+        String name = ms.getId().substring(NAMESPACE.length());
+        BoundSql boundSql;
+        try {
+            boundSql = ms.getBoundSql(params);
+        } catch (RuntimeException e) {
+            log.info("Bỏ qua EXPLAIN {} [{}]: không dựng được câu lệnh với tham số mẫu ({})",
+                    name, shape, e.getMessage());
+            return;
+        }
+        try {
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+                ParameterHandler parameterHandler = new DefaultParameterHandler(ms, params, boundSql);
+                parameterHandler.setParameters(ps);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String key = rs.getString("key");
+                        String type = rs.getString("type");
+                        if (key == null || "ALL".equalsIgnoreCase(type)) {
+                            log.warn("EXPLAIN {} [{}]: không dùng index (type={}, rows={})",
+                                    name, shape, type, rs.getString("rows"));
+                        } else {
+                            log.info("EXPLAIN {} [{}]: index={}, type={}, rows={}",
+                                    name, shape, key, type, rs.getString("rows"));
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Không thể EXPLAIN {} [{}]: {}", name, shape, e.getMessage());
+        }
+    }
+
+    /**
+     * Các bộ tham số mẫu, mỗi bộ ứng với một dạng bộ lọc cần có index riêng. Feed và thứ tự sắp xếp
+     * của từng bộ dùng cùng dạng bộ lọc đó (thứ tự theo category/userId là thứ tự có index tương ứng).
+     */
+    static Map<String, Map<String, Object>> filterShapes() {
+        Map<String, Map<String, Object>> shapes = new LinkedHashMap<>();
+
+        shapes.put("none", sampleParams(PostFilter.none(), PostSorts.DEFAULT));
+
+        Map<String, Object> byCategory = sampleParams(PostFilter.of(null, "sample", null, null, null),
+                PostSorts.parse("category:asc,createdAt:desc"));
+        byCategory.put("category", "sample");
+        shapes.put("category", byCategory);
+
+        Map<String, Object> byUser = sampleParams(PostFilter.of(null, null, 1L, null, null),
+                PostSorts.parse("userId:asc,createdAt:desc"));
+        byUser.put("userId", 1L);
+        shapes.put("userId", byUser);
+
+        return shapes;
+    }
+
+    private static Map<String, Object> sampleParams(PostFilter filter, SortSpec<Post> sort) {
+        Date now = new Date();
+        Post last = new Post();
+        last.setId(Long.MAX_VALUE);
+        last.setCreatedAt(now);
+        last.setCategory("sample");
+        last.setUserId(1L);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("limit", 11);
+        params.put("lastId", Long.MAX_VALUE);
+        params.put("lastCreatedAt", now);
+        params.put("firstId", 0L);
+        params.put("firstCreatedAt", now);
+        // Tìm kiếm: lastScore null là trang đầu tiên
+        params.put("query", "sample");
+        params.put("firstScore", 1.0);
+        // Theo id và quanh một bài viết
+        params.put("id", 1L);
+        params.put("ids", List.of(1L, 2L));
+        params.put("anchorId", 1L);
+        params.put("anchorCreatedAt", now);
+        params.put("before", 10);
+        params.put("after", 10);
+        // Nhiều feed và thứ tự sắp xếp khai báo
+        params.put("feeds", List.of(new FeedQuery(filter, new PostCursor(Long.MAX_VALUE, now.getTime()))));
+        params.put("sort", sort);
+        params.put("cursor", sort.cursorOf(last, null));
+        return params;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.cursorbasepagination.monitoring;
+
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics cho tầng phân trang:
+ * <ul>
+ *     <li>{@code pagination.page.limit} / {@code pagination.page.size}: limit được yêu cầu và số phần tử trả về</li>
+ *     <li>{@code pagination.cursor.encode} / {@code pagination.cursor.decode}: thời gian mã hóa/giải mã cursor</li>
+ *     <li>{@code pagination.cursor.decode.failures}: cursor bị hỏng</li>
+ *     <li>{@code pagination.cursor.fallback}: có cursor nhưng không dùng được, quay về trang đầu tiên</li>
+ * </ul>
+ */
+@Component
+public class PaginationMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Timer encodeTimer;
+    private final Timer decodeTimer;
+    private final Counter decodeFailures;
+    private final Counter fallbacks;
+    private final Map<String, DistributionSummary> limitSummaries = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> sizeSummaries = new ConcurrentHashMap<>();
+
+    public PaginationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.encodeTimer = Timer.builder("pagination.cursor.encode")
+                .description("Thời gian mã hóa cursor")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.decodeTimer = Timer.builder("pagination.cursor.decode")
+                .description("Thời gian giải mã cursor")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.decodeFailures = Counter.builder("pagination.cursor.decode.failures")
+                .description("Số cursor không giải mã được")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("pagination.cursor.fallback")
+                .description("Số request có cursor nhưng được trả về trang đầu tiên")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ghi nhận limit được yêu cầu và số phần tử thực sự trả về của một trang.
+     *
+     * @param query Tên loại truy vấn (ví dụ "posts", "filter")
+     * @param requestedLimit Limit client yêu cầu
+     * @param returnedSize Số phần tử trả về
+     */
+    public void recordPage(String query, int requestedLimit, int returnedSize) {
+        limitSummaries.computeIfAbsent(query, q -> summary("pagination.page.limit", q)).record(requestedLimit);
+        sizeSummaries.computeIfAbsent(query, q -> summary("pagination.page.size", q)).record(returnedSize);
+    }
+
+    /**
+     * Bọc codec để đo thời gian mã hóa/giải mã, số lỗi và số lần quay về trang đầu tiên.
+     */
+    public <C> CursorCodec<C> instrument(CursorCodec<C> codec) {
+        return new InstrumentedCursorCodec<>(codec);
+    }
+
+    private DistributionSummary summary(String name, String query) {
+        return DistributionSummary.builder(name)
+                .tag("query", query)
+                .serviceLevelObjectives(1, 10, 20, 50, 100, 200, 500, 1000)
+                .register(meterRegistry);
+    }
+
+    private final class InstrumentedCursorCodec<C> implements CursorCodec<C> {
+        private final CursorCodec<C> delegate;
+
+        private InstrumentedCursorCodec(CursorCodec<C> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encode(C cursor) {
+            return encodeTimer.record(() -> delegate.encode(cursor));
+        }
+
+        @Override
+        public C decode(String cursor) {
+            C decoded;
+            try {
+                decoded = decodeTimer.record(() -> delegate.decode(cursor));
+            } catch (RuntimeException e) {
+                decodeFailures.increment();
+                throw e;
+            }
+            if (decoded == null && cursor != null && !cursor.isEmpty()) {
+                fallbacks.increment();
+            }
+            return decoded;
+        }
+
+        @Override
+        public CursorCodec<C> scopedTo(int filterHash) {
+            return new InstrumentedCursorCodec<>(delegate.scopedTo(filterHash));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.cursorbasepagination.monitoring;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Một câu lệnh của PostMapper chạy lâu hơn ngưỡng của {@link SlowQueryRecorder}, trả về qua endpoint
+ * {@code /actuator/slowqueries}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SlowQuery {
+    private final String capturedAt;
+    private final String statement;
+    private final long durationMs;
+    private final String outcome;
+    private final String sql;
+    private final Map<String, Object> parameters;
+    // Vị trí bắt đầu của trang (cursor đã giải mã), null nếu là trang đầu tiên
+    private final Map<String, Object> cursor;
+    // Kế hoạch thực thi dùng chung cho mọi bản ghi có cùng dạng câu lệnh, null với câu lệnh không phải SELECT
+    private final Plan plan;
+
+    SlowQuery(String capturedAt, String statement, long durationMs, String outcome, String sql,
+              Map<String, Object> parameters, Map<String, Object> cursor, Plan plan) {
+        this.capturedAt = capturedAt;
+        this.statement = statement;
+        this.durationMs = durationMs;
+        this.outcome = outcome;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.cursor = cursor;
+        this.plan = plan;
+    }
+
+    public String getCapturedAt() {
+        return capturedAt;
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public Map<String, Object> getCursor() {
+        return cursor;
+    }
+
+    public Plan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Kết quả EXPLAIN của một dạng câu lệnh (statement + SQL sau khi dựng dynamic SQL), được điền bất đồng bộ.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Plan {
+        public enum Status {
+            PENDING, CAPTURED, FAILED, SKIPPED
+        }
+
+        private volatile Status status = Status.PENDING;
+        private volatile String capturedAt;
+        private volatile List<Map<String, Object>> rows;
+        // Có bảng được đọc bằng quét toàn bảng (type=ALL) hoặc không dùng index nào
+        private volatile Boolean fullScan;
+        private volatile String error;
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getCapturedAt() {
+            return capturedAt;
+        }
+
+        public List<Map<String, Object>> getRows() {
+            return rows;
+        }
+
+        public Boolean getFullScan() {
+            return fullScan;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        void captured(String capturedAt, List<Map<String, Object>> rows, boolean fullScan) {
+            this.capturedAt = capturedAt;
+            this.rows = rows;
+            this.fullScan = fullScan;
+            this.status = Status.CAPTURED;
+        }
+
+        void failed(String error) {
+            this.error = error;
+            this.status = Status.FAILED;
+        }
+
+        void skipped(String reason) {
+            this.error = reason;
+            this.status = Status.SKIPPED;
+        }
+    }
+}
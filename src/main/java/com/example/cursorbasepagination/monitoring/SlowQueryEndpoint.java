@@ -0,0 +1,33 @@
+package com.example.cursorbasepagination.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoint actuator {@code /actuator/slowqueries} (chỉ đọc): các câu lệnh chậm mới nhất cùng kế hoạch EXPLAIN.
+ * Không được công bố qua web mặc định; thêm vào management.endpoints.web.exposure.include khi cần.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+    private final SlowQueryRecorder slowQueryRecorder;
+
+    public SlowQueryEndpoint(SlowQueryRecorder slowQueryRecorder) {
+        this.slowQueryRecorder = slowQueryRecorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        List<SlowQuery> records = slowQueryRecorder.getRecords();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("thresholdMs", slowQueryRecorder.getThreshold().toMillis());
+        body.put("count", records.size());
+        body.put("records", records);
+        return body;
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.cursorbasepagination.monitoring;
+
+import com.example.cursorbasepagination.dao.DatabaseBulkhead;
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.util.keyset.KeysetCursor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor của MyBatis ghi lại các câu lệnh của {@link PostMapper} chạy lâu hơn {@code threshold}, để phát hiện
+ * truy vấn trang bị thoái hóa thành quét toàn bảng (tổ hợp bộ lọc mới trong baseWhere, phân bố created_at lệch)
+ * trước khi người dùng nhận ra.
+ *
+ * <p>Mỗi bản ghi gồm SQL, tham số đã bind và vị trí cursor đã giải mã (lastId/lastCreatedAt, ...). Tham số chỉ được
+ * ghi với số, thời điểm và chuỗi ngắn (cắt ở {@value #MAX_RENDERED_LENGTH} ký tự); đối tượng như bài viết của
+ * insertBatch chỉ được ghi tên kiểu để nội dung không lọt ra ngoài. Với câu SELECT,
+ * EXPLAIN được chạy trên một luồng nền riêng với chính các tham số đó, một lần cho mỗi dạng câu lệnh
+ * (statement + SQL đã dựng) trong {@code explain-ttl}; các bản ghi cùng dạng dùng chung kết quả.
+ * Bản ghi được giữ trong ring buffer {@code buffer-size} phần tử và xem qua {@code /actuator/slowqueries}.
+ *
+ * <p>Việc ghi không được làm tăng tải: câu lệnh nhanh chỉ tốn một phép so sánh thời gian, câu lệnh chậm được lấy
+ * mẫu theo {@code sample-rate} và giới hạn {@code max-records-per-second}; hàng đợi EXPLAIN có giới hạn và
+ * EXPLAIN bị bỏ qua khi hàng đợi đầy. Metrics: {@code pagination.slow-query} và {@code pagination.slow-query.explain}.
+ *
+ * <p>Chỉ đo thời gian chạy câu lệnh: thời gian chờ bulkhead không được tính, và queryCursor (export dạng stream) không
+ * được ghi vì nó trả về ngay khi mở cursor còn thời gian đọc nằm ở phía gọi.
+ */
+@Slf4j
+@Component
+// Nằm trong DatabaseBulkhead (interceptor có order lớn hơn bọc ngoài) để thời gian chờ permit không bị tính
+@Order(DatabaseBulkhead.ORDER - 1)
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class SlowQueryRecorder implements Interceptor {
+    private static final String NAMESPACE = PostMapper.class.getName() + ".";
+    // Tham số là danh sách dài (findByIds, insertBatch) chỉ được ghi số phần tử
+    private static final int MAX_RENDERED_ELEMENTS = 20;
+    private static final int MAX_RENDERED_LENGTH = 64;
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final int maxRecordsPerSecond;
+    private final int bufferSize;
+    private final Duration explainTimeout;
+
+    private final Deque<SlowQuery> buffer;
+    private final Cache<String, SlowQuery.Plan> plans;
+    private final ThreadPoolExecutor explainExecutor;
+
+    // Cửa sổ một giây của giới hạn tốc độ ghi
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+
+    private final Counter recorded;
+    private final Counter sampledOut;
+    private final Counter rateLimited;
+    private final Counter explainCaptured;
+    private final Counter explainFailed;
+    private final Counter explainRejected;
+
+    public SlowQueryRecorder(
+            MeterRegistry meterRegistry,
+            @Value("${pagination.slow-query.enabled:true}") boolean enabled,
+            @Value("${pagination.slow-query.threshold:500ms}") Duration threshold,
+            @Value("${pagination.slow-query.sample-rate:1.0}") double sampleRate,
+            @Value("${pagination.slow-query.max-records-per-second:5}") int maxRecordsPerSecond,
+            @Value("${pagination.slow-query.buffer-size:200}") int bufferSize,
+            @Value("${pagination.slow-query.explain-ttl:10m}") Duration explainTtl,
+            @Value("${pagination.slow-query.explain-timeout:5s}") Duration explainTimeout,
+            @Value("${pagination.slow-query.explain-queue-size:16}") int explainQueueSize) {
+        this.enabled = enabled;
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.maxRecordsPerSecond = maxRecordsPerSecond;
+        this.bufferSize = bufferSize;
+        this.explainTimeout = explainTimeout;
+
+        this.buffer = new ArrayDeque<>(bufferSize);
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(explainTtl)
+                .build();
+        // Một luồng, hàng đợi có giới hạn: EXPLAIN chiếm tối đa một kết nối và không dồn việc khi database đang chậm
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(explainQueueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.recorded = meterRegistry.counter("pagination.slow-query", "result", "recorded");
+        this.sampledOut = meterRegistry.counter("pagination.slow-query", "result", "sampled-out");
+        this.rateLimited = meterRegistry.counter("pagination.slow-query", "result", "rate-limited");
+        this.explainCaptured = meterRegistry.counter("pagination.slow-query.explain", "result", "captured");
+        this.explainFailed = meterRegistry.counter("pagination.slow-query.explain", "result", "failed");
+        this.explainRejected = meterRegistry.counter("pagination.slow-query.explain", "result", "rejected");
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!enabled) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return invocation.proceed();
+        } catch (Throwable t) {
+            outcome = "error";
+            throw t;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= thresholdNanos) {
+                try {
+                    onSlow(invocation.getArgs(), elapsed, outcome);
+                } catch (RuntimeException e) {
+                    // Việc ghi không được làm hỏng câu lệnh đã chạy xong
+                    log.debug("Không thể ghi câu lệnh chậm: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Các câu lệnh chậm đã ghi, mới nhất trước.
+     */
+    public List<SlowQuery> getRecords() {
+        List<SlowQuery> records = new ArrayList<>(bufferSize);
+        synchronized (buffer) {
+            Iterator<SlowQuery> newestFirst = buffer.descendingIterator();
+            while (newestFirst.hasNext()) {
+                records.add(newestFirst.next());
+            }
+        }
+        return records;
+    }
+
+    public Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    private void onSlow(Object[] args, long elapsed, String outcome) {
+        MappedStatement ms = (MappedStatement) args[0];
+        // Câu lệnh EXPLAIN của chính mapper (ước lượng số lượng) thì bỏ qua
+        if (!ms.getId().startsWith(NAMESPACE) || ms.getId().startsWith(NAMESPACE + "explain")) {
+            return;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return;
+        }
+        if (!tryAcquire()) {
+            rateLimited.increment();
+            return;
+        }
+
+        Object parameter = args[1];
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(parameter);
+        String sql = boundSql.getSql().replaceAll("\\s+", " ").trim();
+        SlowQuery.Plan plan = ms.getSqlCommandType() == SqlCommandType.SELECT
+                ? plan(ms, parameter, boundSql, sql)
+                : null;
+
+        SlowQuery record = new SlowQuery(Instant.now().toString(),
+                ms.getId().substring(NAMESPACE.length()),
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                outcome,
+                sql,
+                parameters(parameter),
+                cursor(parameter),
+                plan);
+        synchronized (buffer) {
+            if (buffer.size() >= bufferSize) {
+                buffer.pollFirst();
+            }
+            buffer.addLast(record);
+        }
+        recorded.increment();
+        log.warn("Câu lệnh chậm {} ({} ms), xem /actuator/slowqueries", record.getStatement(), record.getDurationMs());
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= TimeUnit.SECONDS.toNanos(1) && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= maxRecordsPerSecond;
+    }
+
+    /**
+     * Kế hoạch của dạng câu lệnh: dùng lại nếu đã có trong explain-ttl, ngược lại tạo mới và đưa EXPLAIN vào hàng đợi.
+     */
+    private SlowQuery.Plan plan(MappedStatement ms, Object parameter, BoundSql boundSql, String sql) {
+        boolean[] created = new boolean[1];
+        String shape = ms.getId() + '\n' + sql;
+        SlowQuery.Plan plan = plans.get(shape, key -> {
+            created[0] = true;
+            return new SlowQuery.Plan();
+        });
+        if (!created[0]) {
+            return plan;
+        }
+        try {
+            explainExecutor.execute(() -> explain(ms, parameter, boundSql, plan));
+        } catch (RejectedExecutionException e) {
+            explainRejected.increment();
+            plan.skipped("Hàng đợi EXPLAIN đầy");
+            // Lần chậm sau của dạng này sẽ thử lại
+            plans.asMap().remove(shape, plan);
+        }
+        return plan;
+    }
+
+    private void explain(MappedStatement ms, Object parameter, BoundSql boundSql, SlowQuery.Plan plan) {
+        // DataSource của SqlSessionFactory đã chạy câu lệnh, nên ở chế độ phân mảnh EXPLAIN chạy trên đúng shard
+        DataSource dataSource = ms.getConfiguration().getEnvironment().getDataSource();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            ps.setQueryTimeout((int) Math.max(1, explainTimeout.toSeconds()));
+            new DefaultParameterHandler(ms, parameter, boundSql).setParameters(ps);
+
+            List<Map<String, Object>> rows = new ArrayList<>();
+            boolean fullScan = false;
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        row.put(metaData.getColumnLabel(i), rs.getObject(i));
+                    }
+                    // Dòng không đọc bảng (ví dụ "No tables used") không có cột table
+                    if (row.get("table") != null
+                            && (row.get("key") == null || "ALL".equalsIgnoreCase(String.valueOf(row.get("type"))))) {
+                        fullScan = true;
+                    }
+                    rows.add(row);
+                }
+            }
+            plan.captured(Instant.now().toString(), rows, fullScan);
+            explainCaptured.increment();
+            if (fullScan) {
+                log.warn("Câu lệnh chậm {} quét toàn bảng: {}", ms.getId().substring(NAMESPACE.length()), rows);
+            }
+        } catch (Exception e) {
+            explainFailed.increment();
+            plan.failed(e.getMessage());
+            log.debug("Không thể EXPLAIN {}: {}", ms.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Tham số theo tên của phương thức mapper; các tên tự sinh param1, param2... bị bỏ qua.
+     */
+    static Map<String, Object> parameters(Object parameter) {
+        Map<String, Object> rendered = new LinkedHashMap<>();
+        if (parameter instanceof Map<?, ?> params) {
+            for (Map.Entry<?, ?> entry : new TreeMap<>(params).entrySet()) {
+                String name = String.valueOf(entry.getKey());
+                if (!name.matches("param\\d+")) {
+                    rendered.put(name, render(entry.getValue()));
+                }
+            }
+        } else if (parameter != null) {
+            rendered.put("value", render(parameter));
+        }
+        return rendered;
+    }
+
+    /**
+     * Vị trí bắt đầu của trang: các tham số last* (trang sau), first* (trang trước), anchor* (quanh một bài viết)
+     * hoặc giá trị của KeysetCursor, với thời điểm ở dạng ISO-8601.
+     */
+    private static Map<String, Object> cursor(Object parameter) {
+        if (!(parameter instanceof Map<?, ?> params)) {
+            return null;
+        }
+        Map<String, Object> cursor = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : new TreeMap<>(params).entrySet()) {
+            String name = String.valueOf(entry.getKey());
+            Object value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof KeysetCursor keysetCursor) {
+                cursor.put("direction", "next");
+                cursor.put("values", render(keysetCursor.getValues()));
+            } else if (name.startsWith("last")) {
+                cursor.put("direction", "next");
+                cursor.put(name, render(value));
+            } else if (name.startsWith("first")) {
+                cursor.put("direction", "previous");
+                cursor.put(name, render(value));
+            } else if (name.startsWith("anchor")) {
+                cursor.put("direction", "around");
+                cursor.put(name, render(value));
+            }
+        }
+        return cursor.isEmpty() ? null : cursor;
+    }
+
+    static Object render(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Date date) {
+            return date.toInstant().toString();
+        }
+        if (value instanceof Collection<?> collection) {
+            if (collection.size() > MAX_RENDERED_ELEMENTS) {
+                return collection.size() + " phần tử";
+            }
+            List<Object> rendered = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                rendered.add(render(element));
+            }
+            return rendered;
+        }
+        if (value instanceof CharSequence || value instanceof Enum<?>) {
+            String text = value.toString();
+            return text.length() > MAX_RENDERED_LENGTH ? text.substring(0, MAX_RENDERED_LENGTH) + "..." : text;
+        }
+        // Đối tượng (bài viết, truy vấn feed, ...) có thể chứa nội dung người dùng nên chỉ ghi tên kiểu
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+}
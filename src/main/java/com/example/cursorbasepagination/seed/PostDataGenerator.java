@@ -0,0 +1,174 @@
+package com.example.cursorbasepagination.seed;
+
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sinh dữ liệu bài viết với phân bố lệch giống production, chạy với profile {@code seed}:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.profiles=seed -Dspring-boot.run.arguments=--seed.rows=5000000
+ * </pre>
+ *
+ * <ul>
+ *     <li>category và user_id theo phân bố Zipf (số mũ {@code seed.category-skew}, {@code seed.user-skew}):
+ *     vài danh mục/người dùng chiếm phần lớn bài viết</li>
+ *     <li>created_at trải trong {@code seed.days} ngày, dồn về gần hiện tại theo {@code seed.recency-skew}
+ *     (1 = đều, lớn hơn = nhiều bài mới hơn)</li>
+ * </ul>
+ * Chèn theo lô bằng JDBC batch (Connector/J gộp thành INSERT nhiều dòng nhờ rewriteBatchedStatements).
+ */
+@Slf4j
+@Component
+@Profile("seed")
+public class PostDataGenerator implements ApplicationRunner {
+    private static final String INSERT_SQL =
+            "INSERT INTO posts (title, content, created_at, user_id, category) VALUES (?, ?, ?, ?, ?)";
+    private static final String[] WORDS = {
+            "phân", "trang", "con", "trỏ", "dữ", "liệu", "bài", "viết", "hệ", "thống",
+            "index", "truy", "vấn", "hiệu", "năng", "máy", "chủ", "người", "dùng", "mới"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${seed.rows:1000000}")
+    private long rows;
+
+    @Value("${seed.batch-size:2000}")
+    private int batchSize;
+
+    @Value("${seed.users:100000}")
+    private int users;
+
+    @Value("${seed.categories:50}")
+    private int categories;
+
+    @Value("${seed.user-skew:1.1}")
+    private double userSkew;
+
+    @Value("${seed.category-skew:1.2}")
+    private double categorySkew;
+
+    @Value("${seed.days:730}")
+    private int days;
+
+    @Value("${seed.recency-skew:2.0}")
+    private double recencySkew;
+
+    // Tỉ lệ bài viết không có category
+    @Value("${seed.null-category-ratio:0.02}")
+    private double nullCategoryRatio;
+
+    @Value("${seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${seed.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        ZipfSampler userSampler = new ZipfSampler(users, userSkew);
+        ZipfSampler categorySampler = new ZipfSampler(categories, categorySkew);
+        long now = System.currentTimeMillis();
+        long spanMillis = days * 86_400_000L;
+
+        log.info("Bắt đầu sinh {} bài viết ({} người dùng, {} danh mục, {} ngày)", rows, users, categories, days);
+        long started = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long i = 1; i <= rows; i++) {
+            // u^recencySkew dồn giá trị về 0, tức là gần thời điểm hiện tại
+            long age = (long) (Math.pow(random.nextDouble(), recencySkew) * spanMillis);
+            String category = random.nextDouble() < nullCategoryRatio
+                    ? null : "category-" + categorySampler.sample(random);
+            batch.add(new Object[]{
+                    title(random, i),
+                    content(random),
+                    new Timestamp(now - age),
+                    (long) userSampler.sample(random) + 1,
+                    category
+            });
+
+            if (batch.size() == batchSize || i == rows) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+                if (i % (batchSize * 50L) == 0 || i == rows) {
+                    double seconds = (System.nanoTime() - started) / 1e9;
+                    log.info("Đã chèn {}/{} bài viết ({} bài/giây)", i, rows, Math.round(i / seconds));
+                }
+            }
+        }
+
+        // Ứng dụng có thể tiếp tục phục vụ, các cache phía đọc phải bỏ dữ liệu cũ
+        eventPublisher.publishEvent(PostsChangedEvent.all());
+        log.info("Hoàn tất sinh dữ liệu trong {} giây", (System.nanoTime() - started) / 1_000_000_000L);
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private static String title(SplittableRandom random, long index) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                + " " + WORDS[random.nextInt(WORDS.length)] + " #" + index;
+    }
+
+    private static String content(SplittableRandom random) {
+        int words = 20 + random.nextInt(200);
+        StringBuilder content = new StringBuilder(words * 6);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                content.append(' ');
+            }
+            content.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return content.toString();
+    }
+
+    /**
+     * Lấy mẫu theo phân bố Zipf trên [0, n): P(k) tỉ lệ với 1 / (k + 1)^s.
+     */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            // binarySearch trả về -(điểm chèn) - 1 khi không tìm thấy đúng giá trị
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
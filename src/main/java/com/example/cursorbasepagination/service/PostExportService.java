@@ -0,0 +1,37 @@
+package com.example.cursorbasepagination.service;
+
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+public interface PostExportService {
+
+    // Định dạng export
+    enum ExportFormat {
+        NDJSON, CSV
+    }
+
+    /**
+     * Giải mã cursor checkpoint của một lần export trước, gọi trước khi bắt đầu ghi response.
+     * @param filter Bộ lọc đã chuẩn hóa
+     * @param cursor Cursor checkpoint (có thể null)
+     * @return Vị trí để tiếp tục, hoặc null nếu export từ đầu
+     * @throws IllegalArgumentException nếu cursor bị hỏng hoặc thuộc về bộ lọc khác
+     */
+    PostCursor decodeCheckpoint(PostFilter filter, String cursor);
+
+    /**
+     * Ghi toàn bộ bài viết thỏa mãn bộ lọc ra output stream ngay khi đọc được từ database.
+     * Định kỳ ghi một checkpoint chứa cursor để có thể tiếp tục export khi bị ngắt.
+     * @param filter Bộ lọc đã chuẩn hóa
+     * @param resumeFrom Vị trí tiếp tục từ {@link #decodeCheckpoint} (null = từ đầu)
+     * @param fields Các trường cần xuất ngoài id và createdAt (null = tất cả)
+     * @param format Định dạng đầu ra
+     * @param out Output stream của response
+     */
+    void export(PostFilter filter, PostCursor resumeFrom, Set<String> fields, ExportFormat format, OutputStream out)
+            throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.example.cursorbasepagination.service;
+
+import com.example.cursorbasepagination.dto.response.IngestResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface PostIngestService {
+
+    /**
+     * Đọc bài viết từ body (mảng JSON hoặc NDJSON) và thêm vào database theo từng lô, ngay trong lúc đọc.
+     * Phần tử không hợp lệ được bỏ qua và báo lại trong kết quả; các lô đã ghi không bị hoàn tác.
+     * @param in Input stream của request
+     * @return Kết quả thêm hàng loạt
+     * @throws java.util.concurrent.RejectedExecutionException nếu đã đủ số request thêm hàng loạt đồng thời
+     */
+    IngestResult ingest(InputStream in) throws IOException;
+}
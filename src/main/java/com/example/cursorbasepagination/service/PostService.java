@@ -1,19 +1,36 @@
 package com.example.cursorbasepagination.service;
 
 import com.example.cursorbasepagination.dto.request.CursorPageRequest;
+import com.example.cursorbasepagination.dto.request.FeedRequest;
 import com.example.cursorbasepagination.dto.response.CursorPageResponse;
 import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.entity.ScoredPost;
+import com.example.cursorbasepagination.util.keyset.SortSpec;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface PostService {
     /**
      * Lấy danh sách bài viết theo cơ chế cursor-based pagination
-     * @param pageRequest Thông tin request pagination
+     * @param pageRequest Thông tin request pagination; nếu không có cursor nhưng có lastCreatedAt (và lastId)
+     *                    thì trang bắt đầu ngay tại vị trí đó
      * @return Kết quả phân trang
      */
     CursorPageResponse<Post> getPosts(CursorPageRequest pageRequest);
 
+    /**
+     * Lấy cửa sổ bài viết quanh một bài viết mốc theo thứ tự (createdAt, id) giảm dần
+     * @param id ID của bài viết mốc
+     * @param before Số bài viết mới hơn cần lấy
+     * @param after Số bài viết cũ hơn cần lấy
+     * @param fields Các trường cần lấy ngoài id và createdAt (null = tất cả)
+     * @return Kết quả phân trang chứa bài viết mốc, cursor dùng được với getPosts; null nếu không có bài viết mốc
+     */
+    CursorPageResponse<Post> getPostsAround(Long id, int before, int after, Set<String> fields);
+
     /**
      * Lấy danh sách bài viết với nhiều điều kiện lọc
      * @param category Category cần lọc (có thể null)
@@ -26,4 +43,38 @@ public interface PostService {
     CursorPageResponse<Post> getPostsWithFilters(String title, String category, Long userId,
                                                  Date startDate, Date endDate,
                                                  CursorPageRequest pageRequest);
+
+    /**
+     * Lấy danh sách bài viết theo thứ tự sắp xếp tùy chọn, phân trang theo khóa của thứ tự đó
+     * @param sort Thứ tự sắp xếp được hỗ trợ (xem PostSorts)
+     * @param pageRequest Thông tin request pagination
+     * @return Kết quả phân trang; cursor chỉ dùng được với cùng thứ tự sắp xếp
+     * @throws IllegalArgumentException nếu cursor không khớp với thứ tự sắp xếp
+     */
+    CursorPageResponse<Post> getPostsSorted(SortSpec<Post> sort, CursorPageRequest pageRequest);
+
+    /**
+     * Lấy một trang cho nhiều feed trong một lần truy vấn database
+     * @param feedRequest Danh sách feed, limit chung và các trường cần lấy
+     * @return Kết quả phân trang theo khóa của từng feed; nextCursor dùng được với getPostsWithFilters
+     */
+    Map<String, CursorPageResponse<Post>> getFeeds(FeedRequest feedRequest);
+
+    /**
+     * Tìm kiếm bài viết theo tiêu đề, sắp xếp theo độ liên quan rồi tới ngày tạo
+     * @param query Chuỗi cần tìm
+     * @param category Category cần lọc (có thể null)
+     * @param userId ID của người dùng (có thể null)
+     * @param pageRequest Thông tin request pagination
+     * @return Kết quả phân trang kèm điểm liên quan
+     */
+    CursorPageResponse<ScoredPost> searchPosts(String query, String category, Long userId,
+                                               CursorPageRequest pageRequest);
+
+    /**
+     * Lấy nội dung của nhiều bài viết, dùng để bổ sung content cho danh sách đã phân trang không kèm content
+     * @param ids Danh sách ID bài viết
+     * @return Danh sách bài viết chỉ gồm id và content
+     */
+    List<Post> getContents(List<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,473 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dao.PostShards;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.example.cursorbasepagination.util.KeysetMerge;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Đẩy bài viết mới qua Server-Sent Events cho /api/posts/tail.
+ *
+ * <p>Mỗi bộ lọc có một poller dùng chung: định kỳ (và ngay khi có {@link PostsChangedEvent} ảnh hưởng
+ * tới bộ lọc) chạy một truy vấn lấy các bài viết mới hơn watermark (created_at, id) nhỏ nhất của các
+ * subscriber, rồi chuyển cho từng subscriber phần mới hơn watermark của riêng nó. Số truy vấn vì vậy
+ * tỉ lệ với số bộ lọc đang được theo dõi chứ không phải số client. Subscriber tụt lại (vừa kết nối với
+ * cursor cũ) được bắt kịp bằng các lần poll liên tiếp, mỗi lần tối đa {@code batch-limit} bài viết.
+ *
+ * <p>Bài viết commit muộn với created_at sớm hơn watermark (transaction dài, đồng hồ lệch giữa các server)
+ * không bị bỏ sót: poller đọc lại {@code overlap} cuối cùng trước watermark (tối đa {@code batch-limit}
+ * bài viết) và chỉ gửi các bài viết chưa gửi, nhờ tập id đã gửi trong cửa sổ đó của từng subscriber.
+ * Cửa sổ chỉ được đọc lại khi lần poll có bài viết mới hoặc có {@link PostsChangedEvent}, và ít nhất sau mỗi
+ * {@code overlap-every} lần poll, nên bộ lọc rảnh chỉ tốn một truy vấn mỗi chu kỳ. Bài viết commit muộn hơn
+ * {@code overlap} vẫn có thể bị bỏ sót.
+ *
+ * <p>Poller không bao giờ ghi ra kết nối: mỗi subscriber có một hàng đợi tối đa {@code send-queue-size} lô,
+ * được gửi trên {@code send-threads} luồng riêng nên client chậm không làm chậm poll của các bộ lọc khác.
+ * Hàng đợi đầy nghĩa là client không đọc kịp: kết nối bị đóng và client kết nối lại bằng Last-Event-ID.
+ * SseEmitter không giữ luồng của servlet, nên subscriber rảnh chỉ tốn bộ nhớ. Heartbeat định kỳ phát hiện
+ * client đã ngắt kết nối. Ở chế độ phân mảnh, truy vấn poll chạy trên các shard liên quan rồi được trộn
+ * theo (created_at, id).
+ */
+@Slf4j
+@Component
+public class LiveTailHub {
+    private final PostMapper postMapper;
+    // null khi không phân mảnh
+    private final PostShards postShards;
+    private final CursorCodec<PostCursor> cursorCodec;
+    private final boolean enabled;
+    private final int batchLimit;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final long heartbeatIntervalMillis;
+    private final long overlapMillis;
+    private final int overlapEvery;
+    private final int sendQueueSize;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService sender;
+
+    private final Map<PostFilter, Tail> tails = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private volatile long lastHeartbeat = System.currentTimeMillis();
+
+    private final Counter polls;
+    private final Counter delivered;
+    private final Counter lateDelivered;
+    private final Counter slowDisconnects;
+
+    public LiveTailHub(
+            PostMapper postMapper,
+            ObjectProvider<PostShards> postShards,
+            CursorCodec<PostCursor> cursorCodec,
+            MeterRegistry meterRegistry,
+            @Value("${pagination.live-tail.enabled:true}") boolean enabled,
+            @Value("${pagination.live-tail.poll-interval:2s}") Duration pollInterval,
+            @Value("${pagination.live-tail.batch-limit:100}") int batchLimit,
+            @Value("${pagination.live-tail.max-subscribers:10000}") int maxSubscribers,
+            @Value("${pagination.live-tail.timeout:30m}") Duration timeout,
+            @Value("${pagination.live-tail.heartbeat-interval:30s}") Duration heartbeatInterval,
+            @Value("${pagination.live-tail.threads:1}") int threads,
+            @Value("${pagination.live-tail.overlap:5s}") Duration overlap,
+            @Value("${pagination.live-tail.overlap-every:5}") int overlapEvery,
+            @Value("${pagination.live-tail.send-threads:4}") int sendThreads,
+            @Value("${pagination.live-tail.send-queue-size:16}") int sendQueueSize) {
+        this.postMapper = postMapper;
+        this.postShards = postShards.getIfAvailable();
+        this.cursorCodec = cursorCodec;
+        this.enabled = enabled;
+        this.batchLimit = batchLimit;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.heartbeatIntervalMillis = heartbeatInterval.toMillis();
+        this.overlapMillis = overlap.toMillis();
+        this.overlapEvery = Math.max(1, overlapEvery);
+        this.sendQueueSize = Math.max(1, sendQueueSize);
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, threads), daemonThreadFactory("live-tail"));
+        this.sender = Executors.newFixedThreadPool(Math.max(1, sendThreads), daemonThreadFactory("live-tail-send"));
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::pollAll,
+                    pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        this.polls = meterRegistry.counter("pagination.live-tail.polls");
+        this.delivered = meterRegistry.counter("pagination.live-tail.delivered");
+        this.lateDelivered = meterRegistry.counter("pagination.live-tail.late");
+        this.slowDisconnects = meterRegistry.counter("pagination.live-tail.slow-disconnects");
+        Gauge.builder("pagination.live-tail.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("pagination.live-tail.filters", tails, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Đăng ký nhận bài viết mới hơn cursor cho một bộ lọc.
+     *
+     * @param filter Bộ lọc đã chuẩn hóa
+     * @param cursor Cursor của bài viết mới nhất client đang có (previousCursor của trang đầu, hoặc id của
+     *               sự kiện cuối cùng); null = chỉ nhận bài viết tạo từ bây giờ
+     * @return SseEmitter phát sự kiện "posts" với id là cursor để kết nối lại
+     * @throws RejectedExecutionException nếu đã đủ số subscriber
+     * @throws IllegalArgumentException nếu cursor bị hỏng
+     */
+    public SseEmitter subscribe(PostFilter filter, String cursor) {
+        return subscribe(filter, cursor, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(PostFilter filter, String cursor, SseEmitter emitter) {
+        CursorCodec<PostCursor> codec = codecFor(filter);
+        PostCursor from;
+        try {
+            from = codec.decode(cursor);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ", e);
+        }
+        if (from == null) {
+            from = new PostCursor(0, System.currentTimeMillis());
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("Đã đủ số subscriber của live tail");
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, from, sendQueueSize);
+        Tail tail = tails.compute(filter, (key, existing) -> {
+            Tail t = existing != null ? existing : new Tail(key, codec);
+            t.subscribers.add(subscriber);
+            return t;
+        });
+        emitter.onCompletion(() -> unsubscribe(tail, subscriber));
+        emitter.onTimeout(() -> unsubscribe(tail, subscriber));
+        emitter.onError(e -> unsubscribe(tail, subscriber));
+
+        // Gửi ngay phần client còn thiếu thay vì chờ tới lần poll kế tiếp
+        schedulePoll(tail);
+        return emitter;
+    }
+
+    /**
+     * Poll ngay các bộ lọc bị ảnh hưởng khi có bài viết mới, không chờ tới chu kỳ kế tiếp.
+     */
+    @EventListener
+    public void onPostsChanged(PostsChangedEvent event) {
+        for (Tail tail : tails.values()) {
+            if (event.affects(tail.filter)) {
+                tail.changed.set(true);
+                schedulePoll(tail);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        for (Tail tail : tails.values()) {
+            for (Subscriber subscriber : tail.subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    void pollAll() {
+        try {
+            for (Tail tail : tails.values()) {
+                poll(tail);
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastHeartbeat >= heartbeatIntervalMillis) {
+                lastHeartbeat = now;
+                heartbeat();
+            }
+        } catch (RuntimeException e) {
+            // Lỗi không được làm dừng lịch poll định kỳ
+            log.warn("Poll live tail thất bại: {}", e.getMessage());
+        }
+    }
+
+    private void schedulePoll(Tail tail) {
+        if (enabled && tail.pending.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    tail.pending.set(false);
+                    poll(tail);
+                });
+            } catch (RejectedExecutionException e) {
+                tail.pending.set(false);
+            }
+        }
+    }
+
+    // Một truy vấn cho cả bộ lọc, bắt đầu từ subscriber tụt lại xa nhất
+    private void poll(Tail tail) {
+        synchronized (tail) {
+            PostCursor from = null;
+            for (Subscriber subscriber : tail.subscribers) {
+                if (from == null || compare(subscriber.watermark, from) < 0) {
+                    from = subscriber.watermark;
+                }
+            }
+            if (from == null) {
+                return;
+            }
+
+            polls.increment();
+            List<Post> posts = newerThan(tail.filter, from);
+            // Đọc lại cửa sổ overlap trước watermark để bắt các bài viết commit muộn
+            List<Post> overlapping = List.of();
+            boolean changed = tail.changed.getAndSet(false);
+            if (overlapMillis > 0 && (changed || !posts.isEmpty() || ++tail.idlePolls >= overlapEvery)) {
+                tail.idlePolls = 0;
+                overlapping = newerThan(tail.filter, new PostCursor(0, from.getCreatedAtMillis() - overlapMillis));
+            }
+            if (posts.isEmpty() && overlapping.isEmpty()) {
+                return;
+            }
+
+            for (Subscriber subscriber : tail.subscribers) {
+                List<Post> batch = new ArrayList<>();
+                collect(subscriber, overlapping, batch);
+                collect(subscriber, posts, batch);
+                if (!batch.isEmpty()) {
+                    enqueue(tail, subscriber, batch);
+                }
+            }
+
+            // Trang đầy: còn subscriber chưa bắt kịp, poll tiếp ngay
+            if (posts.size() == batchLimit) {
+                schedulePoll(tail);
+            }
+        }
+    }
+
+    // Các bài viết mới hơn cursor theo thứ tự (created_at, id) tăng dần, tối đa batch-limit bài
+    private List<Post> newerThan(PostFilter filter, PostCursor from) {
+        if (postShards == null) {
+            return postMapper.findWithFiltersPreviousPage(
+                    filter.getTitle(), filter.getCategory(), filter.getUserId(),
+                    filter.getStartDate(), filter.getEndDate(),
+                    from.getId(), from.getCreatedAt(), batchLimit, null);
+        }
+        return KeysetMerge.merge(postShards.query(filter.getUserId(), mapper -> mapper.findWithFiltersPreviousPage(
+                filter.getTitle(), filter.getCategory(), filter.getUserId(),
+                filter.getStartDate(), filter.getEndDate(),
+                from.getId(), from.getCreatedAt(), batchLimit, null)),
+                ShardedPostServiceImpl.OLDEST_FIRST, batchLimit);
+    }
+
+    // Thêm vào lô các bài viết subscriber chưa nhận: mới hơn watermark, hoặc commit muộn trong cửa sổ overlap
+    private void collect(Subscriber subscriber, List<Post> posts, List<Post> batch) {
+        for (Post post : posts) {
+            PostCursor cursor = PostCursor.of(post);
+            // Client đã có mọi bài viết tới cursor lúc kết nối
+            if (compare(cursor, subscriber.floor) <= 0) {
+                continue;
+            }
+            Long sentAt = subscriber.sent.get(post.getId());
+            if (sentAt != null && sentAt == cursor.getCreatedAtMillis()) {
+                continue;
+            }
+            if (compare(cursor, subscriber.watermark) <= 0) {
+                if (cursor.getCreatedAtMillis() < subscriber.watermark.getCreatedAtMillis() - overlapMillis) {
+                    continue;
+                }
+                lateDelivered.increment();
+            }
+            batch.add(post);
+            subscriber.sent.put(post.getId(), cursor.getCreatedAtMillis());
+        }
+    }
+
+    // Chuyển lô vào hàng đợi gửi của subscriber; watermark tiến ngay để lần poll sau không lấy lại
+    private void enqueue(Tail tail, Subscriber subscriber, List<Post> posts) {
+        PostCursor newest = subscriber.watermark;
+        for (Post post : posts) {
+            PostCursor cursor = PostCursor.of(post);
+            if (compare(cursor, newest) > 0) {
+                newest = cursor;
+            }
+        }
+        subscriber.watermark = newest;
+        // Chỉ giữ id đã gửi còn nằm trong cửa sổ overlap
+        long horizon = newest.getCreatedAtMillis() - overlapMillis;
+        subscriber.sent.values().removeIf(createdAt -> createdAt < horizon);
+
+        // id của sự kiện luôn là watermark để kết nối lại không lùi về bài viết commit muộn
+        offer(tail, subscriber, new Outgoing(SseEmitter.event()
+                .id(tail.codec.encode(newest))
+                .name("posts")
+                .data(posts, MediaType.APPLICATION_JSON), posts.size()));
+    }
+
+    private void heartbeat() {
+        for (Tail tail : tails.values()) {
+            for (Subscriber subscriber : tail.subscribers) {
+                offer(tail, subscriber, new Outgoing(SseEmitter.event().comment("heartbeat"), 0));
+            }
+        }
+    }
+
+    // Hàng đợi đầy: client không đọc kịp nên ngừng poll cho nó, luồng gửi sẽ đóng kết nối
+    private void offer(Tail tail, Subscriber subscriber, Outgoing outgoing) {
+        if (!subscriber.queue.offer(outgoing)) {
+            slowDisconnects.increment();
+            subscriber.overflowed = true;
+            unsubscribe(tail, subscriber);
+        }
+        scheduleDrain(tail, subscriber);
+    }
+
+    private void scheduleDrain(Tail tail, Subscriber subscriber) {
+        if (!subscriber.closed.get() && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(tail, subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    // Gửi lần lượt các lô đã xếp hàng, mỗi subscriber chỉ có một luồng gửi tại một thời điểm
+    private void drain(Tail tail, Subscriber subscriber) {
+        try {
+            Outgoing outgoing;
+            while (!subscriber.overflowed && (outgoing = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(outgoing.event);
+                    delivered.increment(outgoing.posts);
+                } catch (IOException | IllegalStateException e) {
+                    // Client đã ngắt kết nối
+                    close(tail, subscriber, e);
+                    return;
+                }
+            }
+            if (subscriber.overflowed) {
+                close(tail, subscriber, null);
+                return;
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Lô được thêm sau khi vòng lặp kết thúc nhưng trước khi bỏ cờ draining
+        if (!subscriber.queue.isEmpty()) {
+            scheduleDrain(tail, subscriber);
+        }
+    }
+
+    private void close(Tail tail, Subscriber subscriber, Exception error) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscriber.queue.clear();
+            if (error != null) {
+                subscriber.emitter.completeWithError(error);
+            } else {
+                subscriber.emitter.complete();
+            }
+        }
+        unsubscribe(tail, subscriber);
+    }
+
+    private void unsubscribe(Tail tail, Subscriber subscriber) {
+        if (tail.subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+        // Bỏ poller của bộ lọc khi không còn ai theo dõi
+        tails.computeIfPresent(tail.filter, (key, t) -> t.subscribers.isEmpty() ? null : t);
+    }
+
+    // Cursor của /api/posts không gắn bộ lọc, cursor của /api/posts/filter gắn với hash của bộ lọc
+    private CursorCodec<PostCursor> codecFor(PostFilter filter) {
+        return filter.isEmpty() ? cursorCodec : cursorCodec.scopedTo(filter.hashCode());
+    }
+
+    // So sánh theo (created_at, id)
+    private static int compare(PostCursor a, PostCursor b) {
+        int byTime = Long.compare(a.getCreatedAtMillis(), b.getCreatedAtMillis());
+        return byTime != 0 ? byTime : Long.compare(a.getId(), b.getId());
+    }
+
+    private static final class Tail {
+        private final PostFilter filter;
+        private final CursorCodec<PostCursor> codec;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        // Đã có một lần poll chờ chạy, tránh xếp hàng nhiều lần cho cùng bộ lọc
+        private final AtomicBoolean pending = new AtomicBoolean();
+        // Có PostsChangedEvent từ lần poll trước, lần poll sau đọc lại cửa sổ overlap
+        private final AtomicBoolean changed = new AtomicBoolean();
+        // Số lần poll liên tiếp không đọc lại cửa sổ overlap, chỉ dùng khi giữ khóa của Tail
+        private int idlePolls;
+
+        private Tail(PostFilter filter, CursorCodec<PostCursor> codec) {
+            this.filter = filter;
+            this.codec = codec;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // Cursor lúc kết nối: client đã có mọi bài viết tới đây
+        private final PostCursor floor;
+        // Bài viết mới nhất đã được xếp hàng gửi cho subscriber này
+        private volatile PostCursor watermark;
+        // id -> created_at của các bài viết đã gửi trong cửa sổ overlap, chỉ dùng khi giữ khóa của Tail
+        private final Map<Long, Long> sent = new HashMap<>();
+        private final BlockingQueue<Outgoing> queue;
+        // Đang có một luồng gửi cho subscriber này
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean overflowed;
+
+        private Subscriber(SseEmitter emitter, PostCursor watermark, int queueSize) {
+            this.emitter = emitter;
+            this.floor = watermark;
+            this.watermark = watermark;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+
+    // Một sự kiện chờ gửi kèm số bài viết trong đó
+    private static final class Outgoing {
+        private final SseEmitter.SseEventBuilder event;
+        private final int posts;
+
+        private Outgoing(SseEmitter.SseEventBuilder event, int posts) {
+            this.event = event;
+            this.posts = posts;
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Lập kế hoạch phân trang cho bảng posts được phân vùng theo tháng (RANGE COLUMNS(created_at),
+ * xem db/partitioning.sql).
+ *
+ * <p>Điều kiện seek "cũ hơn cursor" không có cận dưới nên MySQL phải mở index của mọi phân vùng.
+ * Planner chỉ truy vấn phân vùng chứa cursor (chọn rõ bằng {@code PARTITION (...)}), rồi lần lượt
+ * tràn sang phân vùng kế tiếp với LIMIT còn thiếu cho tới khi đủ trang. startDate/endDate được dùng
+ * để bỏ hẳn các phân vùng nằm ngoài khoảng. Trang sâu vì vậy thường chỉ chạm một hoặc hai phân vùng.
+ *
+ * <p>Danh sách phân vùng đọc từ information_schema và được làm mới định kỳ (phân vùng tháng mới
+ * được thêm bởi vận hành). Nếu bảng không được phân vùng, planner không hoạt động và service
+ * dùng các truy vấn thường.
+ */
+@Slf4j
+@Component
+public class PartitionPagePlanner {
+    private static final Pattern PARTITION_NAME = Pattern.compile("[A-Za-z0-9_]+");
+    private static final DateTimeFormatter BOUNDARY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd[ HH:mm:ss[.SSS]]");
+
+    private final PostMapper postMapper;
+    private final boolean enabled;
+    private final long refreshIntervalMillis;
+    private final DistributionSummary partitionsScanned;
+
+    private volatile List<Partition> partitions = Collections.emptyList();
+    private volatile long loadedAt;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public PartitionPagePlanner(
+            PostMapper postMapper,
+            MeterRegistry meterRegistry,
+            @Value("${pagination.partitioning.enabled:false}") boolean enabled,
+            @Value("${pagination.partitioning.refresh-interval:10m}") Duration refreshInterval) {
+        this.postMapper = postMapper;
+        this.enabled = enabled;
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+        this.partitionsScanned = DistributionSummary.builder("pagination.partitions.scanned")
+                .description("Số phân vùng được truy vấn cho mỗi trang")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Planner có được dùng không: bật qua cấu hình và bảng posts thực sự được phân vùng.
+     */
+    public boolean isActive() {
+        return enabled && !partitions().isEmpty();
+    }
+
+    /**
+     * Lấy tối đa limit bài viết cũ hơn cursor (hoặc mới nhất nếu cursor null) theo thứ tự
+     * (created_at DESC, id DESC), đi từ phân vùng chứa cursor về các phân vùng cũ hơn.
+     */
+    public List<Post> older(PostFilter filter, PostCursor cursor, int limit, Set<String> fields) {
+        List<Partition> all = partitions();
+        Date upper = earliest(cursor != null ? cursor.getCreatedAt() : null, filter.getEndDate());
+        Date lower = filter.getStartDate();
+
+        List<Post> result = new ArrayList<>(limit);
+        int scanned = 0;
+        for (int i = indexOf(all, upper); i >= 0 && result.size() < limit; i--) {
+            Partition partition = all.get(i);
+            // Cả phân vùng cũ hơn startDate thì các phân vùng trước nó cũng vậy
+            if (lower != null && partition.upperExclusive != null && !partition.upperExclusive.after(lower)) {
+                break;
+            }
+            result.addAll(postMapper.findInPartitionOlder(partition.name,
+                    filter.getTitle(), filter.getCategory(), filter.getUserId(),
+                    filter.getStartDate(), filter.getEndDate(),
+                    cursor != null ? cursor.getId() : null, cursor != null ? cursor.getCreatedAt() : null,
+                    limit - result.size(), fields));
+            scanned++;
+        }
+        partitionsScanned.record(scanned);
+        return result;
+    }
+
+    /**
+     * Lấy tối đa limit bài viết mới hơn cursor theo thứ tự (created_at ASC, id ASC),
+     * đi từ phân vùng chứa cursor về các phân vùng mới hơn (dùng cho trang trước đó).
+     */
+    public List<Post> newer(PostFilter filter, PostCursor cursor, int limit, Set<String> fields) {
+        List<Partition> all = partitions();
+        Date lower = latest(cursor.getCreatedAt(), filter.getStartDate());
+        Date upper = filter.getEndDate();
+
+        List<Post> result = new ArrayList<>(limit);
+        int scanned = 0;
+        for (int i = indexOf(all, lower); i < all.size() && result.size() < limit; i++) {
+            Partition partition = all.get(i);
+            // Cả phân vùng mới hơn endDate thì các phân vùng sau nó cũng vậy
+            if (upper != null && partition.lowerInclusive != null && partition.lowerInclusive.after(upper)) {
+                break;
+            }
+            result.addAll(postMapper.findInPartitionNewer(partition.name,
+                    filter.getTitle(), filter.getCategory(), filter.getUserId(),
+                    filter.getStartDate(), filter.getEndDate(),
+                    cursor.getId(), cursor.getCreatedAt(),
+                    limit - result.size(), fields));
+            scanned++;
+        }
+        partitionsScanned.record(scanned);
+        return result;
+    }
+
+    // Vị trí của phân vùng chứa thời điểm, null = phân vùng mới nhất
+    private static int indexOf(List<Partition> all, Date at) {
+        if (at == null) {
+            return all.size() - 1;
+        }
+        for (int i = 0; i < all.size(); i++) {
+            Partition partition = all.get(i);
+            if (partition.upperExclusive == null || at.before(partition.upperExclusive)) {
+                return i;
+            }
+        }
+        // Mới hơn mọi phân vùng có cận trên (không có phân vùng MAXVALUE)
+        return all.size() - 1;
+    }
+
+    private List<Partition> partitions() {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        long now = System.currentTimeMillis();
+        if (now - loadedAt > refreshIntervalMillis) {
+            // Dùng lock thay cho synchronized để virtual thread chờ truy vấn không chiếm carrier thread
+            refreshLock.lock();
+            try {
+                if (now - loadedAt > refreshIntervalMillis) {
+                    partitions = loadPartitions();
+                    loadedAt = now;
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return partitions;
+    }
+
+    private List<Partition> loadPartitions() {
+        List<Partition> loaded = new ArrayList<>();
+        Date lowerInclusive = null;
+        try {
+            for (Map<String, Object> row : postMapper.findPartitions()) {
+                String name = String.valueOf(row.get("name"));
+                if (!PARTITION_NAME.matcher(name).matches()) {
+                    log.warn("Bỏ qua phân vùng có tên không hợp lệ: {}", name);
+                    return Collections.emptyList();
+                }
+                Date upperExclusive = parseBoundary(String.valueOf(row.get("description")));
+                loaded.add(new Partition(name, lowerInclusive, upperExclusive));
+                lowerInclusive = upperExclusive;
+            }
+        } catch (RuntimeException e) {
+            // Ví dụ phân vùng theo biểu thức (TO_DAYS...) thay vì RANGE COLUMNS(created_at)
+            log.warn("Không đọc được danh sách phân vùng của posts, dùng truy vấn thường: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+        log.info("Đã nạp {} phân vùng của bảng posts", loaded.size());
+        return Collections.unmodifiableList(loaded);
+    }
+
+    // PARTITION_DESCRIPTION của RANGE COLUMNS có dạng '2024-02-01 00:00:00' hoặc MAXVALUE
+    private static Date parseBoundary(String description) {
+        String value = description.trim();
+        if (value.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        if (value.startsWith("'") && value.endsWith("'")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        if (value.length() == 10) {
+            value = value + " 00:00:00";
+        }
+        return Timestamp.valueOf(LocalDateTime.parse(value, BOUNDARY_FORMAT));
+    }
+
+    private static Date earliest(Date a, Date b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.before(b) ? a : b;
+    }
+
+    private static Date latest(Date a, Date b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.after(b) ? a : b;
+    }
+
+    /**
+     * Một phân vùng: [lowerInclusive, upperExclusive), null = không giới hạn.
+     */
+    private static final class Partition {
+        private final String name;
+        private final Date lowerInclusive;
+        private final Date upperExclusive;
+
+        private Partition(String name, Date lowerInclusive, Date upperExclusive) {
+            this.name = name;
+            this.lowerInclusive = lowerInclusive;
+            this.upperExclusive = upperExclusive;
+        }
+    }
+}
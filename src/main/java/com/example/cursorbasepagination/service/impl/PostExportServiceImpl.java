@@ -0,0 +1,309 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.config.ResponseFormats;
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dao.PostShards;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.service.PostExportService;
+import com.example.cursorbasepagination.util.KeysetMerge;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class PostExportServiceImpl implements PostExportService {
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    // Chỉ có khi phân mảnh: export đi qua các shard theo từng lô thay vì một cursor database
+    @Autowired(required = false)
+    private PostShards postShards;
+
+    @Autowired
+    private ResponseFormats responseFormats;
+
+    // Số dòng giữa hai checkpoint
+    @Value("${pagination.export.checkpoint-interval:10000}")
+    private int checkpointInterval;
+
+    // Số dòng mỗi lô khi export trên các shard
+    @Value("${pagination.export.shard-batch-size:1000}")
+    private int shardBatchSize;
+
+    @Autowired
+    private CursorCodec<PostCursor> cursorCodec;
+
+    @Override
+    public PostCursor decodeCheckpoint(PostFilter filter, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        PostCursor resumeFrom;
+        try {
+            resumeFrom = cursorCodec.scopedTo(filter.hashCode()).decode(cursor);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ", e);
+        }
+        // Cursor của bộ lọc khác được giải mã thành null: export lại từ đầu sẽ làm trùng dữ liệu
+        if (resumeFrom == null) {
+            throw new IllegalArgumentException("Cursor không thuộc về bộ lọc này");
+        }
+        return resumeFrom;
+    }
+
+    @Override
+    public void export(PostFilter filter, PostCursor resumeFrom, Set<String> fields, ExportFormat format,
+                       OutputStream out) throws IOException {
+        if (postShards != null) {
+            write(() -> new ShardedRows(filter, resumeFrom, fields), filter, fields, format, out);
+            return;
+        }
+
+        // StreamingResponseBody chạy ngoài transaction của request nên tự mở SqlSession để giữ cursor
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<Post> posts = session.getMapper(PostMapper.class).streamWithFilters(
+                     filter.getTitle(), filter.getCategory(), filter.getUserId(),
+                     filter.getStartDate(), filter.getEndDate(),
+                     resumeFrom != null ? resumeFrom.getId() : null,
+                     resumeFrom != null ? resumeFrom.getCreatedAt() : null,
+                     fields)) {
+            write(posts, filter, fields, format, out);
+        }
+    }
+
+    private void write(Iterable<Post> posts, PostFilter filter, Set<String> fields, ExportFormat format,
+                       OutputStream out) throws IOException {
+        // Checkpoint gắn với bộ lọc, nên cũng dùng được làm cursor cho /api/posts/filter
+        CursorCodec<PostCursor> filterCursorCodec = cursorCodec.scopedTo(filter.hashCode());
+
+        RowWriter writer = format == ExportFormat.CSV
+                ? new CsvRowWriter(out, fields)
+                // Export đã chọn trường không ghi các trường null
+                : new NdjsonRowWriter(out, responseFormats.mapper(ResponseFormats.Format.JSON, fields != null));
+
+        long count = 0;
+        Post last = null;
+        for (Post post : posts) {
+            writer.write(post);
+            last = post;
+            if (++count % checkpointInterval == 0) {
+                writer.checkpoint(filterCursorCodec.encode(PostCursor.of(last)));
+            }
+        }
+        // Checkpoint cuối cùng để client biết export đã hoàn tất tới đâu
+        if (last != null && count % checkpointInterval != 0) {
+            writer.checkpoint(filterCursorCodec.encode(PostCursor.of(last)));
+        }
+        writer.finish();
+        log.debug("Đã export {} bài viết với {}", count, filter);
+    }
+
+    /**
+     * Đọc các bài viết theo (created_at, id) giảm dần trên các shard: mỗi lô là một trang keyset được trộn từ
+     * các shard liên quan, lô sau tiếp tục từ bài viết cuối của lô trước nên không giữ kết nối giữa các lô.
+     */
+    private final class ShardedRows implements Iterator<Post> {
+        private final PostFilter filter;
+        private final Set<String> fields;
+        private PostCursor position;
+        private Iterator<Post> batch;
+        private boolean exhausted;
+
+        private ShardedRows(PostFilter filter, PostCursor resumeFrom, Set<String> fields) {
+            this.filter = filter;
+            this.fields = fields;
+            this.position = resumeFrom;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if ((batch == null || !batch.hasNext()) && !exhausted) {
+                List<Post> rows = nextBatch();
+                // Lô thiếu nghĩa là đã hết dữ liệu trên mọi shard
+                exhausted = rows.size() < shardBatchSize;
+                if (!rows.isEmpty()) {
+                    position = PostCursor.of(rows.get(rows.size() - 1));
+                }
+                batch = rows.iterator();
+            }
+            return batch.hasNext();
+        }
+
+        @Override
+        public Post next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.next();
+        }
+
+        private List<Post> nextBatch() {
+            PostCursor from = position;
+            Long userId = filter.getUserId();
+            List<List<Post>> pages = from == null
+                    ? postShards.query(userId, mapper -> mapper.findWithFiltersFirstPage(
+                            filter.getTitle(), filter.getCategory(), userId, filter.getStartDate(),
+                            filter.getEndDate(), shardBatchSize, fields))
+                    : postShards.query(userId, mapper -> mapper.findWithFiltersNextPage(
+                            filter.getTitle(), filter.getCategory(), userId, filter.getStartDate(),
+                            filter.getEndDate(), from.getId(), from.getCreatedAt(), shardBatchSize, fields));
+            return KeysetMerge.merge(pages, ShardedPostServiceImpl.NEWEST_FIRST, shardBatchSize);
+        }
+    }
+
+    /**
+     * Ghi từng dòng kết quả theo một định dạng cụ thể.
+     */
+    private interface RowWriter {
+        void write(Post post) throws IOException;
+
+        // Ghi checkpoint và đẩy dữ liệu đã đệm tới client
+        void checkpoint(String cursor) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Mỗi bài viết là một dòng JSON; checkpoint là dòng {"checkpoint": "..."}.
+     */
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+
+        private NdjsonRowWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Tự ghi xuống dòng thay cho dấu cách mặc định giữa các giá trị gốc
+            this.generator.setRootValueSeparator(null);
+            // Không flush sau mỗi dòng, chỉ flush tại checkpoint
+            this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void write(Post post) throws IOException {
+            writer.writeValue(generator, post);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void checkpoint(String cursor) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("checkpoint", cursor);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * CSV có dòng tiêu đề theo các trường được chọn; checkpoint là dòng chú thích "# checkpoint=...".
+     */
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final boolean userId;
+        private final boolean category;
+        private final boolean title;
+        private final boolean content;
+
+        private CsvRowWriter(OutputStream out, Set<String> fields) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.userId = fields == null || fields.contains("userId");
+            this.category = fields == null || fields.contains("category");
+            this.title = fields == null || fields.contains("title");
+            this.content = fields == null || fields.contains("content");
+
+            // id và created_at luôn có, các cột còn lại theo fields với thứ tự cố định
+            StringBuilder header = new StringBuilder("id,created_at");
+            if (userId) {
+                header.append(",user_id");
+            }
+            if (category) {
+                header.append(",category");
+            }
+            if (title) {
+                header.append(",title");
+            }
+            if (content) {
+                header.append(",content");
+            }
+            this.writer.write(header.append('\n').toString());
+        }
+
+        @Override
+        public void write(Post post) throws IOException {
+            writer.write(String.valueOf(post.getId()));
+            writer.write(',');
+            writer.write(post.getCreatedAt().toInstant().toString());
+            if (userId) {
+                writer.write(',');
+                writer.write(post.getUserId() != null ? String.valueOf(post.getUserId()) : "");
+            }
+            if (category) {
+                writer.write(',');
+                writeField(post.getCategory());
+            }
+            if (title) {
+                writer.write(',');
+                writeField(post.getTitle());
+            }
+            if (content) {
+                writer.write(',');
+                writeField(post.getContent());
+            }
+            writer.write('\n');
+        }
+
+        // Đặt trường trong dấu nháy kép nếu chứa ký tự đặc biệt của CSV
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void checkpoint(String cursor) throws IOException {
+            writer.write("# checkpoint=");
+            writer.write(cursor);
+            writer.write('\n');
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dao.PostShards;
+import com.example.cursorbasepagination.dto.response.IngestResult;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.example.cursorbasepagination.service.PostIngestService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thêm bài viết hàng loạt cho /api/posts/bulk.
+ *
+ * <p>Body được đọc từng phần tử và gom thành nhóm {@code batch-size * statements-per-transaction} bài viết.
+ * Mỗi nhóm được ghi trong một transaction: các câu INSERT nhiều dòng ({@code batch-size} dòng mỗi câu)
+ * được gửi cùng nhau qua JDBC batch (executor BATCH của MyBatis). Nếu nhóm lỗi, transaction bị hoàn tác
+ * và nhóm được ghi lại từng dòng để chỉ báo lỗi cho đúng các phần tử hỏng.
+ *
+ * <p>Backpressure: chỉ một nhóm được giữ trong bộ nhớ và body không được đọc tiếp khi nhóm chưa ghi xong,
+ * nên client gửi nhanh hơn database sẽ bị TCP chặn lại. Số request chạy đồng thời bị giới hạn bởi
+ * {@code max-concurrent-requests}; vượt quá thì request bị từ chối.
+ *
+ * <p>Khi bật phân mảnh, mỗi nhóm được chia theo shard của user_id; mỗi câu INSERT nhiều dòng chạy trên shard
+ * của nó và tự commit (không có transaction chung giữa các shard). Câu lệnh lỗi được hoàn tác nguyên câu bởi
+ * InnoDB nên được ghi lại từng dòng như trên.
+ *
+ * <p>Sau mỗi nhóm đã commit, một {@link PostsChangedEvent} với các category/userId của nhóm được phát ra
+ * để các cache phía đọc vô hiệu hóa đúng các mục bị ảnh hưởng.
+ */
+@Slf4j
+@Service
+public class PostIngestServiceImpl implements PostIngestService {
+    // Giới hạn độ dài theo schema của bảng posts
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_CATEGORY_LENGTH = 64;
+
+    private final PostMapper postMapper;
+    private final SqlSessionTemplate batchSession;
+    private final PostMapper batchMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader postReader;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+    private final int statementsPerTransaction;
+    private final Duration acquireTimeout;
+    private final int maxReportedFailures;
+    // null khi không phân mảnh
+    private final PostShards postShards;
+    private final Semaphore permits;
+
+    private final Counter insertedRows;
+    private final Counter failedRows;
+    private final Counter rejectedRequests;
+
+    public PostIngestServiceImpl(
+            PostMapper postMapper,
+            SqlSessionFactory sqlSessionFactory,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${pagination.ingest.batch-size:1000}") int batchSize,
+            @Value("${pagination.ingest.statements-per-transaction:10}") int statementsPerTransaction,
+            @Value("${pagination.ingest.max-concurrent-requests:4}") int maxConcurrentRequests,
+            @Value("${pagination.ingest.acquire-timeout:1s}") Duration acquireTimeout,
+            @Value("${pagination.ingest.max-reported-failures:100}") int maxReportedFailures,
+            ObjectProvider<PostShards> postShards) {
+        this.postMapper = postMapper;
+        this.batchSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        this.batchMapper = batchSession.getMapper(PostMapper.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postReader = objectMapper.readerFor(Post.class);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(1, batchSize);
+        this.statementsPerTransaction = Math.max(1, statementsPerTransaction);
+        this.acquireTimeout = acquireTimeout;
+        this.maxReportedFailures = maxReportedFailures;
+        this.postShards = postShards.getIfAvailable();
+        this.permits = new Semaphore(Math.max(1, maxConcurrentRequests));
+
+        this.insertedRows = meterRegistry.counter("pagination.ingest.rows", "result", "inserted");
+        this.failedRows = meterRegistry.counter("pagination.ingest.rows", "result", "failed");
+        this.rejectedRequests = meterRegistry.counter("pagination.ingest.rejected");
+    }
+
+    @Override
+    public IngestResult ingest(InputStream in) throws IOException {
+        if (!tryAcquire()) {
+            rejectedRequests.increment();
+            throw new RejectedExecutionException("Đã đủ số request thêm hàng loạt đồng thời");
+        }
+        try {
+            return readAndInsert(in);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private IngestResult readAndInsert(InputStream in) throws IOException {
+        IngestResult result = new IngestResult();
+        int groupSize = batchSize * statementsPerTransaction;
+        List<Post> group = new ArrayList<>(groupSize);
+        List<Long> groupIndexes = new ArrayList<>(groupSize);
+        long index = 0;
+
+        // readValues đọc được cả mảng JSON ở gốc lẫn các object nối tiếp nhau (NDJSON)
+        try (MappingIterator<Post> posts = postReader.readValues(in)) {
+            while (true) {
+                Post post;
+                try {
+                    if (!posts.hasNextValue()) {
+                        break;
+                    }
+                    post = posts.nextValue();
+                } catch (JsonMappingException e) {
+                    // Sai kiểu dữ liệu: iterator đã bỏ qua phần tử hỏng nên đọc tiếp được
+                    fail(result, index++, "Phần tử không hợp lệ: " + e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // JSON sai cú pháp: không xác định được phần tử kế tiếp nên dừng tại đây
+                    fail(result, index++, "JSON không hợp lệ: " + e.getOriginalMessage());
+                    result.setAborted(true);
+                    break;
+                }
+
+                String error = validate(post);
+                if (error != null) {
+                    fail(result, index++, error);
+                    continue;
+                }
+                post.setId(null);
+                if (post.getCreatedAt() == null) {
+                    post.setCreatedAt(new Date());
+                }
+                group.add(post);
+                groupIndexes.add(index++);
+
+                if (group.size() == groupSize) {
+                    insertGroup(group, groupIndexes, result);
+                    group.clear();
+                    groupIndexes.clear();
+                }
+            }
+        }
+        if (!group.isEmpty()) {
+            insertGroup(group, groupIndexes, result);
+        }
+
+        result.setReceived(index);
+        log.debug("Thêm hàng loạt: nhận {}, thêm {}, lỗi {}", index, result.getInserted(), result.getFailed());
+        return result;
+    }
+
+    // Ghi một nhóm trong một transaction, nếu lỗi thì ghi lại từng dòng để tìm phần tử hỏng
+    private void insertGroup(List<Post> group, List<Long> groupIndexes, IngestResult result) {
+        long inserted;
+        if (postShards != null) {
+            inserted = insertSharded(group, groupIndexes, result);
+        } else {
+            try {
+                inserted = transactionTemplate.execute(status -> {
+                    for (int from = 0; from < group.size(); from += batchSize) {
+                        batchMapper.insertBatch(group.subList(from, Math.min(from + batchSize, group.size())));
+                    }
+                    // Gửi JDBC batch ngay trong transaction để lỗi được ném ra tại đây
+                    batchSession.flushStatements();
+                    return (long) group.size();
+                });
+            } catch (RuntimeException e) {
+                log.warn("Nhóm {} bài viết bị lỗi, ghi lại từng dòng: {}", group.size(),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                inserted = insertOneByOne(postMapper, group, groupIndexes, result);
+            }
+        }
+
+        result.setInserted(result.getInserted() + inserted);
+        insertedRows.increment(inserted);
+        if (inserted > 0) {
+            eventPublisher.publishEvent(changedEvent(group));
+        }
+    }
+
+    // Chia nhóm theo shard của user_id, mỗi câu INSERT nhiều dòng chạy và commit trên shard của nó
+    private long insertSharded(List<Post> group, List<Long> groupIndexes, IngestResult result) {
+        Map<Integer, List<Post>> postsByShard = new TreeMap<>();
+        Map<Integer, List<Long>> indexesByShard = new HashMap<>();
+        for (int i = 0; i < group.size(); i++) {
+            int shard = postShards.route(group.get(i).getUserId());
+            postsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(group.get(i));
+            indexesByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(groupIndexes.get(i));
+        }
+
+        long inserted = 0;
+        for (Map.Entry<Integer, List<Post>> entry : postsByShard.entrySet()) {
+            List<Post> posts = entry.getValue();
+            List<Long> indexes = indexesByShard.get(entry.getKey());
+            PostMapper mapper = postShards.mapper(posts.get(0).getUserId());
+            for (int from = 0; from < posts.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, posts.size());
+                try {
+                    inserted += mapper.insertBatch(posts.subList(from, to));
+                } catch (RuntimeException e) {
+                    log.warn("Lô {} bài viết trên shard {} bị lỗi, ghi lại từng dòng: {}", to - from,
+                            entry.getKey(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                    inserted += insertOneByOne(mapper, posts.subList(from, to), indexes.subList(from, to), result);
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private long insertOneByOne(PostMapper mapper, List<Post> group, List<Long> groupIndexes, IngestResult result) {
+        long inserted = 0;
+        for (int i = 0; i < group.size(); i++) {
+            try {
+                inserted += mapper.insertBatch(List.of(group.get(i)));
+            } catch (RuntimeException e) {
+                fail(result, groupIndexes.get(i), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+        return inserted;
+    }
+
+    // Sự kiện chứa mọi category/userId của nhóm (nhiều hơn các dòng thực sự được thêm cũng vẫn đúng)
+    private static PostsChangedEvent changedEvent(List<Post> group) {
+        Set<String> categories = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (Post post : group) {
+            if (post.getCategory() != null) {
+                categories.add(post.getCategory());
+            }
+            userIds.add(post.getUserId());
+        }
+        return PostsChangedEvent.inserted(categories, userIds);
+    }
+
+    // Trả về thông báo lỗi, hoặc null nếu bài viết hợp lệ
+    static String validate(Post post) {
+        if (post == null) {
+            return "Phần tử không được là null";
+        }
+        if (post.getTitle() == null || post.getTitle().isBlank()) {
+            return "title không được rỗng";
+        }
+        if (post.getTitle().length() > MAX_TITLE_LENGTH) {
+            return "title dài quá " + MAX_TITLE_LENGTH + " ký tự";
+        }
+        if (post.getUserId() == null) {
+            return "userId là bắt buộc";
+        }
+        if (post.getCategory() != null && post.getCategory().length() > MAX_CATEGORY_LENGTH) {
+            return "category dài quá " + MAX_CATEGORY_LENGTH + " ký tự";
+        }
+        return null;
+    }
+
+    private void fail(IngestResult result, long index, String message) {
+        result.setFailed(result.getFailed() + 1);
+        failedRows.increment();
+        if (result.getFailures().size() < maxReportedFailures) {
+            result.getFailures().add(new IngestResult.Failure(index, message));
+        } else {
+            result.setFailuresTruncated(true);
+        }
+    }
+
+    private boolean tryAcquire() {
+        try {
+            return permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,11 +1,27 @@
 package com.example.cursorbasepagination.service.impl;
 
+import com.example.cursorbasepagination.cache.CountEstimateCache;
+import com.example.cursorbasepagination.cache.FirstPageCache;
+import com.example.cursorbasepagination.cache.NextPagePrefetcher;
+import com.example.cursorbasepagination.cache.PageRequestCoalescer;
+import com.example.cursorbasepagination.cache.PostRowCache;
 import com.example.cursorbasepagination.dao.PostMapper;
 import com.example.cursorbasepagination.dto.request.CursorPageRequest;
+import com.example.cursorbasepagination.dto.request.FeedQuery;
+import com.example.cursorbasepagination.dto.request.FeedRequest;
+import com.example.cursorbasepagination.dto.request.PostFilter;
 import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.FeedPost;
 import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.entity.ScoredPost;
+import com.example.cursorbasepagination.monitoring.PaginationMetrics;
 import com.example.cursorbasepagination.service.PostService;
 import com.example.cursorbasepagination.util.CursorUtils;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.example.cursorbasepagination.util.cursor.SearchCursor;
+import com.example.cursorbasepagination.util.keyset.KeysetCursor;
+import com.example.cursorbasepagination.util.keyset.SortSpec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -19,53 +35,91 @@ public class PostServiceImpl implements PostService {
     @Autowired
     private PostMapper postMapper;
 
-    // Định nghĩa hàm extractor để lấy các trường cần thiết từ Post entity
-    private Function<Post, Map<String, Object>> cursorFieldsExtractor = post -> {
-        Map<String, Object> cursorFields = new HashMap<>();
-        cursorFields.put("id", post.getId());
-        cursorFields.put("createdAt", post.getCreatedAt());
-        return cursorFields;
-    };
+    @Autowired
+    private FirstPageCache firstPageCache;
+
+    @Autowired
+    private NextPagePrefetcher nextPagePrefetcher;
+
+    @Autowired
+    private PageRequestCoalescer pageRequestCoalescer;
+
+    @Autowired
+    private PostRowCache postRowCache;
+
+    @Autowired
+    private CountEstimateCache countEstimateCache;
+
+    @Autowired
+    private PartitionPagePlanner partitionPagePlanner;
+
+    @Autowired
+    private PaginationMetrics paginationMetrics;
+
+    // Codec mã hóa cursor dạng nhị phân (vẫn đọc được cursor JSON cũ)
+    @Autowired
+    private CursorCodec<PostCursor> cursorCodec;
+
+    @Autowired
+    private CursorCodec<SearchCursor> searchCursorCodec;
+
+    @Autowired
+    private CursorCodec<KeysetCursor> keysetCursorCodec;
 
     @Override
     public CursorPageResponse<Post> getPosts(CursorPageRequest pageRequest) {
         // Xử lý input và tạo limit với +1 để kiểm tra trang tiếp theo
         int limit = (pageRequest.getLimit() != null && pageRequest.getLimit() > 0)
                 ? pageRequest.getLimit() + 1 : 11;
+        Set<String> fields = pageRequest.getFields();
+        PostFilter filter = PostFilter.none();
+        applyStartPosition(pageRequest, cursorCodec);
 
-        // Giải mã cursor nếu có
-        Long cursorId = null;
-        Date cursorCreatedAt = null;
+        // Deferred join: truy vấn trang chỉ lấy (id, created_at), các trường còn lại được điền sau
+        Set<String> pageFields = postRowCache.isEnabled() ? Collections.emptySet() : fields;
 
-        if (pageRequest.getCursor() != null) {
-            CursorUtils<Post> cursorUtils = new CursorUtils<>();
-            Map<String, Function<Object, Object>> transformers = CursorUtils.createDateTransformers("createdAt");
-            Map<String, Object> cursorData = cursorUtils.decodeCursor(pageRequest.getCursor(), transformers);
+        // Bảng phân vùng theo tháng: chỉ truy vấn các phân vùng cần thiết
+        boolean partitioned = partitionPagePlanner.isActive();
+        Supplier<List<Post>> firstPage = hydrated(partitioned
+                ? () -> partitionPagePlanner.older(filter, null, limit, pageFields)
+                : () -> postMapper.findFirstPage(limit, pageFields), fields);
+        Function<PostCursor, List<Post>> nextPage = hydrated(partitioned
+                ? cursor -> partitionPagePlanner.older(filter, cursor, limit, pageFields)
+                : cursor -> postMapper.findNextPage(cursor.getId(), cursor.getCreatedAt(), limit, pageFields), fields);
+        Function<PostCursor, List<Post>> previousPage = hydrated(partitioned
+                ? cursor -> partitionPagePlanner.newer(filter, cursor, limit, pageFields)
+                : cursor -> postMapper.findPreviousPage(cursor.getId(), cursor.getCreatedAt(), limit, pageFields),
+                fields);
 
-            if (cursorData != null) {
-                cursorId = ((Number) cursorData.get("id")).longValue();
-                cursorCreatedAt = (Date) cursorData.get("createdAt");
-            }
-        }
-
-        // Tạo các suppliers cho từng loại truy vấn
-        final Long finalCursorId = cursorId;
-        final Date finalCursorCreatedAt = cursorCreatedAt;
-        final int finalLimit = limit;
-
-        return CursorUtils.handlePagination(
+        Supplier<CursorPageResponse<Post>> query = () -> CursorUtils.handlePagination(
                 pageRequest,
+                cursorCodec,
                 // First page supplier
-                () -> postMapper.findFirstPage(finalLimit),
-                // Next page supplier
-                () -> postMapper.findNextPage(finalCursorId, finalCursorCreatedAt, finalLimit),
-                // Previous page supplier
-                () -> postMapper.findPreviousPage(finalCursorId, finalCursorCreatedAt, finalLimit),
-                // Check has previous supplier
-                () -> postMapper.checkHasPrevious(finalCursorId, finalCursorCreatedAt),
-                // Cursor fields extractor
-                cursorFieldsExtractor
+                firstPage,
+                // Next page query (ưu tiên trang đã được tải trước)
+                cursor -> nextPagePrefetcher.fetch(NextPagePrefetcher.key(filter, limit, fields, cursor),
+                        () -> nextPage.apply(cursor)),
+                // Previous page query
+                previousPage,
+                // Check has previous query
+                cursor -> postMapper.checkHasPrevious(cursor.getId(), cursor.getCreatedAt()),
+                // Check has next query
+                cursor -> postMapper.checkHasNext(cursor.getId(), cursor.getCreatedAt()),
+                // Cursor extractor
+                PostCursor::of
         );
+
+        // Các request giống hệt đang chạy đồng thời dùng chung một truy vấn
+        PageRequestCoalescer.Key coalesceKey = PageRequestCoalescer.key(filter, pageRequest, limit, fields);
+        Supplier<CursorPageResponse<Post>> coalesced = () -> pageRequestCoalescer.execute(coalesceKey, query);
+
+        // Trang đầu tiên được phục vụ từ cache
+        CursorPageResponse<Post> response = pageRequest.isFirstPage()
+                ? firstPageCache.get(filter, limit, fields, coalesced)
+                : coalesced.get();
+        prefetchNextPage(pageRequest, response, filter, limit, fields, nextPage);
+        paginationMetrics.recordPage("posts", limit - 1, response.getItems().size());
+        return withTotalEstimate(response, filter);
     }
 
     @Override
@@ -74,42 +128,333 @@ public class PostServiceImpl implements PostService {
         // Xử lý input và tạo limit với +1 để kiểm tra trang tiếp theo
         int limit = (pageRequest.getLimit() != null && pageRequest.getLimit() > 0)
                 ? pageRequest.getLimit() + 1 : 11;
+        Set<String> fields = pageRequest.getFields();
+
+        // Chuẩn hóa bộ lọc để truy vấn và khóa cache dùng cùng một giá trị
+        PostFilter filter = PostFilter.of(title, category, userId, startDate, endDate);
+
+        // Cursor gắn với bộ lọc hiện tại để không bị dùng nhầm cho bộ lọc khác
+        CursorCodec<PostCursor> filterCursorCodec = cursorCodec.scopedTo(filter.hashCode());
+        applyStartPosition(pageRequest, filterCursorCodec);
+
+        // Deferred join: truy vấn trang chỉ lấy (id, created_at) trên index phủ của bộ lọc,
+        // các trường còn lại được điền từ PostRowCache
+        Set<String> pageFields = postRowCache.isEnabled() ? Collections.emptySet() : fields;
+
+        // Bảng phân vùng theo tháng: chỉ truy vấn các phân vùng cần thiết, startDate/endDate loại bỏ phân vùng
+        boolean partitioned = partitionPagePlanner.isActive();
+        Supplier<List<Post>> firstPage = hydrated(partitioned
+                ? () -> partitionPagePlanner.older(filter, null, limit, pageFields)
+                : () -> postMapper.findWithFiltersFirstPage(filter.getTitle(), filter.getCategory(),
+                        filter.getUserId(), filter.getStartDate(), filter.getEndDate(), limit, pageFields), fields);
+        Function<PostCursor, List<Post>> nextPage = hydrated(partitioned
+                ? cursor -> partitionPagePlanner.older(filter, cursor, limit, pageFields)
+                : cursor -> postMapper.findWithFiltersNextPage(filter.getTitle(), filter.getCategory(),
+                        filter.getUserId(), filter.getStartDate(), filter.getEndDate(),
+                        cursor.getId(), cursor.getCreatedAt(), limit, pageFields), fields);
+        Function<PostCursor, List<Post>> previousPage = hydrated(partitioned
+                ? cursor -> partitionPagePlanner.newer(filter, cursor, limit, pageFields)
+                : cursor -> postMapper.findWithFiltersPreviousPage(filter.getTitle(), filter.getCategory(),
+                        filter.getUserId(), filter.getStartDate(), filter.getEndDate(),
+                        cursor.getId(), cursor.getCreatedAt(), limit, pageFields), fields);
+
+        Supplier<CursorPageResponse<Post>> query = () -> CursorUtils.handlePagination(
+                pageRequest,
+                filterCursorCodec,
+                // First page supplier
+                firstPage,
+                // Next page query (ưu tiên trang đã được tải trước)
+                cursor -> nextPagePrefetcher.fetch(NextPagePrefetcher.key(filter, limit, fields, cursor),
+                        () -> nextPage.apply(cursor)),
+                // Previous page query
+                previousPage,
+                // Check has previous query
+                cursor -> postMapper.checkHasPreviousFilters(filter.getTitle(), filter.getCategory(),
+                        filter.getUserId(), filter.getStartDate(), filter.getEndDate(),
+                        cursor.getId(), cursor.getCreatedAt()),
+                // Check has next query
+                cursor -> postMapper.checkHasNextFilters(filter.getTitle(), filter.getCategory(),
+                        filter.getUserId(), filter.getStartDate(), filter.getEndDate(),
+                        cursor.getId(), cursor.getCreatedAt()),
+                // Cursor extractor
+                PostCursor::of
+        );
+
+        // Các request giống hệt đang chạy đồng thời dùng chung một truy vấn
+        PageRequestCoalescer.Key coalesceKey = PageRequestCoalescer.key(filter, pageRequest, limit, fields);
+        Supplier<CursorPageResponse<Post>> coalesced = () -> pageRequestCoalescer.execute(coalesceKey, query);
+
+        // Trang đầu tiên được phục vụ từ cache
+        CursorPageResponse<Post> response = pageRequest.isFirstPage()
+                ? firstPageCache.get(filter, limit, fields, coalesced)
+                : coalesced.get();
+        prefetchNextPage(pageRequest, response, filter, limit, fields, nextPage);
+        paginationMetrics.recordPage("filter", limit - 1, response.getItems().size());
+        return withTotalEstimate(response, filter);
+    }
+
+    @Override
+    public CursorPageResponse<Post> getPostsSorted(SortSpec<Post> sort, CursorPageRequest pageRequest) {
+        // Xử lý input và tạo limit với +1 để kiểm tra trang tiếp theo
+        int limit = (pageRequest.getLimit() != null && pageRequest.getLimit() > 0)
+                ? pageRequest.getLimit() + 1 : 11;
+        Set<String> fields = pageRequest.getFields();
+        SortSpec<Post> reversed = sort.reversed();
+
+        // Cursor gắn với thứ tự sắp xếp: cursor của thứ tự khác có bố cục khóa khác
+        CursorCodec<KeysetCursor> sortCursorCodec = keysetCursorCodec.scopedTo(sort.fingerprint());
+
+        CursorPageResponse<Post> response = CursorUtils.handlePagination(
+                pageRequest,
+                sortCursorCodec,
+                // First page supplier
+                () -> postMapper.findSortedPage(sort, null, limit, fields),
+                // Next page query
+                cursor -> postMapper.findSortedPage(sort, validCursor(sort, cursor), limit, fields),
+                // Previous page query: đi theo thứ tự ngược, handlePagination sẽ đảo lại
+                cursor -> postMapper.findSortedPage(reversed, validCursor(sort, cursor), limit, fields),
+                // Check has previous query
+                cursor -> postMapper.checkSortedExists(reversed, validCursor(sort, cursor)),
+                // Check has next query
+                cursor -> postMapper.checkSortedExists(sort, validCursor(sort, cursor)),
+                // Cursor extractor
+                post -> sort.cursorOf(post, null)
+        );
+        paginationMetrics.recordPage("sorted", limit - 1, response.getItems().size());
+        return response;
+    }
+
+    // Cursor giải mã được nhưng sai bố cục khóa (giả mạo hoặc hỏng) không được dùng để sinh SQL
+    static KeysetCursor validCursor(SortSpec<Post> sort, KeysetCursor cursor) {
+        if (!sort.matches(cursor)) {
+            throw new IllegalArgumentException("Cursor không khớp với thứ tự sắp xếp");
+        }
+        return cursor;
+    }
+
+    @Override
+    public Map<String, CursorPageResponse<Post>> getFeeds(FeedRequest feedRequest) {
+        int pageSize = (feedRequest.getLimit() != null && feedRequest.getLimit() > 0) ? feedRequest.getLimit() : 10;
+        List<FeedRequest.FeedSpec> specs = feedRequest.getFeeds();
+
+        // Giải mã cursor của từng feed (gắn với bộ lọc giống getPostsWithFilters)
+        List<FeedQuery> queries = new ArrayList<>(specs.size());
+        List<CursorCodec<PostCursor>> codecs = new ArrayList<>(specs.size());
+        for (FeedRequest.FeedSpec spec : specs) {
+            PostFilter filter = spec.toFilter();
+            CursorCodec<PostCursor> filterCursorCodec = cursorCodec.scopedTo(filter.hashCode());
+            codecs.add(filterCursorCodec);
+            queries.add(new FeedQuery(filter, filterCursorCodec.decode(spec.getCursor())));
+        }
 
-        // Giải mã cursor nếu có
-        Long cursorId = null;
-        Date cursorCreatedAt = null;
+        // Deferred join: câu lệnh chỉ lấy (id, created_at), các trường còn lại được điền từ PostRowCache
+        Set<String> fields = feedRequest.getFields();
+        Set<String> pageFields = postRowCache.isEnabled() ? Collections.emptySet() : fields;
 
-        if (pageRequest.getCursor() != null) {
-            CursorUtils<Post> cursorUtils = new CursorUtils<>();
-            Map<String, Function<Object, Object>> transformers = CursorUtils.createDateTransformers("createdAt");
-            Map<String, Object> cursorData = cursorUtils.decodeCursor(pageRequest.getCursor(), transformers);
+        // Một câu lệnh cho tất cả các feed, lấy limit + 1 mỗi feed để kiểm tra trang tiếp theo
+        List<List<Post>> rowsByFeed = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            rowsByFeed.add(new ArrayList<>());
+        }
+        if (!queries.isEmpty()) {
+            List<FeedPost> keys = postMapper.findFeeds(queries, pageSize + 1, pageFields);
+            for (FeedPost post : keys) {
+                rowsByFeed.get(post.getFeedIndex()).add(post);
+            }
+            if (postRowCache.isEnabled()) {
+                hydrateFeeds(rowsByFeed, keys, fields);
+            }
+        }
 
-            if (cursorData != null) {
-                cursorId = ((Number) cursorData.get("id")).longValue();
-                cursorCreatedAt = (Date) cursorData.get("createdAt");
+        Map<String, CursorPageResponse<Post>> responses = new LinkedHashMap<>();
+        for (int i = 0; i < specs.size(); i++) {
+            FeedRequest.FeedSpec spec = specs.get(i);
+            List<Post> rows = rowsByFeed.get(i);
+
+            CursorPageRequest pageRequest = new CursorPageRequest();
+            pageRequest.setCursor(spec.getCursor());
+            pageRequest.setLimit(pageSize);
+
+            // Dữ liệu đã có sẵn, handlePagination chỉ cắt trang và tạo cursor
+            CursorPageResponse<Post> response = CursorUtils.handlePagination(
+                    pageRequest,
+                    codecs.get(i),
+                    () -> rows,
+                    cursor -> rows,
+                    cursor -> rows,
+                    null,
+                    null,
+                    PostCursor::of);
+            responses.put(spec.getKey() != null ? spec.getKey() : String.valueOf(i), response);
+            paginationMetrics.recordPage("feeds", pageSize, response.getItems().size());
+        }
+        return responses;
+    }
+
+    // Điền các feed bằng một lần hydrate cho mọi feed (bài viết xuất hiện ở nhiều feed chỉ được đọc một lần)
+    private void hydrateFeeds(List<List<Post>> rowsByFeed, List<FeedPost> keys, Set<String> fields) {
+        Map<Long, Post> rows = new HashMap<>();
+        for (Post post : postRowCache.hydrate(new ArrayList<>(keys), fields)) {
+            rows.put(post.getId(), post);
+        }
+        for (List<Post> feed : rowsByFeed) {
+            List<Post> hydrated = new ArrayList<>(feed.size());
+            for (Post key : feed) {
+                // Bài viết đã bị xóa giữa hai pha bị bỏ khỏi feed
+                Post row = rows.get(key.getId());
+                if (row != null) {
+                    hydrated.add(row);
+                }
             }
+            feed.clear();
+            feed.addAll(hydrated);
         }
+    }
 
-        // Tạo các suppliers cho truy vấn với nhiều điều kiện lọc
-        final Long finalCursorId = cursorId;
-        final Date finalCursorCreatedAt = cursorCreatedAt;
-        final int finalLimit = limit;
+    @Override
+    public CursorPageResponse<ScoredPost> searchPosts(String query, String category, Long userId,
+                                                      CursorPageRequest pageRequest) {
+        // Xử lý input và tạo limit với +1 để kiểm tra trang tiếp theo
+        int limit = (pageRequest.getLimit() != null && pageRequest.getLimit() > 0)
+                ? pageRequest.getLimit() + 1 : 11;
+        Set<String> fields = pageRequest.getFields();
+        PostFilter filter = PostFilter.of(query, category, userId, null, null);
+
+        // Cursor gắn với chuỗi tìm kiếm và bộ lọc hiện tại
+        CursorCodec<SearchCursor> filterCursorCodec = searchCursorCodec.scopedTo(filter.hashCode());
 
-        return CursorUtils.handlePagination(
+        CursorPageResponse<ScoredPost> response = CursorUtils.handlePagination(
                 pageRequest,
+                filterCursorCodec,
                 // First page supplier
-                () -> postMapper.findWithFiltersFirstPage(title, category, userId, startDate, endDate, finalLimit),
-                // Next page supplier
-                () -> postMapper.findWithFiltersNextPage(title, category, userId, startDate, endDate,
-                        finalCursorId, finalCursorCreatedAt, finalLimit),
-                // Previous page supplier
-                () -> postMapper.findWithFiltersPreviousPage(title, category, userId, startDate, endDate,
-                        finalCursorId, finalCursorCreatedAt, finalLimit),
-                // Check has previous supplier
-                () -> postMapper.checkHasPreviousFilters(title, category, userId, startDate, endDate,
-                        finalCursorId, finalCursorCreatedAt),
-                // Cursor fields extractor
-                cursorFieldsExtractor
+                () -> postMapper.searchByTitle(filter.getTitle(), filter.getCategory(), filter.getUserId(),
+                        null, null, null, limit, fields),
+                // Next page query
+                cursor -> postMapper.searchByTitle(filter.getTitle(), filter.getCategory(), filter.getUserId(),
+                        cursor.getScore(), cursor.getCreatedAt(), cursor.getId(), limit, fields),
+                // Previous page query
+                cursor -> postMapper.searchByTitlePrevious(filter.getTitle(), filter.getCategory(),
+                        filter.getUserId(), cursor.getScore(), cursor.getCreatedAt(), cursor.getId(), limit, fields),
+                // Không kiểm tra biên bằng truy vấn riêng: mỗi lần kiểm tra phải tính lại MATCH trên toàn bộ kết quả
+                null,
+                null,
+                // Cursor extractor
+                SearchCursor::of
         );
+        paginationMetrics.recordPage("search", limit - 1, response.getItems().size());
+        return response;
+    }
+
+    @Override
+    public CursorPageResponse<Post> getPostsAround(Long id, int before, int after, Set<String> fields) {
+        Post anchor = postMapper.findById(id, fields);
+        if (anchor == null) {
+            return null;
+        }
+
+        // Lấy thêm một bài ở mỗi phía để biết còn trang trước/sau hay không
+        List<Post> newer = new ArrayList<>();
+        List<Post> older = new ArrayList<>();
+        for (FeedPost post : postMapper.findAround(anchor.getId(), anchor.getCreatedAt(), before + 1, after + 1, fields)) {
+            (post.getFeedIndex() == 0 ? newer : older).add(post);
+        }
+
+        CursorPageResponse<Post> response = window(anchor, newer, older, before, after, cursorCodec);
+        paginationMetrics.recordPage("around", before + after + 1, response.getItems().size());
+        return response;
+    }
+
+    /**
+     * Ghép cửa sổ quanh bài viết: newer là các bài mới hơn theo thứ tự tăng dần, older là các bài cũ hơn theo
+     * thứ tự giảm dần, mỗi phía lấy thừa một bài để biết còn trang trước/sau hay không.
+     */
+    static CursorPageResponse<Post> window(Post anchor, List<Post> newer, List<Post> older, int before, int after,
+                                           CursorCodec<PostCursor> codec) {
+        boolean hasPrevious = newer.size() > before;
+        boolean hasNext = older.size() > after;
+        if (hasPrevious) {
+            newer = newer.subList(0, before);
+        }
+        if (hasNext) {
+            older = older.subList(0, after);
+        }
+
+        // Phía mới hơn được truy vấn theo thứ tự tăng dần nên cần đảo lại
+        List<Post> items = new ArrayList<>(newer.size() + 1 + older.size());
+        items.addAll(newer);
+        Collections.reverse(items);
+        items.add(anchor);
+        items.addAll(older);
+
+        // Cursor giống /api/posts: nextCursor dùng với NEXT, previousCursor dùng với PREVIOUS
+        String nextCursor = hasNext ? codec.encode(PostCursor.of(items.get(items.size() - 1))) : null;
+        String previousCursor = hasPrevious ? codec.encode(PostCursor.of(items.get(0))) : null;
+        return new CursorPageResponse<>(items, nextCursor, previousCursor, hasNext, hasPrevious);
+    }
+
+    /**
+     * Gắn số lượng ước lượng (nếu đã có) vào một bản sao của trang, không sửa trang đang nằm trong cache.
+     */
+    private CursorPageResponse<Post> withTotalEstimate(CursorPageResponse<Post> response, PostFilter filter) {
+        return withTotalEstimate(response, countEstimateCache.estimate(filter));
+    }
+
+    static CursorPageResponse<Post> withTotalEstimate(CursorPageResponse<Post> response, Long totalEstimate) {
+        if (totalEstimate == null) {
+            return response;
+        }
+        CursorPageResponse<Post> copy = new CursorPageResponse<>(response.getItems(), response.getNextCursor(),
+                response.getPreviousCursor(), response.isHasNext(), response.isHasPrevious());
+        copy.setTotalEstimate(totalEstimate);
+        return copy;
+    }
+
+    /**
+     * Nhảy tới một thời điểm: khi không có cursor nhưng có lastCreatedAt (và lastId), tạo cursor tại vị trí đó
+     * để trang được lấy bằng một lần seek trên index thay vì đi qua từng trang ở giữa.
+     */
+    static void applyStartPosition(CursorPageRequest pageRequest, CursorCodec<PostCursor> codec) {
+        if (!pageRequest.isFirstPage() || pageRequest.getLastCreatedAt() == null) {
+            return;
+        }
+        // Không có lastId thì lấy cả các bài viết tạo đúng vào thời điểm lastCreatedAt
+        long lastId = pageRequest.getLastId() != null
+                ? pageRequest.getLastId()
+                : (pageRequest.isNextDirection() ? Long.MAX_VALUE : 0L);
+        pageRequest.setCursor(codec.encode(new PostCursor(lastId, pageRequest.getLastCreatedAt().getTime())));
+    }
+
+    /**
+     * Ở chế độ deferred join, điền các trường được chọn cho trang chỉ có (id, createdAt) từ PostRowCache.
+     */
+    private Supplier<List<Post>> hydrated(Supplier<List<Post>> page, Set<String> fields) {
+        return postRowCache.isEnabled() ? () -> postRowCache.hydrate(page.get(), fields) : page;
+    }
+
+    private Function<PostCursor, List<Post>> hydrated(Function<PostCursor, List<Post>> page, Set<String> fields) {
+        return postRowCache.isEnabled() ? cursor -> postRowCache.hydrate(page.apply(cursor), fields) : page;
+    }
+
+    /**
+     * Khi đang đi tiếp về phía sau và còn trang kế tiếp, tải trước trang đó trên luồng nền.
+     */
+    private void prefetchNextPage(CursorPageRequest pageRequest, CursorPageResponse<Post> response,
+                                  PostFilter filter, int limit, Set<String> fields,
+                                  Function<PostCursor, List<Post>> nextPage) {
+        if (!pageRequest.isNextDirection() || !response.isHasNext() || response.getItems().isEmpty()) {
+            return;
+        }
+        List<Post> items = response.getItems();
+        PostCursor nextCursor = PostCursor.of(items.get(items.size() - 1));
+        nextPagePrefetcher.prefetch(NextPagePrefetcher.key(filter, limit, fields, nextCursor),
+                () -> nextPage.apply(nextCursor));
+    }
+
+    @Override
+    public List<Post> getContents(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return postMapper.findContentByIds(new LinkedHashSet<>(ids));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,256 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.cache.CountEstimateCache;
+import com.example.cursorbasepagination.cache.FirstPageCache;
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dao.PostShards;
+import com.example.cursorbasepagination.dto.request.CursorPageRequest;
+import com.example.cursorbasepagination.dto.request.FeedRequest;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.FeedPost;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.entity.ScoredPost;
+import com.example.cursorbasepagination.monitoring.PaginationMetrics;
+import com.example.cursorbasepagination.service.PostService;
+import com.example.cursorbasepagination.util.CursorUtils;
+import com.example.cursorbasepagination.util.KeysetMerge;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.example.cursorbasepagination.util.keyset.KeysetCursor;
+import com.example.cursorbasepagination.util.keyset.SortSpec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * PostService cho bảng posts phân mảnh theo user_id (pagination.sharding.enabled=true).
+ *
+ * <p>Mỗi trang được truy vấn song song trên các shard liên quan với cùng điều kiện seek (createdAt, id)
+ * và cùng limit, rồi được trộn bằng hàng đợi ưu tiên. Vì mọi shard dùng chung một thứ tự toàn phần,
+ * cursor của phần tử cuối trang là cursor toàn cục và có cùng định dạng với chế độ một database.
+ * Bộ lọc có userId chỉ truy vấn một shard. Thứ tự tùy chọn (/api/posts/sorted) được trộn bằng comparator của
+ * chính SortSpec; tìm kiếm toàn văn bị từ chối với 501 vì điểm FULLTEXT của các shard không so sánh được
+ * với nhau.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "pagination.sharding.enabled", havingValue = "true")
+public class ShardedPostServiceImpl implements PostService {
+    // Thứ tự (created_at DESC, id DESC) của trang tiếp theo và thứ tự ngược của trang trước đó
+    static final Comparator<Post> NEWEST_FIRST =
+            Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId).reversed();
+    static final Comparator<Post> OLDEST_FIRST = NEWEST_FIRST.reversed();
+
+    @Autowired
+    private PostShards postShards;
+
+    @Autowired
+    private FirstPageCache firstPageCache;
+
+    @Autowired
+    private CountEstimateCache countEstimateCache;
+
+    @Autowired
+    private PaginationMetrics paginationMetrics;
+
+    @Autowired
+    private CursorCodec<PostCursor> cursorCodec;
+
+    @Autowired
+    private CursorCodec<KeysetCursor> keysetCursorCodec;
+
+    @Override
+    public CursorPageResponse<Post> getPosts(CursorPageRequest pageRequest) {
+        PostFilter filter = PostFilter.none();
+        return PostServiceImpl.withTotalEstimate(page("posts", filter, cursorCodec, pageRequest),
+                countEstimateCache.estimate(filter));
+    }
+
+    @Override
+    public CursorPageResponse<Post> getPostsWithFilters(String title, String category, Long userId,
+                                                        Date startDate, Date endDate, CursorPageRequest pageRequest) {
+        PostFilter filter = PostFilter.of(title, category, userId, startDate, endDate);
+        return PostServiceImpl.withTotalEstimate(
+                page("filter", filter, cursorCodec.scopedTo(filter.hashCode()), pageRequest),
+                countEstimateCache.estimate(filter));
+    }
+
+    @Override
+    public Map<String, CursorPageResponse<Post>> getFeeds(FeedRequest feedRequest) {
+        int pageSize = (feedRequest.getLimit() != null && feedRequest.getLimit() > 0) ? feedRequest.getLimit() : 10;
+
+        // Mỗi feed là một lần phân trang độc lập trên các shard liên quan
+        Map<String, CursorPageResponse<Post>> responses = new LinkedHashMap<>();
+        for (int i = 0; i < feedRequest.getFeeds().size(); i++) {
+            FeedRequest.FeedSpec spec = feedRequest.getFeeds().get(i);
+            PostFilter filter = spec.toFilter();
+
+            CursorPageRequest pageRequest = new CursorPageRequest();
+            pageRequest.setCursor(spec.getCursor());
+            pageRequest.setLimit(pageSize);
+            pageRequest.setFields(feedRequest.getFields());
+
+            responses.put(spec.getKey() != null ? spec.getKey() : String.valueOf(i),
+                    page("feeds", filter, cursorCodec.scopedTo(filter.hashCode()), pageRequest));
+        }
+        return responses;
+    }
+
+    @Override
+    public List<Post> getContents(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        List<Post> contents = new ArrayList<>(uniqueIds.size());
+        for (List<Post> shardContents : postShards.query(null, mapper -> mapper.findContentByIds(uniqueIds))) {
+            contents.addAll(shardContents);
+        }
+        return contents;
+    }
+
+    @Override
+    public CursorPageResponse<Post> getPostsSorted(SortSpec<Post> sort, CursorPageRequest pageRequest) {
+        // Xử lý input và tạo limit với +1 để kiểm tra trang tiếp theo
+        int limit = (pageRequest.getLimit() != null && pageRequest.getLimit() > 0)
+                ? pageRequest.getLimit() + 1 : 11;
+        Set<String> fields = pageRequest.getFields();
+        SortSpec<Post> reversed = sort.reversed();
+        Comparator<Post> order = sort.comparator();
+
+        // Cursor gắn với thứ tự sắp xếp như chế độ một database
+        CursorCodec<KeysetCursor> sortCursorCodec = keysetCursorCodec.scopedTo(sort.fingerprint());
+
+        CursorPageResponse<Post> response = CursorUtils.handlePagination(
+                pageRequest,
+                sortCursorCodec,
+                // First page supplier
+                () -> KeysetMerge.merge(postShards.query(null,
+                        mapper -> mapper.findSortedPage(sort, null, limit, fields)), order, limit),
+                // Next page query
+                cursor -> KeysetMerge.merge(postShards.query(null, mapper -> mapper.findSortedPage(
+                        sort, PostServiceImpl.validCursor(sort, cursor), limit, fields)), order, limit),
+                // Previous page query: đi theo thứ tự ngược, handlePagination sẽ đảo lại
+                cursor -> KeysetMerge.merge(postShards.query(null, mapper -> mapper.findSortedPage(
+                        reversed, PostServiceImpl.validCursor(sort, cursor), limit, fields)), order.reversed(), limit),
+                // Check has previous query
+                cursor -> anyShard(null, mapper -> mapper.checkSortedExists(
+                        reversed, PostServiceImpl.validCursor(sort, cursor))),
+                // Check has next query
+                cursor -> anyShard(null, mapper -> mapper.checkSortedExists(
+                        sort, PostServiceImpl.validCursor(sort, cursor))),
+                // Cursor extractor
+                post -> sort.cursorOf(post, null)
+        );
+        paginationMetrics.recordPage("sorted", limit - 1, response.getItems().size());
+        return response;
+    }
+
+    @Override
+    public CursorPageResponse<Post> getPostsAround(Long id, int before, int after, Set<String> fields) {
+        // Không biết user_id của bài viết nên tìm trên mọi shard
+        Post anchor = null;
+        for (Post found : postShards.query(null, mapper -> mapper.findById(id, fields))) {
+            if (found != null) {
+                anchor = found;
+                break;
+            }
+        }
+        if (anchor == null) {
+            return null;
+        }
+
+        // Mỗi shard trả về tối đa before + 1 bài mới hơn và after + 1 bài cũ hơn, trộn riêng từng phía
+        Post center = anchor;
+        List<List<Post>> newerByShard = new ArrayList<>();
+        List<List<Post>> olderByShard = new ArrayList<>();
+        for (List<FeedPost> rows : postShards.query(null, mapper -> mapper.findAround(
+                center.getId(), center.getCreatedAt(), before + 1, after + 1, fields))) {
+            List<Post> newer = new ArrayList<>();
+            List<Post> older = new ArrayList<>();
+            for (FeedPost post : rows) {
+                (post.getFeedIndex() == 0 ? newer : older).add(post);
+            }
+            newerByShard.add(newer);
+            olderByShard.add(older);
+        }
+
+        CursorPageResponse<Post> response = PostServiceImpl.window(anchor,
+                KeysetMerge.merge(newerByShard, OLDEST_FIRST, before + 1),
+                KeysetMerge.merge(olderByShard, NEWEST_FIRST, after + 1),
+                before, after, cursorCodec);
+        paginationMetrics.recordPage("around", before + after + 1, response.getItems().size());
+        return response;
+    }
+
+    @Override
+    public CursorPageResponse<ScoredPost> searchPosts(String query, String category, Long userId,
+                                                      CursorPageRequest pageRequest) {
+        throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED,
+                "Tìm kiếm chưa được hỗ trợ ở chế độ phân mảnh");
+    }
+
+    private CursorPageResponse<Post> page(String query, PostFilter filter, CursorCodec<PostCursor> codec,
+                                          CursorPageRequest pageRequest) {
+        // Xử lý input và tạo limit với +1 để kiểm tra trang tiếp theo
+        int limit = (pageRequest.getLimit() != null && pageRequest.getLimit() > 0)
+                ? pageRequest.getLimit() + 1 : 11;
+        Set<String> fields = pageRequest.getFields();
+        PostServiceImpl.applyStartPosition(pageRequest, codec);
+
+        // Bộ lọc có userId chỉ cần shard của người dùng đó
+        Long userId = filter.getUserId();
+
+        Supplier<CursorPageResponse<Post>> pageQuery = () -> CursorUtils.handlePagination(
+                pageRequest,
+                codec,
+                // First page supplier
+                () -> KeysetMerge.merge(postShards.query(userId, mapper -> mapper.findWithFiltersFirstPage(
+                        filter.getTitle(), filter.getCategory(), userId, filter.getStartDate(), filter.getEndDate(),
+                        limit, fields)), NEWEST_FIRST, limit),
+                // Next page query
+                cursor -> KeysetMerge.merge(postShards.query(userId, mapper -> mapper.findWithFiltersNextPage(
+                        filter.getTitle(), filter.getCategory(), userId, filter.getStartDate(), filter.getEndDate(),
+                        cursor.getId(), cursor.getCreatedAt(), limit, fields)), NEWEST_FIRST, limit),
+                // Previous page query
+                cursor -> KeysetMerge.merge(postShards.query(userId, mapper -> mapper.findWithFiltersPreviousPage(
+                        filter.getTitle(), filter.getCategory(), userId, filter.getStartDate(), filter.getEndDate(),
+                        cursor.getId(), cursor.getCreatedAt(), limit, fields)), OLDEST_FIRST, limit),
+                // Check has previous query
+                cursor -> anyShard(userId, mapper -> mapper.checkHasPreviousFilters(
+                        filter.getTitle(), filter.getCategory(), userId, filter.getStartDate(), filter.getEndDate(),
+                        cursor.getId(), cursor.getCreatedAt())),
+                // Check has next query
+                cursor -> anyShard(userId, mapper -> mapper.checkHasNextFilters(
+                        filter.getTitle(), filter.getCategory(), userId, filter.getStartDate(), filter.getEndDate(),
+                        cursor.getId(), cursor.getCreatedAt())),
+                // Cursor extractor
+                PostCursor::of
+        );
+
+        // Trang đầu tiên được phục vụ từ cache
+        CursorPageResponse<Post> response = pageRequest.isFirstPage()
+                ? firstPageCache.get(filter, limit, fields, pageQuery)
+                : pageQuery.get();
+        paginationMetrics.recordPage(query, limit - 1, response.getItems().size());
+        return response;
+    }
+
+    // Kiểm tra biên trên các shard: có ở bất kỳ shard nào là có
+    private Integer anyShard(Long userId, Function<PostMapper, Integer> probe) {
+        for (Integer result : postShards.query(userId, probe)) {
+            if (result != null && result > 0) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.cursorbasepagination.util;
 
 import com.example.cursorbasepagination.dto.request.CursorPageRequest;
 import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import com.example.cursorbasepagination.util.cursor.JsonCursorCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 
@@ -145,6 +147,49 @@ public class CursorUtils<T> {
             Supplier<Integer> checkHasPreviousSupplier,
             Function<T, Map<String, Object>> cursorFieldsExtractor) {
 
+        // Cursor dạng Map được mã hóa bằng JSON+Base64, trường createdAt được chuyển lại thành Date
+        return handlePagination(
+                pageRequest,
+                new JsonCursorCodec("createdAt"),
+                firstPageSupplier,
+                cursor -> nextPageSupplier.get(),
+                cursor -> previousPageSupplier.get(),
+                cursor -> checkHasPreviousSupplier.get(),
+                null,
+                cursorFieldsExtractor);
+    }
+
+    /**
+     * Helper method để xử lý cursor-based pagination với cursor có kiểu.
+     * Cursor được giải mã một lần bằng codec và truyền thẳng vào các truy vấn.
+     *
+     * @param <T> Kiểu dữ liệu của entity đang được phân trang
+     * @param <C> Kiểu dữ liệu của cursor đã giải mã
+     * @param pageRequest Request chứa thông tin phân trang
+     * @param cursorCodec Codec dùng để mã hóa/giải mã cursor
+     * @param firstPageSupplier Supplier để lấy trang đầu tiên
+     * @param nextPageQuery Truy vấn lấy trang tiếp theo từ cursor
+     * @param previousPageQuery Truy vấn lấy trang trước đó từ cursor
+     * @param checkHasPreviousQuery Truy vấn kiểm tra có phần tử đứng trước cursor không
+     *                              (null = coi như luôn có khi đang ở giữa danh sách).
+     *                              Cursor của request không đủ để kết luận: cursor có thể được tạo từ một thời điểm
+     *                              (không phải bài viết thật) hoặc bài viết tại cursor đã bị xóa, nên truy vấn này
+     *                              vẫn được chạy; nó là một lần EXISTS ... LIMIT 1 trên cùng index vừa seek.
+     * @param checkHasNextQuery Truy vấn kiểm tra có phần tử đứng sau cursor không
+     *                          (null = coi như luôn có khi đang ở giữa danh sách)
+     * @param cursorExtractor Hàm để tạo cursor từ entity
+     * @return CursorPageResponse chứa kết quả phân trang
+     */
+    public static <T, C> CursorPageResponse<T> handlePagination(
+            CursorPageRequest pageRequest,
+            CursorCodec<C> cursorCodec,
+            Supplier<List<T>> firstPageSupplier,
+            Function<C, List<T>> nextPageQuery,
+            Function<C, List<T>> previousPageQuery,
+            Function<C, Integer> checkHasPreviousQuery,
+            Function<C, Integer> checkHasNextQuery,
+            Function<T, C> cursorExtractor) {
+
         // Xử lý input
         if (pageRequest.getLimit() == null || pageRequest.getLimit() <= 0) {
             pageRequest.setLimit(10);
@@ -153,14 +198,12 @@ public class CursorUtils<T> {
         List<T> entities;
         boolean hasNext = false;
         boolean hasPrevious = false;
-        CursorUtils<T> cursorUtils = new CursorUtils<>();
 
-        // Tạo transformer cho trường createdAt
-        Map<String, Function<Object, Object>> transformers = CursorUtils.createDateTransformers("createdAt");
+        // Giải mã cursor (null nếu là trang đầu tiên hoặc cursor không dùng được)
+        C cursorData = pageRequest.isFirstPage() ? null : cursorCodec.decode(pageRequest.getCursor());
 
-        // Xử lý trang đầu tiên hoặc trang có cursor
-        if (pageRequest.isFirstPage() || pageRequest.getCursor() == null) {
-            // Lấy trang đầu tiên
+        if (cursorData == null) {
+            // Trang đầu tiên, hoặc không thể giải mã cursor thì trả về trang đầu tiên
             entities = firstPageSupplier.get();
 
             // Kiểm tra có trang tiếp theo không
@@ -173,58 +216,41 @@ public class CursorUtils<T> {
             if (hasNext) {
                 entities = entities.subList(0, pageRequest.getLimit());
             }
-        } else {
-            // Giải mã cursor
-            Map<String, Object> cursorData = cursorUtils.decodeCursor(pageRequest.getCursor(), transformers);
-
-            if (cursorData != null) {
-                if (pageRequest.isNextDirection()) {
-                    // Lấy trang tiếp theo
-                    entities = nextPageSupplier.get();
-
-                    // Kiểm tra có trang tiếp theo không
-                    hasNext = entities.size() > pageRequest.getLimit();
+        } else if (pageRequest.isNextDirection()) {
+            // Lấy trang tiếp theo
+            entities = nextPageQuery.apply(cursorData);
 
-                    // Kiểm tra có trang trước không (sử dụng các trường từ cursor)
-                    hasPrevious = true;
-
-                    // Loại bỏ phần tử thừa nếu có
-                    if (hasNext) {
-                        entities = entities.subList(0, pageRequest.getLimit());
-                    }
-                } else {
-                    // Lấy trang trước đó
-                    entities = previousPageSupplier.get();
-
-                    // Kiểm tra có trang trước nữa không
-                    hasPrevious = entities.size() > pageRequest.getLimit();
+            // Kiểm tra có trang tiếp theo không
+            hasNext = entities.size() > pageRequest.getLimit();
 
-                    // Loại bỏ phần tử thừa nếu có
-                    if (hasPrevious) {
-                        entities = entities.subList(0, pageRequest.getLimit());
-                    }
+            // Loại bỏ phần tử thừa nếu có
+            if (hasNext) {
+                entities = entities.subList(0, pageRequest.getLimit());
+            }
 
-                    // Kiểm tra có trang tiếp theo không (sử dụng checkHasPrevious)
-                    hasNext = true;
+            // Kiểm tra có trang trước không bằng một truy vấn EXISTS từ phần tử đầu tiên,
+            // hoặc từ cursor của request nếu trang rỗng (ví dụ các bài viết phía sau đã bị xóa)
+            hasPrevious = probe(checkHasPreviousQuery,
+                    entities.isEmpty() ? cursorData : cursorExtractor.apply(entities.get(0)));
+        } else {
+            // Lấy trang trước đó
+            entities = previousPageQuery.apply(cursorData);
 
-                    // Đảo ngược danh sách vì SQL truy vấn theo thứ tự tăng dần
-                    Collections.reverse(entities);
-                }
-            } else {
-                // Nếu không thể giải mã cursor, trả về trang đầu tiên
-                entities = firstPageSupplier.get();
+            // Kiểm tra có trang trước nữa không
+            hasPrevious = entities.size() > pageRequest.getLimit();
 
-                // Kiểm tra có trang tiếp theo không
-                hasNext = entities.size() > pageRequest.getLimit();
+            // Loại bỏ phần tử thừa nếu có
+            if (hasPrevious) {
+                entities = entities.subList(0, pageRequest.getLimit());
+            }
 
-                // Trang đầu tiên không có trang trước
-                hasPrevious = false;
+            // Đảo ngược danh sách vì SQL truy vấn theo thứ tự tăng dần
+            Collections.reverse(entities);
 
-                // Loại bỏ phần tử thừa nếu có
-                if (hasNext) {
-                    entities = entities.subList(0, pageRequest.getLimit());
-                }
-            }
+            // Kiểm tra có trang tiếp theo không bằng một truy vấn EXISTS từ phần tử cuối cùng,
+            // hoặc từ cursor của request nếu trang rỗng
+            hasNext = probe(checkHasNextQuery,
+                    entities.isEmpty() ? cursorData : cursorExtractor.apply(entities.get(entities.size() - 1)));
         }
 
         // Tạo nextCursor và previousCursor
@@ -238,15 +264,32 @@ public class CursorUtils<T> {
 
             // Tạo nextCursor từ phần tử cuối cùng nếu có trang tiếp theo
             if (hasNext) {
-                nextCursor = cursorUtils.encodeCursor(lastT, cursorFieldsExtractor);
+                nextCursor = cursorCodec.encode(cursorExtractor.apply(lastT));
             }
 
             // Tạo previousCursor từ phần tử đầu tiên nếu có trang trước
             if (hasPrevious) {
-                previousCursor = cursorUtils.encodeCursor(firstT, cursorFieldsExtractor);
+                previousCursor = cursorCodec.encode(cursorExtractor.apply(firstT));
+            }
+        } else if (cursorData != null) {
+            // Trang rỗng: quay lại (hoặc đi tiếp) từ chính cursor của request để client không bị kẹt
+            if (hasNext) {
+                nextCursor = cursorCodec.encode(cursorData);
+            }
+            if (hasPrevious) {
+                previousCursor = cursorCodec.encode(cursorData);
             }
         }
 
         return new CursorPageResponse<>(entities, nextCursor, previousCursor, hasNext, hasPrevious);
     }
-}
\ No newline at end of file
+
+    // Chạy truy vấn kiểm tra biên; không có truy vấn thì giữ giả định cũ là còn dữ liệu
+    private static <C> boolean probe(Function<C, Integer> query, C cursor) {
+        if (query == null) {
+            return true;
+        }
+        Integer result = query.apply(cursor);
+        return result != null && result > 0;
+    }
+}
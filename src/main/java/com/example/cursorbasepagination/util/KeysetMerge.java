@@ -0,0 +1,63 @@
+package com.example.cursorbasepagination.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Trộn k danh sách đã sắp xếp (ví dụ trang của từng shard) thành một danh sách theo cùng thứ tự.
+ */
+public final class KeysetMerge {
+
+    private KeysetMerge() {
+    }
+
+    /**
+     * Trộn các danh sách đã được sắp xếp theo comparator bằng hàng đợi ưu tiên, dừng khi đủ limit phần tử.
+     * Mỗi danh sách đầu vào chỉ cần có tối đa limit phần tử, vì các phần tử sau đó không thể lọt vào kết quả.
+     *
+     * @param <T> Kiểu phần tử
+     * @param sortedLists Các danh sách đã sắp xếp
+     * @param comparator Thứ tự chung của các danh sách
+     * @param limit Số phần tử tối đa cần lấy
+     * @return limit phần tử đầu tiên theo thứ tự chung
+     */
+    public static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> comparator, int limit) {
+        if (sortedLists.size() == 1) {
+            List<T> only = sortedLists.get(0);
+            return only.size() > limit ? new ArrayList<>(only.subList(0, limit)) : only;
+        }
+
+        // Mỗi phần tử của hàng đợi là đầu hiện tại của một danh sách kèm iterator phần còn lại
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                (a, b) -> comparator.compare(a.value, b.value));
+        for (List<T> list : sortedLists) {
+            Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.value);
+            if (head.rest.hasNext()) {
+                heads.add(new Head<>(head.rest.next(), head.rest));
+            }
+        }
+        return merged;
+    }
+
+    private static final class Head<T> {
+        private final T value;
+        private final Iterator<T> rest;
+
+        private Head(T value, Iterator<T> rest) {
+            this.value = value;
+            this.rest = rest;
+        }
+    }
+}
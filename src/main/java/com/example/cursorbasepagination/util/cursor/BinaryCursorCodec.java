@@ -0,0 +1,156 @@
+package com.example.cursorbasepagination.util.cursor;
+
+import com.example.cursorbasepagination.util.CursorUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Codec nhị phân có bố cục cố định cho {@link PostCursor}.
+ *
+ * <p>Bố cục (trước khi mã hóa Base64 URL-safe, không padding):
+ * <pre>
+ * [version: 1 byte][flags: 1 byte][id: varint][createdAt epoch-millis: varint][filterHash: 4 byte, nếu flags &amp; 0x01]
+ * </pre>
+ *
+ * <p>Cursor JSON+Base64 cũ (do {@link CursorUtils#encodeCursor} tạo ra) vẫn được giải mã
+ * để các liên kết đã phát hành tiếp tục hoạt động.
+ */
+@Slf4j
+public class BinaryCursorCodec implements CursorCodec<PostCursor> {
+    static final byte VERSION = 1;
+    private static final byte FLAG_FILTER_HASH = 0x01;
+    // version + flags + 2 varint 64-bit + hash 32-bit
+    private static final int MAX_LENGTH = 1 + 1 + 10 + 10 + 4;
+    // Base64 chuẩn của "{\"" - tiền tố của mọi cursor JSON cũ
+    private static final String LEGACY_JSON_PREFIX = "eyJ";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final Map<String, Function<Object, Object>> LEGACY_TRANSFORMERS =
+            CursorUtils.createDateTransformers("createdAt");
+
+    // Hash bộ lọc mà codec này gắn với (null nếu không gắn với bộ lọc nào)
+    private final Integer filterHash;
+
+    public BinaryCursorCodec() {
+        this(null);
+    }
+
+    private BinaryCursorCodec(Integer filterHash) {
+        this.filterHash = filterHash;
+    }
+
+    @Override
+    public CursorCodec<PostCursor> scopedTo(int filterHash) {
+        return new BinaryCursorCodec(filterHash);
+    }
+
+    @Override
+    public String encode(PostCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        Integer hash = cursor.getFilterHash() != null ? cursor.getFilterHash() : filterHash;
+        byte[] buffer = new byte[MAX_LENGTH];
+        int pos = 0;
+        buffer[pos++] = VERSION;
+        buffer[pos++] = hash != null ? FLAG_FILTER_HASH : 0;
+        pos = writeVarLong(buffer, pos, cursor.getId());
+        pos = writeVarLong(buffer, pos, cursor.getCreatedAtMillis());
+        if (hash != null) {
+            int h = hash;
+            buffer[pos++] = (byte) (h >>> 24);
+            buffer[pos++] = (byte) (h >>> 16);
+            buffer[pos++] = (byte) (h >>> 8);
+            buffer[pos++] = (byte) h;
+        }
+        return ENCODER.encodeToString(Arrays.copyOf(buffer, pos));
+    }
+
+    @Override
+    public PostCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        if (cursor.startsWith(LEGACY_JSON_PREFIX)) {
+            return decodeLegacy(cursor);
+        }
+
+        try {
+            byte[] bytes = DECODER.decode(cursor);
+            if (bytes.length < 2 || bytes[0] != VERSION) {
+                throw new IllegalArgumentException("Phiên bản cursor không được hỗ trợ");
+            }
+
+            int[] pos = {2};
+            long id = readVarLong(bytes, pos);
+            long createdAt = readVarLong(bytes, pos);
+            Integer hash = null;
+            if ((bytes[1] & FLAG_FILTER_HASH) != 0) {
+                int p = pos[0];
+                if (p + 4 > bytes.length) {
+                    throw new IllegalArgumentException("Cursor bị cắt ngắn");
+                }
+                hash = ((bytes[p] & 0xFF) << 24) | ((bytes[p + 1] & 0xFF) << 16)
+                        | ((bytes[p + 2] & 0xFF) << 8) | (bytes[p + 3] & 0xFF);
+            }
+
+            // Cursor sinh ra từ bộ lọc khác không áp dụng được cho bộ lọc hiện tại
+            if (hash != null && filterHash != null && !hash.equals(filterHash)) {
+                log.warn("Cursor không khớp với bộ lọc hiện tại, quay về trang đầu tiên");
+                return null;
+            }
+            return new PostCursor(id, createdAt, hash);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            throw new RuntimeException("Không thể giải mã cursor", e);
+        }
+    }
+
+    /**
+     * Giải mã cursor JSON+Base64 của phiên bản cũ.
+     */
+    private PostCursor decodeLegacy(String cursor) {
+        Map<String, Object> cursorData = new CursorUtils<Object>().decodeCursor(cursor, LEGACY_TRANSFORMERS);
+        if (cursorData == null || cursorData.get("id") == null || cursorData.get("createdAt") == null) {
+            return null;
+        }
+        long id = ((Number) cursorData.get("id")).longValue();
+        long createdAt = ((Date) cursorData.get("createdAt")).getTime();
+        return new PostCursor(id, createdAt);
+    }
+
+    // Ghi số nguyên 64-bit dạng varint (LEB128 không dấu)
+    static int writeVarLong(byte[] buffer, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    // Đọc số nguyên 64-bit dạng varint, pos[0] được cập nhật tới byte kế tiếp
+    static long readVarLong(byte[] bytes, int[] pos) {
+        long result = 0;
+        int shift = 0;
+        while (shift < 64) {
+            if (pos[0] >= bytes.length) {
+                throw new IllegalArgumentException("Cursor bị cắt ngắn");
+            }
+            byte b = bytes[pos[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+        throw new IllegalArgumentException("Varint không hợp lệ");
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.cursorbasepagination.util.cursor;
+
+/**
+ * Bộ mã hóa/giải mã cursor có thể thay thế được.
+ *
+ * @param <C> Kiểu dữ liệu của cursor đã giải mã
+ */
+public interface CursorCodec<C> {
+
+    /**
+     * Mã hóa cursor thành chuỗi an toàn để đặt trên URL.
+     *
+     * @param cursor Cursor cần mã hóa (có thể null)
+     * @return Chuỗi cursor, hoặc null nếu cursor là null
+     */
+    String encode(C cursor);
+
+    /**
+     * Giải mã chuỗi cursor.
+     *
+     * @param cursor Chuỗi cursor (có thể null hoặc rỗng)
+     * @return Cursor đã giải mã, hoặc null nếu không có cursor hợp lệ cho ngữ cảnh hiện tại
+     * @throws RuntimeException nếu chuỗi cursor bị hỏng
+     */
+    C decode(String cursor);
+
+    /**
+     * Trả về codec gắn với một bộ lọc cụ thể: cursor được mã hóa sẽ mang theo hash của bộ lọc,
+     * và cursor của bộ lọc khác sẽ bị bỏ qua khi giải mã.
+     * Mặc định codec không hỗ trợ và trả về chính nó.
+     */
+    default CursorCodec<C> scopedTo(int filterHash) {
+        return this;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.cursorbasepagination.util.cursor;
+
+import com.example.cursorbasepagination.util.CursorUtils;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Codec JSON+Base64 dạng Map, giữ nguyên định dạng cursor ban đầu của {@link CursorUtils}.
+ */
+public class JsonCursorCodec implements CursorCodec<Map<String, Object>> {
+    private final CursorUtils<Map<String, Object>> cursorUtils = new CursorUtils<>();
+    private final Map<String, Function<Object, Object>> valueTransformers;
+
+    /**
+     * @param dateFields Các trường cần chuyển đổi thành Date khi giải mã
+     */
+    public JsonCursorCodec(String... dateFields) {
+        this.valueTransformers = CursorUtils.createDateTransformers(dateFields);
+    }
+
+    @Override
+    public String encode(Map<String, Object> cursor) {
+        return cursorUtils.encodeCursor(cursor, Function.identity());
+    }
+
+    @Override
+    public Map<String, Object> decode(String cursor) {
+        return cursorUtils.decodeCursor(cursor, valueTransformers);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.cursorbasepagination.util.cursor;
+
+import com.example.cursorbasepagination.util.keyset.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Codec nhị phân cho {@link KeysetCursor} với số khóa và kiểu khóa tùy ý.
+ *
+ * <p>Bố cục (trước khi mã hóa Base64 URL-safe, không padding):
+ * <pre>
+ * [version: 1 byte][flags: 1 byte][scopeHash: 4 byte, nếu flags &amp; 0x01][số khóa: varint]
+ * rồi với mỗi khóa: [tag: 1 byte][giá trị]
+ *   tag 0: NULL
+ *   tag 1: Long, varint zigzag
+ *   tag 2: Date, epoch-millis varint zigzag
+ *   tag 3: String, độ dài varint + UTF-8
+ * </pre>
+ */
+@Slf4j
+public class KeysetCursorCodec implements CursorCodec<KeysetCursor> {
+    static final byte VERSION = 3;
+    private static final byte FLAG_SCOPE_HASH = 0x01;
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_LONG = 1;
+    private static final byte TAG_DATE = 2;
+    private static final byte TAG_STRING = 3;
+    // Giới hạn để cursor giả mạo không thể làm cấp phát lớn
+    private static final int MAX_KEYS = 8;
+    private static final int MAX_STRING_BYTES = 1024;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Integer scopeHash;
+
+    public KeysetCursorCodec() {
+        this(null);
+    }
+
+    private KeysetCursorCodec(Integer scopeHash) {
+        this.scopeHash = scopeHash;
+    }
+
+    @Override
+    public CursorCodec<KeysetCursor> scopedTo(int filterHash) {
+        return new KeysetCursorCodec(filterHash);
+    }
+
+    @Override
+    public String encode(KeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        Integer hash = cursor.getScopeHash() != null ? cursor.getScopeHash() : scopeHash;
+        List<Object> values = cursor.getValues();
+
+        // Ước lượng kích thước tối đa: header + mỗi khóa 1 byte tag + 10 byte varint (chuỗi tính riêng)
+        int capacity = 1 + 1 + 4 + 5;
+        List<byte[]> strings = new ArrayList<>();
+        for (Object value : values) {
+            capacity += 1 + 10;
+            if (value instanceof String) {
+                byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+                strings.add(utf8);
+                capacity += utf8.length;
+            }
+        }
+
+        byte[] buffer = new byte[capacity];
+        int pos = 0;
+        buffer[pos++] = VERSION;
+        buffer[pos++] = hash != null ? FLAG_SCOPE_HASH : 0;
+        if (hash != null) {
+            int h = hash;
+            buffer[pos++] = (byte) (h >>> 24);
+            buffer[pos++] = (byte) (h >>> 16);
+            buffer[pos++] = (byte) (h >>> 8);
+            buffer[pos++] = (byte) h;
+        }
+        pos = BinaryCursorCodec.writeVarLong(buffer, pos, values.size());
+
+        int stringIndex = 0;
+        for (Object value : values) {
+            if (value == null) {
+                buffer[pos++] = TAG_NULL;
+            } else if (value instanceof Date) {
+                buffer[pos++] = TAG_DATE;
+                pos = BinaryCursorCodec.writeVarLong(buffer, pos, zigzag(((Date) value).getTime()));
+            } else if (value instanceof Number) {
+                buffer[pos++] = TAG_LONG;
+                pos = BinaryCursorCodec.writeVarLong(buffer, pos, zigzag(((Number) value).longValue()));
+            } else if (value instanceof String) {
+                byte[] utf8 = strings.get(stringIndex++);
+                buffer[pos++] = TAG_STRING;
+                pos = BinaryCursorCodec.writeVarLong(buffer, pos, utf8.length);
+                System.arraycopy(utf8, 0, buffer, pos, utf8.length);
+                pos += utf8.length;
+            } else {
+                throw new IllegalArgumentException("Kiểu khóa không được hỗ trợ: " + value.getClass());
+            }
+        }
+        return ENCODER.encodeToString(Arrays.copyOf(buffer, pos));
+    }
+
+    @Override
+    public KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            byte[] bytes = DECODER.decode(cursor);
+            if (bytes.length < 3 || bytes[0] != VERSION) {
+                throw new IllegalArgumentException("Phiên bản cursor không được hỗ trợ");
+            }
+
+            int[] pos = {2};
+            Integer hash = null;
+            if ((bytes[1] & FLAG_SCOPE_HASH) != 0) {
+                int p = pos[0];
+                if (p + 4 > bytes.length) {
+                    throw new IllegalArgumentException("Cursor bị cắt ngắn");
+                }
+                hash = ((bytes[p] & 0xFF) << 24) | ((bytes[p + 1] & 0xFF) << 16)
+                        | ((bytes[p + 2] & 0xFF) << 8) | (bytes[p + 3] & 0xFF);
+                pos[0] += 4;
+            }
+
+            long count = BinaryCursorCodec.readVarLong(bytes, pos);
+            if (count < 1 || count > MAX_KEYS) {
+                throw new IllegalArgumentException("Số khóa không hợp lệ");
+            }
+
+            List<Object> values = new ArrayList<>((int) count);
+            for (int i = 0; i < count; i++) {
+                if (pos[0] >= bytes.length) {
+                    throw new IllegalArgumentException("Cursor bị cắt ngắn");
+                }
+                byte tag = bytes[pos[0]++];
+                switch (tag) {
+                    case TAG_NULL -> values.add(null);
+                    case TAG_LONG -> values.add(unzigzag(BinaryCursorCodec.readVarLong(bytes, pos)));
+                    case TAG_DATE -> values.add(new Date(unzigzag(BinaryCursorCodec.readVarLong(bytes, pos))));
+                    case TAG_STRING -> {
+                        long length = BinaryCursorCodec.readVarLong(bytes, pos);
+                        if (length < 0 || length > MAX_STRING_BYTES || pos[0] + length > bytes.length) {
+                            throw new IllegalArgumentException("Độ dài chuỗi không hợp lệ");
+                        }
+                        values.add(new String(bytes, pos[0], (int) length, StandardCharsets.UTF_8));
+                        pos[0] += (int) length;
+                    }
+                    default -> throw new IllegalArgumentException("Kiểu khóa không hợp lệ: " + tag);
+                }
+            }
+
+            // Cursor của thứ tự sắp xếp/bộ lọc khác không áp dụng được cho request hiện tại
+            if (hash != null && scopeHash != null && !hash.equals(scopeHash)) {
+                log.warn("Cursor không khớp với thứ tự sắp xếp hiện tại, quay về trang đầu tiên");
+                return null;
+            }
+            return new KeysetCursor(values, hash);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            throw new RuntimeException("Không thể giải mã cursor", e);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
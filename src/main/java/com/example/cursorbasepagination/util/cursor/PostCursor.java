@@ -0,0 +1,56 @@
+package com.example.cursorbasepagination.util.cursor;
+
+import com.example.cursorbasepagination.entity.Post;
+
+import java.util.Date;
+
+/**
+ * Cursor có kiểu cho phân trang bài viết theo khóa (created_at, id).
+ * Được mã hóa/giải mã trực tiếp bởi {@link CursorCodec} mà không cần đi qua Map hay JSON.
+ */
+public final class PostCursor {
+    private final long id;
+    private final long createdAtMillis;
+    // Hash của bộ lọc đã tạo ra cursor (null nếu cursor không gắn với bộ lọc nào)
+    private final Integer filterHash;
+
+    public PostCursor(long id, long createdAtMillis, Integer filterHash) {
+        this.id = id;
+        this.createdAtMillis = createdAtMillis;
+        this.filterHash = filterHash;
+    }
+
+    public PostCursor(long id, long createdAtMillis) {
+        this(id, createdAtMillis, null);
+    }
+
+    /**
+     * Tạo cursor từ khóa phân trang của một bài viết.
+     */
+    public static PostCursor of(Post post) {
+        return new PostCursor(post.getId(), post.getCreatedAt().getTime());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public Date getCreatedAt() {
+        return new Date(createdAtMillis);
+    }
+
+    public Integer getFilterHash() {
+        return filterHash;
+    }
+
+    /**
+     * Trả về bản sao của cursor gắn với hash bộ lọc cho trước.
+     */
+    public PostCursor withFilterHash(Integer filterHash) {
+        return new PostCursor(id, createdAtMillis, filterHash);
+    }
+}
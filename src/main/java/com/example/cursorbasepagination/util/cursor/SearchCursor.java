@@ -0,0 +1,50 @@
+package com.example.cursorbasepagination.util.cursor;
+
+import com.example.cursorbasepagination.entity.ScoredPost;
+
+import java.util.Date;
+
+/**
+ * Cursor cho tìm kiếm theo độ liên quan, theo khóa (score, created_at, id).
+ */
+public final class SearchCursor {
+    private final double score;
+    private final long createdAtMillis;
+    private final long id;
+    // Hash của truy vấn và bộ lọc đã tạo ra cursor (null nếu không gắn)
+    private final Integer filterHash;
+
+    public SearchCursor(double score, long createdAtMillis, long id, Integer filterHash) {
+        this.score = score;
+        this.createdAtMillis = createdAtMillis;
+        this.id = id;
+        this.filterHash = filterHash;
+    }
+
+    /**
+     * Tạo cursor từ khóa sắp xếp của một kết quả tìm kiếm.
+     */
+    public static SearchCursor of(ScoredPost post) {
+        return new SearchCursor(post.getScore(), post.getCreatedAt().getTime(), post.getId(), null);
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public Date getCreatedAt() {
+        return new Date(createdAtMillis);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Integer getFilterHash() {
+        return filterHash;
+    }
+}
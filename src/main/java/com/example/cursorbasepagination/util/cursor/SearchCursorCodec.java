@@ -0,0 +1,108 @@
+package com.example.cursorbasepagination.util.cursor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Codec nhị phân cho {@link SearchCursor}.
+ *
+ * <p>Bố cục (trước khi mã hóa Base64 URL-safe, không padding):
+ * <pre>
+ * [version: 1 byte][flags: 1 byte][score: 8 byte IEEE-754][createdAt: varint][id: varint][filterHash: 4 byte, nếu flags &amp; 0x01]
+ * </pre>
+ * Score được lưu nguyên bit để so sánh bằng trong điều kiện seek khớp chính xác với giá trị MySQL trả về.
+ */
+@Slf4j
+public class SearchCursorCodec implements CursorCodec<SearchCursor> {
+    static final byte VERSION = 2;
+    private static final byte FLAG_FILTER_HASH = 0x01;
+    private static final int MAX_LENGTH = 1 + 1 + 8 + 10 + 10 + 4;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Integer filterHash;
+
+    public SearchCursorCodec() {
+        this(null);
+    }
+
+    private SearchCursorCodec(Integer filterHash) {
+        this.filterHash = filterHash;
+    }
+
+    @Override
+    public CursorCodec<SearchCursor> scopedTo(int filterHash) {
+        return new SearchCursorCodec(filterHash);
+    }
+
+    @Override
+    public String encode(SearchCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        Integer hash = cursor.getFilterHash() != null ? cursor.getFilterHash() : filterHash;
+        byte[] buffer = new byte[MAX_LENGTH];
+        int pos = 0;
+        buffer[pos++] = VERSION;
+        buffer[pos++] = hash != null ? FLAG_FILTER_HASH : 0;
+        long scoreBits = Double.doubleToLongBits(cursor.getScore());
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[pos++] = (byte) (scoreBits >>> shift);
+        }
+        pos = BinaryCursorCodec.writeVarLong(buffer, pos, cursor.getCreatedAtMillis());
+        pos = BinaryCursorCodec.writeVarLong(buffer, pos, cursor.getId());
+        if (hash != null) {
+            int h = hash;
+            buffer[pos++] = (byte) (h >>> 24);
+            buffer[pos++] = (byte) (h >>> 16);
+            buffer[pos++] = (byte) (h >>> 8);
+            buffer[pos++] = (byte) h;
+        }
+        return ENCODER.encodeToString(Arrays.copyOf(buffer, pos));
+    }
+
+    @Override
+    public SearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            byte[] bytes = DECODER.decode(cursor);
+            if (bytes.length < 10 || bytes[0] != VERSION) {
+                throw new IllegalArgumentException("Phiên bản cursor không được hỗ trợ");
+            }
+
+            long scoreBits = 0;
+            for (int i = 2; i < 10; i++) {
+                scoreBits = (scoreBits << 8) | (bytes[i] & 0xFF);
+            }
+            int[] pos = {10};
+            long createdAt = BinaryCursorCodec.readVarLong(bytes, pos);
+            long id = BinaryCursorCodec.readVarLong(bytes, pos);
+            Integer hash = null;
+            if ((bytes[1] & FLAG_FILTER_HASH) != 0) {
+                int p = pos[0];
+                if (p + 4 > bytes.length) {
+                    throw new IllegalArgumentException("Cursor bị cắt ngắn");
+                }
+                hash = ((bytes[p] & 0xFF) << 24) | ((bytes[p + 1] & 0xFF) << 16)
+                        | ((bytes[p + 2] & 0xFF) << 8) | (bytes[p + 3] & 0xFF);
+            }
+
+            // Cursor của truy vấn khác không áp dụng được cho truy vấn hiện tại
+            if (hash != null && filterHash != null && !hash.equals(filterHash)) {
+                log.warn("Cursor không khớp với truy vấn hiện tại, quay về trang đầu tiên");
+                return null;
+            }
+            return new SearchCursor(Double.longBitsToDouble(scoreBits), createdAt, id, hash);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            throw new RuntimeException("Không thể giải mã cursor", e);
+        }
+    }
+}
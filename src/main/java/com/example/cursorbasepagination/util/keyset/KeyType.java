@@ -0,0 +1,8 @@
+package com.example.cursorbasepagination.util.keyset;
+
+/**
+ * Kiểu dữ liệu của một cột khóa, quyết định cách giá trị được lưu trong cursor.
+ */
+public enum KeyType {
+    LONG, TIMESTAMP, STRING
+}
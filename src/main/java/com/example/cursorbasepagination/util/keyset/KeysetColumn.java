@@ -0,0 +1,31 @@
+package com.example.cursorbasepagination.util.keyset;
+
+/**
+ * Một cột có thể dùng làm khóa sắp xếp trong phân trang theo khóa.
+ *
+ * @param <T> Kiểu entity chứa giá trị của cột
+ */
+public interface KeysetColumn<T> {
+
+    /**
+     * Tên cột trong SQL. Chỉ lấy từ danh sách cột khai báo sẵn nên được phép nối trực tiếp vào câu lệnh.
+     */
+    String columnName();
+
+    /**
+     * Tên trường trong API (ví dụ createdAt).
+     */
+    String fieldName();
+
+    KeyType type();
+
+    /**
+     * Cột có thể chứa NULL hay không. NULL được coi là nhỏ nhất, giống thứ tự sắp xếp của MySQL.
+     */
+    boolean nullable();
+
+    /**
+     * Lấy giá trị của cột từ entity (Long, Date hoặc String tùy theo {@link #type()}).
+     */
+    Object extract(T entity);
+}
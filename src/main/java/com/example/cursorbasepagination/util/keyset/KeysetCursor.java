@@ -0,0 +1,27 @@
+package com.example.cursorbasepagination.util.keyset;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cursor cho phân trang theo khóa nhiều cột: giá trị của từng khóa theo đúng thứ tự của {@link SortSpec}.
+ * Giá trị có kiểu Long, Date, String hoặc null.
+ */
+public final class KeysetCursor {
+    private final List<Object> values;
+    // Hash của thứ tự sắp xếp và bộ lọc đã tạo ra cursor (null nếu không gắn)
+    private final Integer scopeHash;
+
+    public KeysetCursor(List<Object> values, Integer scopeHash) {
+        this.values = Collections.unmodifiableList(values);
+        this.scopeHash = scopeHash;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    public Integer getScopeHash() {
+        return scopeHash;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.cursorbasepagination.util.keyset;
+
+import com.example.cursorbasepagination.entity.Post;
+
+import java.util.function.Function;
+
+/**
+ * Các cột của bảng posts có thể dùng làm khóa sắp xếp.
+ */
+public enum PostSortColumn implements KeysetColumn<Post> {
+    CREATED_AT("created_at", "createdAt", KeyType.TIMESTAMP, false, Post::getCreatedAt),
+    ID("id", "id", KeyType.LONG, false, Post::getId),
+    CATEGORY("category", "category", KeyType.STRING, true, Post::getCategory),
+    USER_ID("user_id", "userId", KeyType.LONG, false, Post::getUserId),
+    TITLE("title", "title", KeyType.STRING, false, Post::getTitle);
+
+    private final String columnName;
+    private final String fieldName;
+    private final KeyType type;
+    private final boolean nullable;
+    private final Function<Post, Object> extractor;
+
+    PostSortColumn(String columnName, String fieldName, KeyType type, boolean nullable,
+                   Function<Post, Object> extractor) {
+        this.columnName = columnName;
+        this.fieldName = fieldName;
+        this.type = type;
+        this.nullable = nullable;
+        this.extractor = extractor;
+    }
+
+    @Override
+    public String columnName() {
+        return columnName;
+    }
+
+    @Override
+    public String fieldName() {
+        return fieldName;
+    }
+
+    @Override
+    public KeyType type() {
+        return type;
+    }
+
+    @Override
+    public boolean nullable() {
+        return nullable;
+    }
+
+    @Override
+    public Object extract(Post entity) {
+        return extractor.apply(entity);
+    }
+
+    /**
+     * Tìm cột theo tên trường API hoặc tên cột SQL, null nếu không có.
+     */
+    public static PostSortColumn fromName(String name) {
+        for (PostSortColumn column : values()) {
+            if (column.fieldName.equalsIgnoreCase(name) || column.columnName.equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+}
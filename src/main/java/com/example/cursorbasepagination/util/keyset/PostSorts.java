@@ -0,0 +1,89 @@
+package com.example.cursorbasepagination.util.keyset;
+
+import com.example.cursorbasepagination.entity.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Các thứ tự sắp xếp bài viết được hỗ trợ cho phân trang theo khóa.
+ *
+ * <p>Mỗi thứ tự phải trùng với một index trong db/schema.sql (cùng chiều hoặc ngược hoàn toàn)
+ * để truy vấn ở mọi độ sâu chỉ là một lần seek trên index rồi đọc tối đa LIMIT dòng.
+ * Thứ tự không có index tương ứng bị từ chối thay vì âm thầm chuyển sang filesort.
+ */
+public final class PostSorts {
+
+    // Thứ tự mặc định, giống /api/posts
+    public static final SortSpec<Post> DEFAULT = new SortSpec<>(List.of(
+            SortKey.desc(PostSortColumn.CREATED_AT), SortKey.desc(PostSortColumn.ID)));
+
+    private static final List<SortSpec<Post>> SUPPORTED = List.of(
+            // idx_posts_created_at_id
+            DEFAULT,
+            // idx_posts_category_created_at_id
+            new SortSpec<>(List.of(SortKey.asc(PostSortColumn.CATEGORY),
+                    SortKey.asc(PostSortColumn.CREATED_AT), SortKey.asc(PostSortColumn.ID))),
+            // idx_posts_category_asc_created_at_desc
+            new SortSpec<>(List.of(SortKey.asc(PostSortColumn.CATEGORY),
+                    SortKey.desc(PostSortColumn.CREATED_AT), SortKey.desc(PostSortColumn.ID))),
+            // idx_posts_user_id_created_at_id
+            new SortSpec<>(List.of(SortKey.asc(PostSortColumn.USER_ID),
+                    SortKey.asc(PostSortColumn.CREATED_AT), SortKey.asc(PostSortColumn.ID))),
+            // idx_posts_user_id_asc_created_at_desc
+            new SortSpec<>(List.of(SortKey.asc(PostSortColumn.USER_ID),
+                    SortKey.desc(PostSortColumn.CREATED_AT), SortKey.desc(PostSortColumn.ID))),
+            // idx_posts_title_id
+            new SortSpec<>(List.of(SortKey.asc(PostSortColumn.TITLE), SortKey.asc(PostSortColumn.ID)))
+    );
+
+    private PostSorts() {
+    }
+
+    /**
+     * Phân tích tham số sort dạng "category:asc,createdAt:desc". Nếu thiếu, khóa id được thêm vào cuối
+     * theo chiều của khóa trước đó để thứ tự là toàn phần.
+     *
+     * @param sort Chuỗi sắp xếp (null hoặc rỗng = thứ tự mặc định)
+     * @return Thứ tự sắp xếp được hỗ trợ
+     * @throws IllegalArgumentException nếu chuỗi không hợp lệ hoặc thứ tự không có index tương ứng
+     */
+    public static SortSpec<Post> parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return DEFAULT;
+        }
+
+        List<SortKey<Post>> keys = new ArrayList<>();
+        for (String part : sort.split(",")) {
+            String[] pieces = part.trim().split(":");
+            PostSortColumn column = PostSortColumn.fromName(pieces[0].trim());
+            if (column == null || pieces.length > 2) {
+                throw new IllegalArgumentException("Khóa sắp xếp không hợp lệ: " + part.trim());
+            }
+            String direction = pieces.length == 2 ? pieces[1].trim().toLowerCase() : "asc";
+            if (!direction.equals("asc") && !direction.equals("desc")) {
+                throw new IllegalArgumentException("Chiều sắp xếp không hợp lệ: " + part.trim());
+            }
+            for (SortKey<Post> key : keys) {
+                if (key.getColumn() == column) {
+                    throw new IllegalArgumentException("Khóa sắp xếp bị trùng: " + column.fieldName());
+                }
+            }
+            keys.add(new SortKey<>(column, direction.equals("asc")));
+        }
+
+        SortKey<Post> last = keys.get(keys.size() - 1);
+        if (last.getColumn() != PostSortColumn.ID) {
+            keys.add(new SortKey<>(PostSortColumn.ID, last.isAscending()));
+        }
+
+        SortSpec<Post> spec = new SortSpec<>(keys);
+        for (SortSpec<Post> supported : SUPPORTED) {
+            String candidate = spec.toString();
+            if (candidate.equals(supported.toString()) || candidate.equals(supported.reversed().toString())) {
+                return spec;
+            }
+        }
+        throw new IllegalArgumentException("Thứ tự sắp xếp không được hỗ trợ: " + spec);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.cursorbasepagination.util.keyset;
+
+/**
+ * Một khóa sắp xếp: cột và chiều sắp xếp.
+ *
+ * @param <T> Kiểu entity
+ */
+public final class SortKey<T> {
+    private final KeysetColumn<T> column;
+    private final boolean ascending;
+
+    public SortKey(KeysetColumn<T> column, boolean ascending) {
+        this.column = column;
+        this.ascending = ascending;
+    }
+
+    public static <T> SortKey<T> asc(KeysetColumn<T> column) {
+        return new SortKey<>(column, true);
+    }
+
+    public static <T> SortKey<T> desc(KeysetColumn<T> column) {
+        return new SortKey<>(column, false);
+    }
+
+    public KeysetColumn<T> getColumn() {
+        return column;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    // Khóa cùng cột nhưng ngược chiều
+    public SortKey<T> reversed() {
+        return new SortKey<>(column, !ascending);
+    }
+
+    @Override
+    public String toString() {
+        return column.fieldName() + ":" + (ascending ? "asc" : "desc");
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.cursorbasepagination.util.keyset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Thứ tự sắp xếp khai báo được cho phân trang theo khóa: danh sách có thứ tự các cột có kiểu kèm chiều.
+ *
+ * <p>Từ khai báo này sinh ra mệnh đề ORDER BY, điều kiện seek cho trang tiếp theo (và trang trước đó
+ * bằng {@link #reversed()}), và bố cục cursor (giá trị của từng khóa theo đúng thứ tự).
+ * Khóa cuối cùng phải là cột duy nhất và không NULL (thường là id) để thứ tự là toàn phần.
+ *
+ * <p>NULL được coi là giá trị nhỏ nhất (đứng đầu khi ASC, cuối khi DESC) như MySQL.
+ *
+ * @param <T> Kiểu entity
+ */
+public final class SortSpec<T> {
+    private final List<SortKey<T>> keys;
+
+    public SortSpec(List<SortKey<T>> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("Cần ít nhất một khóa sắp xếp");
+        }
+        if (keys.get(keys.size() - 1).getColumn().nullable()) {
+            throw new IllegalArgumentException("Khóa cuối cùng phải là cột không NULL để phân định thứ tự");
+        }
+        this.keys = Collections.unmodifiableList(new ArrayList<>(keys));
+    }
+
+    public List<SortKey<T>> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Thứ tự ngược lại, dùng để lấy trang trước đó (kết quả cần được đảo lại sau khi truy vấn).
+     */
+    public SortSpec<T> reversed() {
+        List<SortKey<T>> reversedKeys = new ArrayList<>(keys.size());
+        for (SortKey<T> key : keys) {
+            reversedKeys.add(key.reversed());
+        }
+        return new SortSpec<>(reversedKeys);
+    }
+
+    /**
+     * Mệnh đề ORDER BY (không gồm từ khóa), ví dụ "category ASC, created_at DESC, id DESC".
+     */
+    public String orderByClause() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (SortKey<T> key : keys) {
+            joiner.add(key.getColumn().columnName() + (key.isAscending() ? " ASC" : " DESC"));
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Điều kiện chọn các dòng đứng sau cursor theo thứ tự này.
+     *
+     * <p>Dạng: {@code k1 >= ? AND ((k1 > ?) OR (k1 = ? AND k2 < ?) OR ...)}. Cận của khóa đầu tiên giúp
+     * MySQL seek thẳng vào index thay vì quét range rộng. Giá trị được bind qua tham số MyBatis
+     * {@code #{valuesExpression[i]}}; NULL trong cursor được chuyển thành IS NULL / IS NOT NULL.
+     *
+     * @param cursor Cursor chứa giá trị của từng khóa
+     * @param valuesExpression Biểu thức MyBatis trỏ tới danh sách giá trị, ví dụ "cursor.values"
+     * @return Điều kiện SQL có placeholder #{...}
+     */
+    public String seekPredicate(KeysetCursor cursor, String valuesExpression) {
+        List<Object> values = cursor.getValues();
+        if (!matches(cursor)) {
+            throw new IllegalArgumentException("Cursor không khớp với thứ tự sắp xếp");
+        }
+
+        StringJoiner terms = new StringJoiner(" OR ");
+        for (int i = 0; i < keys.size(); i++) {
+            String after = compareAfter(keys.get(i), values.get(i), param(valuesExpression, i));
+            if (after == null) {
+                continue;
+            }
+            StringBuilder term = new StringBuilder("(");
+            for (int j = 0; j < i; j++) {
+                term.append(equalTo(keys.get(j), values.get(j), param(valuesExpression, j))).append(" AND ");
+            }
+            term.append(after).append(')');
+            terms.add(term);
+        }
+        if (terms.length() == 0) {
+            return "1 = 0";
+        }
+
+        String predicate = "(" + terms + ")";
+        String bound = leadingBound(keys.get(0), values.get(0), param(valuesExpression, 0));
+        return bound != null ? bound + " AND " + predicate : predicate;
+    }
+
+    /**
+     * Kiểm tra cursor có đúng số khóa, đúng kiểu và không chứa NULL ở cột không cho phép NULL.
+     */
+    public boolean matches(KeysetCursor cursor) {
+        List<Object> values = cursor.getValues();
+        if (values.size() != keys.size()) {
+            return false;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            KeysetColumn<T> column = keys.get(i).getColumn();
+            Object value = values.get(i);
+            if (value == null ? !column.nullable() : !isOfType(value, column.type())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tạo cursor từ giá trị các khóa của entity.
+     */
+    public KeysetCursor cursorOf(T entity, Integer scopeHash) {
+        List<Object> values = new ArrayList<>(keys.size());
+        for (SortKey<T> key : keys) {
+            values.add(key.getColumn().extract(entity));
+        }
+        return new KeysetCursor(values, scopeHash);
+    }
+
+    /**
+     * Comparator theo cùng thứ tự với {@link #orderByClause()}, dùng để trộn các trang đã sắp xếp
+     * (ví dụ từ nhiều shard). NULL nhỏ nhất; chuỗi được so sánh không phân biệt hoa thường như collation
+     * _ci mặc định của MySQL, nên hai giá trị chỉ khác hoa thường được phân định bởi khóa kế tiếp.
+     */
+    public Comparator<T> comparator() {
+        return (a, b) -> {
+            for (SortKey<T> key : keys) {
+                int result = compareValues(key.getColumn().type(),
+                        key.getColumn().extract(a), key.getColumn().extract(b));
+                if (result != 0) {
+                    return key.isAscending() ? result : -result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Dấu vân tay ổn định của thứ tự sắp xếp, dùng để cursor của thứ tự khác không bị dùng nhầm.
+     */
+    public int fingerprint() {
+        return toString().hashCode();
+    }
+
+    // Ví dụ "category:asc,createdAt:desc,id:desc"
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(",");
+        for (SortKey<T> key : keys) {
+            joiner.add(key.toString());
+        }
+        return joiner.toString();
+    }
+
+    private static boolean isOfType(Object value, KeyType type) {
+        return switch (type) {
+            case LONG -> value instanceof Long;
+            case TIMESTAMP -> value instanceof Date;
+            case STRING -> value instanceof String;
+        };
+    }
+
+    private static int compareValues(KeyType type, Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return switch (type) {
+            case LONG -> Long.compare((Long) a, (Long) b);
+            // Timestamp và Date được so sánh theo mili giây
+            case TIMESTAMP -> Long.compare(((Date) a).getTime(), ((Date) b).getTime());
+            case STRING -> String.CASE_INSENSITIVE_ORDER.compare((String) a, (String) b);
+        };
+    }
+
+    private static String param(String valuesExpression, int index) {
+        return "#{" + valuesExpression + "[" + index + "]}";
+    }
+
+    // Điều kiện "đứng sau giá trị" cho một khóa, null nếu không dòng nào thỏa mãn
+    private static <T> String compareAfter(SortKey<T> key, Object value, String param) {
+        String column = key.getColumn().columnName();
+        boolean nullable = key.getColumn().nullable();
+        if (key.isAscending()) {
+            if (value == null) {
+                // Mọi giá trị khác NULL đều lớn hơn NULL
+                return column + " IS NOT NULL";
+            }
+            return column + " > " + param;
+        }
+        if (value == null) {
+            // Không có giá trị nào nhỏ hơn NULL
+            return null;
+        }
+        return nullable ? "(" + column + " < " + param + " OR " + column + " IS NULL)" : column + " < " + param;
+    }
+
+    private static <T> String equalTo(SortKey<T> key, Object value, String param) {
+        String column = key.getColumn().columnName();
+        return value == null ? column + " IS NULL" : column + " = " + param;
+    }
+
+    // Cận của khóa đầu tiên (>= hoặc <=), chỉ áp dụng khi cột và giá trị đều không NULL
+    private static <T> String leadingBound(SortKey<T> key, Object value, String param) {
+        if (value == null || key.getColumn().nullable()) {
+            return null;
+        }
+        return key.getColumn().columnName() + (key.isAscending() ? " >= " : " <= ") + param;
+    }
+}
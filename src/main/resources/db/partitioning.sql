@@ -0,0 +1,23 @@
+-- Phân vùng bảng posts theo tháng trên created_at (bật kèm pagination.partitioning.enabled=true).
+-- MySQL yêu cầu cột phân vùng nằm trong mọi khóa duy nhất, nên khóa chính đổi thành (id, created_at);
+-- id vẫn là AUTO_INCREMENT và là cột đầu của khóa chính nên tra cứu theo id không đổi.
+-- FULLTEXT index không được hỗ trợ trên bảng phân vùng: /api/posts/search cần bảng tìm kiếm riêng.
+ALTER TABLE posts
+    DROP INDEX ft_posts_title,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE posts
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p202401 VALUES LESS THAN ('2024-02-01'),
+        PARTITION p202402 VALUES LESS THAN ('2024-03-01'),
+        PARTITION p202403 VALUES LESS THAN ('2024-04-01'),
+        -- ... một phân vùng cho mỗi tháng ...
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+-- Thêm tháng mới bằng cách tách phân vùng pmax (planner tự nạp lại danh sách sau refresh-interval):
+-- ALTER TABLE posts REORGANIZE PARTITION pmax INTO (
+--     PARTITION p202404 VALUES LESS THAN ('2024-05-01'),
+--     PARTITION pmax VALUES LESS THAN (MAXVALUE)
+-- );
@@ -0,0 +1,36 @@
+-- Bảng bài viết và các composite index phục vụ phân trang theo khóa (created_at, id).
+-- Mỗi dạng bộ lọc của PostMapper có một index kết thúc bằng (created_at, id) để truy vấn
+-- là một lần seek trên index rồi đọc tối đa LIMIT dòng, bất kể trang sâu đến đâu.
+CREATE TABLE IF NOT EXISTS posts (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    title      VARCHAR(255) NOT NULL,
+    content    TEXT,
+    created_at DATETIME(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    user_id    BIGINT       NOT NULL,
+    category   VARCHAR(64),
+    PRIMARY KEY (id),
+    -- findFirstPage / findNextPage / findPreviousPage, bộ lọc chỉ có startDate/endDate
+    KEY idx_posts_created_at_id (created_at, id),
+    -- bộ lọc category
+    KEY idx_posts_category_created_at_id (category, created_at, id),
+    -- bộ lọc userId
+    KEY idx_posts_user_id_created_at_id (user_id, created_at, id),
+    -- /api/posts/sorted với chiều hỗn hợp (category ASC, created_at DESC); index giảm dần cần MySQL 8
+    KEY idx_posts_category_asc_created_at_desc (category ASC, created_at DESC, id DESC),
+    -- /api/posts/sorted với chiều hỗn hợp (user_id ASC, created_at DESC)
+    KEY idx_posts_user_id_asc_created_at_desc (user_id ASC, created_at DESC, id DESC),
+    -- /api/posts/sorted theo tiêu đề
+    KEY idx_posts_title_id (title, id),
+    -- tìm kiếm theo tiêu đề (/api/posts/search), tách token bằng n-gram (ngram_token_size mặc định là 2)
+    FULLTEXT KEY ft_posts_title (title) WITH PARSER ngram
+) ENGINE = InnoDB;
+
+-- Với bảng đã tồn tại, thêm các index bằng:
+-- ALTER TABLE posts
+--     ADD KEY idx_posts_created_at_id (created_at, id),
+--     ADD KEY idx_posts_category_created_at_id (category, created_at, id),
+--     ADD KEY idx_posts_user_id_created_at_id (user_id, created_at, id),
+--     ADD KEY idx_posts_category_asc_created_at_desc (category ASC, created_at DESC, id DESC),
+--     ADD KEY idx_posts_user_id_asc_created_at_desc (user_id ASC, created_at DESC, id DESC),
+--     ADD KEY idx_posts_title_id (title, id),
+--     ADD FULLTEXT KEY ft_posts_title (title) WITH PARSER ngram;
@@ -0,0 +1,146 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dao.PostShards;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CountEstimateCacheTest {
+
+	private static final PostFilter NEWS = PostFilter.of(null, "news", null, null, null);
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final PostMapper mapper = mock(PostMapper.class);
+	private CountEstimateCache cache;
+
+	@AfterEach
+	void tearDown() {
+		if (cache != null) {
+			cache.shutdown();
+		}
+	}
+
+	@Test
+	void largeEstimateComesFromExplain() throws InterruptedException {
+		explainReturns(200_000, 50.0);
+		cache = cache(true, 100);
+
+		assertEquals(100_000L, awaitEstimate(NEWS));
+		verify(mapper, never()).countWithFilters(any(), any(), any(), any(), any());
+	}
+
+	@Test
+	void selectiveFilterIsCountedExactly() throws InterruptedException {
+		explainReturns(100, 100.0);
+		when(mapper.countWithFilters(any(), eq("news"), any(), any(), any())).thenReturn(42L);
+		cache = cache(true, 100);
+
+		assertEquals(42L, awaitEstimate(NEWS));
+	}
+
+	@Test
+	void titleFiltersAreNotEstimated() {
+		cache = cache(true, 100);
+
+		assertNull(cache.estimate(PostFilter.of("java", null, null, null, null)));
+		verifyNoInteractions(mapper);
+	}
+
+	@Test
+	void disabledNeverQueries() {
+		cache = cache(false, 100);
+
+		assertNull(cache.estimate(NEWS));
+		verifyNoInteractions(mapper);
+	}
+
+	@Test
+	void burstOfChangesRefreshesOnce() throws InterruptedException {
+		explainReturns(200_000, 100.0);
+		cache = cache(true, 100);
+		awaitEstimate(NEWS);
+
+		for (int i = 0; i < 100; i++) {
+			cache.onPostsChanged(new PostsChangedEvent(Set.of("news"), Set.of(1L)));
+		}
+
+		// Lần tính đầu và đúng một lần tính lại cho cả loạt sự kiện
+		verify(mapper, after(300).times(2)).explainWithFilters(any(), any(), any(), any(), any());
+	}
+
+	@Test
+	void unaffectedFilterIsNotRefreshed() throws InterruptedException {
+		explainReturns(200_000, 100.0);
+		cache = cache(true, 100);
+		awaitEstimate(NEWS);
+
+		cache.onPostsChanged(new PostsChangedEvent(Set.of("sports"), Set.of(1L)));
+
+		verify(mapper, after(300).times(1)).explainWithFilters(any(), any(), any(), any(), any());
+	}
+
+	@Test
+	void fullQueueDiscardsLoadAndRetriesLater() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		when(mapper.explainWithFilters(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return List.of(Map.of("rows", 200_000, "filtered", 100.0));
+		});
+		// Một luồng, hàng đợi một việc
+		cache = cache(true, 1);
+		PostFilter running = PostFilter.of(null, "a", null, null, null);
+		PostFilter queued = PostFilter.of(null, "b", null, null, null);
+		PostFilter discarded = PostFilter.of(null, "c", null, null, null);
+
+		assertNull(cache.estimate(running));
+		verify(mapper, timeout(1000)).explainWithFilters(any(), eq("a"), any(), any(), any());
+		assertNull(cache.estimate(queued));
+		assertNull(cache.estimate(discarded));
+		assertEquals(1, registry.get("pagination.count-estimate.rejected").counter().count());
+
+		release.countDown();
+		// Việc bị bỏ không bị giữ trong cache nên request sau tính lại
+		assertEquals(200_000L, awaitEstimate(discarded));
+	}
+
+	private CountEstimateCache cache(boolean enabled, int queueSize) {
+		return new CountEstimateCache(mapper, noShards(), registry, enabled, 100, Duration.ofHours(1),
+				Duration.ofHours(1), 10_000, 1, queueSize, Duration.ofMillis(50));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ObjectProvider<PostShards> noShards() {
+		return mock(ObjectProvider.class);
+	}
+
+	private void explainReturns(long rows, double filtered) {
+		when(mapper.explainWithFilters(any(), any(), any(), any(), any()))
+				.thenReturn(List.of(Map.of("rows", rows, "filtered", filtered)));
+	}
+
+	// estimate không chờ nên hỏi lại tới khi giá trị được tính xong
+	private Long awaitEstimate(PostFilter filter) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		Long estimate;
+		while ((estimate = cache.estimate(filter)) == null && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		return estimate;
+	}
+}
@@ -0,0 +1,139 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirstPageCacheTest {
+
+	private static final PostFilter NEWS = PostFilter.of(null, "news", null, null, null);
+
+	private final FirstPageCache cache = new FirstPageCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+	private final AtomicInteger loads = new AtomicInteger();
+	private final ExecutorService threads = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void tearDown() {
+		threads.shutdownNow();
+	}
+
+	@Test
+	void secondRequestIsServedFromCache() {
+		CursorPageResponse<Post> first = cache.get(NEWS, 10, null, loader());
+
+		assertSame(first, cache.get(NEWS, 10, null, loader()));
+		assertEquals(1, loads.get());
+		// limit và fields là một phần của khóa
+		cache.get(NEWS, 20, null, loader());
+		cache.get(NEWS, 10, Set.of("title"), loader());
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void changeInvalidatesOnlyAffectedFilters() {
+		PostFilter sports = PostFilter.of(null, "sports", null, null, null);
+		cache.get(NEWS, 10, null, loader());
+		cache.get(sports, 10, null, loader());
+
+		cache.onPostsChanged(new PostsChangedEvent(Set.of("news"), Set.of(1L)));
+		cache.get(NEWS, 10, null, loader());
+		cache.get(sports, 10, null, loader());
+
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void globalChangeInvalidatesEverything() {
+		cache.get(NEWS, 10, null, loader());
+		cache.get(PostFilter.none(), 10, null, loader());
+
+		cache.onPostsChanged(PostsChangedEvent.all());
+		cache.get(NEWS, 10, null, loader());
+		cache.get(PostFilter.none(), 10, null, loader());
+
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void pageLoadedDuringChangeIsReturnedButNotKept() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CursorPageResponse<Post> stale = page();
+		Future<CursorPageResponse<Post>> request = threads.submit(() -> cache.get(NEWS, 10, null, () -> {
+			loading.countDown();
+			await(release);
+			return stale;
+		}));
+		assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+		// Truy vấn có thể đã đọc trước thay đổi này
+		cache.onPostsChanged(new PostsChangedEvent(Set.of("news"), Set.of(1L)));
+		release.countDown();
+
+		assertSame(stale, request.get(5, TimeUnit.SECONDS));
+		assertNotSame(stale, cache.get(NEWS, 10, null, loader()));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void unrelatedChangeDuringLoadKeepsPage() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CursorPageResponse<Post> loaded = page();
+		Future<CursorPageResponse<Post>> request = threads.submit(() -> cache.get(NEWS, 10, null, () -> {
+			loading.countDown();
+			await(release);
+			return loaded;
+		}));
+		assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+		cache.onPostsChanged(new PostsChangedEvent(Set.of("sports"), Set.of(1L)));
+		release.countDown();
+
+		assertSame(loaded, request.get(5, TimeUnit.SECONDS));
+		assertSame(loaded, cache.get(NEWS, 10, null, loader()));
+		assertEquals(0, loads.get());
+	}
+
+	@Test
+	void disabledAlwaysLoads() {
+		FirstPageCache disabled = new FirstPageCache(new SimpleMeterRegistry(), false, 100, Duration.ofMinutes(1));
+
+		disabled.get(NEWS, 10, null, loader());
+		disabled.get(NEWS, 10, null, loader());
+
+		assertEquals(2, loads.get());
+	}
+
+	private Supplier<CursorPageResponse<Post>> loader() {
+		return () -> {
+			loads.incrementAndGet();
+			return page();
+		};
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static CursorPageResponse<Post> page() {
+		return new CursorPageResponse<>(List.of(), null, null, false, false);
+	}
+}
@@ -0,0 +1,167 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NextPagePrefetcherTest {
+
+	private static final PostFilter NEWS = PostFilter.of(null, "news", null, null, null);
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final NextPagePrefetcher prefetcher = prefetcher(true, 64, Duration.ofSeconds(5));
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		prefetcher.shutdown();
+	}
+
+	@Test
+	void prefetchedPageIsServedOnce() {
+		List<Post> prefetched = List.of(post(1L));
+		NextPagePrefetcher.Key key = key(NEWS, 1L);
+
+		prefetcher.prefetch(key, () -> prefetched);
+
+		assertSame(prefetched, prefetcher.fetch(key, NextPagePrefetcherTest::failIfLoaded));
+		// Trang tải trước chỉ được dùng một lần
+		List<Post> loaded = List.of(post(2L));
+		assertSame(loaded, prefetcher.fetch(key, () -> loaded));
+		assertEquals(1, count("hit"));
+		assertEquals(1, count("miss"));
+	}
+
+	@Test
+	void keyIncludesCursorLimitAndFields() {
+		prefetcher.prefetch(key(NEWS, 1L), () -> List.of(post(1L)));
+		List<Post> loaded = List.of(post(2L));
+
+		assertSame(loaded, prefetcher.fetch(key(NEWS, 2L), () -> loaded));
+		assertSame(loaded, prefetcher.fetch(NextPagePrefetcher.key(NEWS, 20, null, cursor(1L)), () -> loaded));
+		assertSame(loaded, prefetcher.fetch(NextPagePrefetcher.key(NEWS, 10, Set.of("title"), cursor(1L)),
+				() -> loaded));
+	}
+
+	@Test
+	void changeEventDropsAffectedPages() {
+		PostFilter sports = PostFilter.of(null, "sports", null, null, null);
+		List<Post> news = List.of(post(1L));
+		List<Post> sportsPage = List.of(post(2L));
+		prefetcher.prefetch(key(NEWS, 1L), () -> news);
+		prefetcher.prefetch(key(sports, 1L), () -> sportsPage);
+
+		prefetcher.onPostsChanged(new PostsChangedEvent(Set.of("news"), Set.of(1L)));
+
+		List<Post> fresh = List.of(post(3L));
+		assertSame(fresh, prefetcher.fetch(key(NEWS, 1L), () -> fresh));
+		assertSame(sportsPage, prefetcher.fetch(key(sports, 1L), NextPagePrefetcherTest::failIfLoaded));
+	}
+
+	@Test
+	void failedPrefetchFallsBackToLoader() {
+		NextPagePrefetcher.Key key = key(NEWS, 1L);
+		prefetcher.prefetch(key, () -> {
+			throw new IllegalStateException("mất kết nối");
+		});
+
+		List<Post> loaded = List.of(post(1L));
+		assertSame(loaded, prefetcher.fetch(key, () -> loaded));
+	}
+
+	@Test
+	void slowPrefetchFallsBackAfterWaitTimeout() {
+		NextPagePrefetcher impatient = prefetcher(true, 64, Duration.ofMillis(20));
+		try {
+			NextPagePrefetcher.Key key = key(NEWS, 1L);
+			impatient.prefetch(key, blocking(List.of(post(1L))));
+
+			List<Post> loaded = List.of(post(2L));
+			assertSame(loaded, impatient.fetch(key, () -> loaded));
+		} finally {
+			impatient.shutdown();
+		}
+	}
+
+	@Test
+	void prefetchOverInFlightLimitIsRejected() {
+		NextPagePrefetcher single = prefetcher(true, 1, Duration.ofSeconds(5));
+		try {
+			single.prefetch(key(NEWS, 1L), blocking(List.of(post(1L))));
+			single.prefetch(key(NEWS, 2L), () -> List.of(post(2L)));
+
+			assertEquals(1, count("issued"));
+			assertEquals(1, count("rejected"));
+			List<Post> loaded = List.of(post(3L));
+			assertSame(loaded, single.fetch(key(NEWS, 2L), () -> loaded));
+		} finally {
+			single.shutdown();
+		}
+	}
+
+	@Test
+	void disabledAlwaysLoads() {
+		NextPagePrefetcher disabled = prefetcher(false, 64, Duration.ofSeconds(5));
+		try {
+			disabled.prefetch(key(NEWS, 1L), NextPagePrefetcherTest::failIfLoaded);
+
+			List<Post> loaded = List.of(post(1L));
+			assertSame(loaded, disabled.fetch(key(NEWS, 1L), () -> loaded));
+			assertEquals(0, count("issued"));
+		} finally {
+			disabled.shutdown();
+		}
+	}
+
+	private NextPagePrefetcher prefetcher(boolean enabled, int maxInFlight, Duration waitTimeout) {
+		return new NextPagePrefetcher(registry, enabled, 1, maxInFlight, Duration.ofMinutes(1), waitTimeout);
+	}
+
+	// Truy vấn tải trước bị giữ lại tới khi test kết thúc
+	private Supplier<List<Post>> blocking(List<Post> posts) {
+		return () -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return posts;
+		};
+	}
+
+	private double count(String result) {
+		return registry.get("pagination.prefetch").tag("result", result).counter().count();
+	}
+
+	private static NextPagePrefetcher.Key key(PostFilter filter, long cursorId) {
+		return NextPagePrefetcher.key(filter, 10, null, cursor(cursorId));
+	}
+
+	private static PostCursor cursor(long id) {
+		return new PostCursor(id, 1000L * id);
+	}
+
+	private static List<Post> failIfLoaded() {
+		throw new AssertionError("Không được truy vấn lại");
+	}
+
+	private static Post post(long id) {
+		Post post = new Post();
+		post.setId(id);
+		return post;
+	}
+}
@@ -0,0 +1,194 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dto.request.CursorPageRequest;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageRequestCoalescerTest {
+
+	private final PageRequestCoalescer coalescer =
+			new PageRequestCoalescer(new SimpleMeterRegistry(), true, Duration.ofSeconds(5));
+	private final ExecutorService threads = Executors.newCachedThreadPool();
+
+	// Truy vấn của leader bị giữ lại tới khi được mở
+	private final CountDownLatch leaderStarted = new CountDownLatch(1);
+	private final CountDownLatch releaseLeader = new CountDownLatch(1);
+
+	@AfterEach
+	void tearDown() {
+		releaseLeader.countDown();
+		threads.shutdownNow();
+	}
+
+	@Test
+	void concurrentIdenticalRequestJoinsRunningQuery() throws Exception {
+		CursorPageResponse<Post> page = page();
+		PageRequestCoalescer.Key key = key(PostFilter.none(), "c1");
+		Future<CursorPageResponse<Post>> leader = threads.submit(() -> coalescer.execute(key, blocking(() -> page)));
+		leaderStarted.await();
+
+		AtomicInteger followerQueries = new AtomicInteger();
+		Future<CursorPageResponse<Post>> follower = submitAndAwaitWaiting(() -> coalescer.execute(key, () -> {
+			followerQueries.incrementAndGet();
+			return page();
+		}));
+		releaseLeader.countDown();
+
+		assertSame(page, leader.get(5, TimeUnit.SECONDS));
+		assertSame(page, follower.get(5, TimeUnit.SECONDS));
+		assertEquals(0, followerQueries.get());
+	}
+
+	@Test
+	void failureIsSharedWithWaitingRequests() throws Exception {
+		IllegalStateException failure = new IllegalStateException("database lỗi");
+		PageRequestCoalescer.Key key = key(PostFilter.none(), "c1");
+		Future<CursorPageResponse<Post>> leader = threads.submit(() -> coalescer.execute(key, blocking(() -> {
+			throw failure;
+		})));
+		leaderStarted.await();
+
+		Future<CursorPageResponse<Post>> follower =
+				submitAndAwaitWaiting(() -> coalescer.execute(key, PageRequestCoalescerTest::page));
+		releaseLeader.countDown();
+
+		assertSame(failure,
+				assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+		assertSame(failure,
+				assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+	}
+
+	@Test
+	void differentKeysDoNotJoin() throws Exception {
+		PageRequestCoalescer.Key key = key(PostFilter.none(), "c1");
+		threads.submit(() -> coalescer.execute(key, blocking(PageRequestCoalescerTest::page)));
+		leaderStarted.await();
+
+		// Leader vẫn đang chạy nên các request này chỉ trả về được nếu tự truy vấn
+		CursorPageResponse<Post> otherCursor = page();
+		assertSame(otherCursor, coalescer.execute(key(PostFilter.none(), "c2"), () -> otherCursor));
+		CursorPageResponse<Post> otherFilter = page();
+		assertSame(otherFilter, coalescer.execute(key(PostFilter.of(null, "news", null, null, null), "c1"),
+				() -> otherFilter));
+	}
+
+	@Test
+	void keyIncludesDirectionLimitAndFields() {
+		PostFilter filter = PostFilter.none();
+		CursorPageRequest next = request("c1", CursorPageRequest.PaginationDirection.NEXT);
+		CursorPageRequest previous = request("c1", CursorPageRequest.PaginationDirection.PREVIOUS);
+
+		assertEquals(PageRequestCoalescer.key(filter, next, 11, null), PageRequestCoalescer.key(filter, next, 11, null));
+		assertNotEquals(PageRequestCoalescer.key(filter, next, 11, null),
+				PageRequestCoalescer.key(filter, previous, 11, null));
+		assertNotEquals(PageRequestCoalescer.key(filter, next, 11, null), PageRequestCoalescer.key(filter, next, 21, null));
+		assertNotEquals(PageRequestCoalescer.key(filter, next, 11, null),
+				PageRequestCoalescer.key(filter, next, 11, Set.of("title")));
+	}
+
+	@Test
+	void resultIsNotKeptAfterQueryCompletes() {
+		PageRequestCoalescer.Key key = key(PostFilter.none(), "c1");
+		AtomicInteger queries = new AtomicInteger();
+		Supplier<CursorPageResponse<Post>> query = () -> {
+			queries.incrementAndGet();
+			return page();
+		};
+
+		coalescer.execute(key, query);
+		coalescer.execute(key, query);
+
+		assertEquals(2, queries.get());
+	}
+
+	@Test
+	void waiterRunsOwnQueryAfterTimeout() throws Exception {
+		PageRequestCoalescer shortWait = new PageRequestCoalescer(new SimpleMeterRegistry(), true, Duration.ofMillis(50));
+		PageRequestCoalescer.Key key = key(PostFilter.none(), "c1");
+		threads.submit(() -> shortWait.execute(key, blocking(PageRequestCoalescerTest::page)));
+		leaderStarted.await();
+
+		CursorPageResponse<Post> own = page();
+		assertSame(own, shortWait.execute(key, () -> own));
+	}
+
+	@Test
+	void changeEventDetachesAffectedQueries() throws Exception {
+		PostFilter news = PostFilter.of(null, "news", null, null, null);
+		PageRequestCoalescer.Key key = key(news, "c1");
+		threads.submit(() -> coalescer.execute(key, blocking(PageRequestCoalescerTest::page)));
+		leaderStarted.await();
+
+		coalescer.onPostsChanged(new PostsChangedEvent(Set.of("news"), Set.of(1L)));
+
+		// Không chờ truy vấn có thể chưa thấy thay đổi
+		CursorPageResponse<Post> fresh = page();
+		assertSame(fresh, coalescer.execute(key, () -> fresh));
+	}
+
+	@Test
+	void disabledAlwaysRunsQuery() {
+		PageRequestCoalescer disabled = new PageRequestCoalescer(new SimpleMeterRegistry(), false, Duration.ofSeconds(5));
+		CursorPageResponse<Post> page = page();
+
+		assertSame(page, disabled.execute(key(PostFilter.none(), "c1"), () -> page));
+	}
+
+	private Supplier<CursorPageResponse<Post>> blocking(Supplier<CursorPageResponse<Post>> query) {
+		return () -> {
+			leaderStarted.countDown();
+			try {
+				releaseLeader.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return query.get();
+		};
+	}
+
+	// Chạy request trên luồng khác và chờ tới khi nó đang chờ truy vấn của leader
+	private Future<CursorPageResponse<Post>> submitAndAwaitWaiting(Callable<CursorPageResponse<Post>> request)
+			throws InterruptedException {
+		AtomicReference<Thread> thread = new AtomicReference<>();
+		Future<CursorPageResponse<Post>> future = threads.submit(() -> {
+			thread.set(Thread.currentThread());
+			return request.call();
+		});
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!future.isDone() && System.nanoTime() < deadline
+				&& (thread.get() == null || thread.get().getState() != Thread.State.TIMED_WAITING)) {
+			Thread.sleep(5);
+		}
+		return future;
+	}
+
+	private static PageRequestCoalescer.Key key(PostFilter filter, String cursor) {
+		return PageRequestCoalescer.key(filter, request(cursor, CursorPageRequest.PaginationDirection.NEXT), 11, null);
+	}
+
+	private static CursorPageRequest request(String cursor, CursorPageRequest.PaginationDirection direction) {
+		CursorPageRequest request = new CursorPageRequest();
+		request.setCursor(cursor);
+		request.setDirection(direction);
+		return request;
+	}
+
+	private static CursorPageResponse<Post> page() {
+		return new CursorPageResponse<>(List.of(), null, null, false, false);
+	}
+}
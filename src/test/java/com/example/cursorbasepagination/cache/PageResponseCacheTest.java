@@ -0,0 +1,134 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.config.ResponseFormats;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageResponseCacheTest {
+
+	private final PageResponseCache cache = new PageResponseCache(
+			new ResponseFormats(new ObjectMapper()), new SimpleMeterRegistry(), true,
+			DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+
+	@Test
+	void matchesExactWeakListAndWildcard() {
+		String etag = "\"abc\"";
+
+		assertTrue(PageResponseCache.matches("\"abc\"", etag));
+		assertTrue(PageResponseCache.matches("W/\"abc\"", etag));
+		assertTrue(PageResponseCache.matches("\"x\", W/\"abc\"", etag));
+		assertTrue(PageResponseCache.matches("*", etag));
+		assertFalse(PageResponseCache.matches("\"abcd\"", etag));
+		assertFalse(PageResponseCache.matches("abc", etag));
+		assertFalse(PageResponseCache.matches(null, etag));
+		assertFalse(PageResponseCache.matches(" ", etag));
+	}
+
+	@Test
+	void etagIsQuotedAndStable() {
+		String etag = cache.etag(page(post(1L, 100L), post(2L, 50L)), null, ResponseFormats.Format.JSON);
+
+		assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+		assertEquals(etag, cache.etag(page(post(1L, 100L), post(2L, 50L)), null, ResponseFormats.Format.JSON));
+	}
+
+	@Test
+	void etagDependsOnItemsFlagsAndCursors() {
+		String etag = cache.etag(page(post(1L, 100L), post(2L, 50L)), null, ResponseFormats.Format.JSON);
+
+		assertNotEquals(etag, cache.etag(page(post(2L, 50L), post(1L, 100L)), null, ResponseFormats.Format.JSON));
+		assertNotEquals(etag, cache.etag(page(post(1L, 101L), post(2L, 50L)), null, ResponseFormats.Format.JSON));
+
+		CursorPageResponse<Post> withNext = page(post(1L, 100L), post(2L, 50L));
+		withNext.setHasNext(true);
+		withNext.setNextCursor("next");
+		assertNotEquals(etag, cache.etag(withNext, null, ResponseFormats.Format.JSON));
+	}
+
+	@Test
+	void etagDependsOnFieldsButNotTheirOrder() {
+		CursorPageResponse<Post> page = page(post(1L, 100L));
+		Set<String> titleFirst = new LinkedHashSet<>(List.of("title", "userId"));
+		Set<String> userFirst = new LinkedHashSet<>(List.of("userId", "title"));
+
+		String all = cache.etag(page, null, ResponseFormats.Format.JSON);
+		String projected = cache.etag(page, titleFirst, ResponseFormats.Format.JSON);
+
+		assertNotEquals(all, projected);
+		assertEquals(projected, cache.etag(page, userFirst, ResponseFormats.Format.JSON));
+	}
+
+	@Test
+	void etagDependsOnFormat() {
+		CursorPageResponse<Post> page = page(post(1L, 100L));
+
+		assertNotEquals(cache.etag(page, null, ResponseFormats.Format.JSON),
+				cache.etag(page, null, ResponseFormats.Format.SMILE));
+		assertNotEquals(cache.etag(page, null, ResponseFormats.Format.SMILE),
+				cache.etag(page, null, ResponseFormats.Format.CBOR));
+	}
+
+	@Test
+	void changeEventInvalidatesEtagAndBytes() {
+		CursorPageResponse<Post> page = page(post(1L, 100L));
+		String before = cache.etag(page, null, ResponseFormats.Format.JSON);
+		byte[] cached = cache.serialize(before, page, null, ResponseFormats.Format.JSON);
+
+		cache.onPostsChanged(PostsChangedEvent.all());
+		String after = cache.etag(page, null, ResponseFormats.Format.JSON);
+
+		// Sửa nội dung không đổi (id, createdAt) nhưng ETag vẫn phải đổi
+		assertNotEquals(before, after);
+		assertNotSame(cached, cache.serialize(before, page, null, ResponseFormats.Format.JSON));
+	}
+
+	@Test
+	void serializeReusesBytesForSameEtag() {
+		CursorPageResponse<Post> page = page(post(1L, 100L));
+		String etag = cache.etag(page, null, ResponseFormats.Format.JSON);
+
+		assertSame(cache.serialize(etag, page, null, ResponseFormats.Format.JSON),
+				cache.serialize(etag, page, null, ResponseFormats.Format.JSON));
+	}
+
+	@Test
+	void onlyProjectedPagesOmitNullFields() {
+		CursorPageResponse<Post> page = page(post(1L, 100L));
+		Set<String> fields = Set.of("title");
+
+		String full = new String(cache.serialize(cache.etag(page, null, ResponseFormats.Format.JSON),
+				page, null, ResponseFormats.Format.JSON), StandardCharsets.UTF_8);
+		String projected = new String(cache.serialize(cache.etag(page, fields, ResponseFormats.Format.JSON),
+				page, fields, ResponseFormats.Format.JSON), StandardCharsets.UTF_8);
+
+		assertTrue(full.contains("\"content\":null"));
+		assertFalse(projected.contains("\"content\""));
+		assertTrue(projected.contains("\"title\":\"t1\""));
+	}
+
+	private static CursorPageResponse<Post> page(Post... posts) {
+		return new CursorPageResponse<>(List.of(posts), null, null, false, false);
+	}
+
+	private static Post post(long id, long createdAt) {
+		Post post = new Post();
+		post.setId(id);
+		post.setCreatedAt(new Date(createdAt));
+		post.setTitle("t" + id);
+		return post;
+	}
+}
@@ -0,0 +1,91 @@
+package com.example.cursorbasepagination.cache;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class PostRowCacheTest {
+
+	private final PostMapper postMapper = mock(PostMapper.class);
+	// Các id được đọc từ database theo thứ tự
+	private final List<Long> loaded = new ArrayList<>();
+
+	private final PostRowCache cache = new PostRowCache(postMapper, new SimpleMeterRegistry(), true, 1000,
+			Duration.ofMinutes(5));
+
+	@BeforeEach
+	void setUp() {
+		when(postMapper.findByIds(anyList())).thenAnswer(invocation -> {
+			List<Post> rows = new ArrayList<>();
+			for (Object id : (List<?>) invocation.getArgument(0)) {
+				loaded.add((Long) id);
+				rows.add(post((Long) id, "news"));
+			}
+			return rows;
+		});
+		cache.hydrate(List.of(key(1L), key(2L)), null);
+		loaded.clear();
+	}
+
+	@Test
+	void hydrateReadsOnlyMissingRowsAndProjects() {
+		List<Post> page = cache.hydrate(List.of(key(2L), key(3L), key(1L)), Set.of("title"));
+
+		assertEquals(List.of(3L), loaded);
+		assertEquals(List.of(2L, 3L, 1L), page.stream().map(Post::getId).toList());
+		assertEquals("t2", page.get(0).getTitle());
+		assertNull(page.get(0).getCategory());
+	}
+
+	@Test
+	void insertsDoNotEvict() {
+		cache.onPostsChanged(PostsChangedEvent.inserted(Set.of("news"), Set.of(1L)));
+
+		cache.hydrate(List.of(key(1L), key(2L)), null);
+		assertTrue(loaded.isEmpty());
+	}
+
+	@Test
+	void changedIdsAreEvictedOnly() {
+		cache.onPostsChanged(new PostsChangedEvent(Set.of("news"), Set.of(1L), Set.of(1L)));
+
+		cache.hydrate(List.of(key(1L), key(2L)), null);
+		assertEquals(List.of(1L), loaded);
+	}
+
+	@Test
+	void unknownChangesEvictEverything() {
+		cache.onPostsChanged(new PostsChangedEvent(Set.of("sport"), Set.of(9L)));
+
+		cache.hydrate(List.of(key(1L), key(2L)), null);
+		assertEquals(List.of(1L, 2L), loaded);
+	}
+
+	private static Post key(long id) {
+		Post post = new Post();
+		post.setId(id);
+		post.setCreatedAt(new Date(id));
+		return post;
+	}
+
+	private static Post post(long id, String category) {
+		Post post = key(id);
+		post.setTitle("t" + id);
+		post.setCategory(category);
+		post.setUserId(id);
+		return post;
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.cursorbasepagination.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseFormatsTest {
+
+	@Test
+	void missingOrInvalidAcceptFallsBackToJson() {
+		assertEquals(ResponseFormats.Format.JSON, ResponseFormats.negotiate(null));
+		assertEquals(ResponseFormats.Format.JSON, ResponseFormats.negotiate(" "));
+		assertEquals(ResponseFormats.Format.JSON, ResponseFormats.negotiate("không phải media type"));
+		assertEquals(ResponseFormats.Format.JSON, ResponseFormats.negotiate("text/html"));
+	}
+
+	@Test
+	void exactMediaTypesAreMatched() {
+		assertEquals(ResponseFormats.Format.SMILE, ResponseFormats.negotiate("application/x-jackson-smile"));
+		assertEquals(ResponseFormats.Format.CBOR, ResponseFormats.negotiate("application/cbor"));
+		assertEquals(ResponseFormats.Format.JSON, ResponseFormats.negotiate("application/json"));
+	}
+
+	@Test
+	void highestQualityWins() {
+		assertEquals(ResponseFormats.Format.CBOR,
+				ResponseFormats.negotiate("application/json;q=0.5, application/cbor"));
+		assertEquals(ResponseFormats.Format.JSON,
+				ResponseFormats.negotiate("application/cbor;q=0.2, application/json;q=0.9"));
+		// Định dạng có q=0 bị từ chối
+		assertEquals(ResponseFormats.Format.JSON, ResponseFormats.negotiate("application/cbor;q=0"));
+	}
+
+	@Test
+	void firstOfEqualQualityWins() {
+		assertEquals(ResponseFormats.Format.SMILE,
+				ResponseFormats.negotiate("application/x-jackson-smile, application/cbor"));
+		assertEquals(ResponseFormats.Format.CBOR,
+				ResponseFormats.negotiate("text/html, application/cbor, application/json"));
+	}
+
+	@Test
+	void wildcardMeansJson() {
+		assertEquals(ResponseFormats.Format.JSON, ResponseFormats.negotiate("*/*"));
+		assertEquals(ResponseFormats.Format.JSON, ResponseFormats.negotiate("application/*"));
+		// Ưu tiên rõ ràng hơn wildcard
+		assertEquals(ResponseFormats.Format.SMILE,
+				ResponseFormats.negotiate("*/*;q=0.1, application/x-jackson-smile"));
+	}
+
+	@Test
+	void rawCursorSerializerWritesBase64UrlCursorAsBytes() throws Exception {
+		// JSON ghi dữ liệu nhị phân bằng base64 chuẩn (có padding), khác với chuỗi base64url ban đầu
+		String json = new ObjectMapper().writeValueAsString(new Holder("AQID_-8"));
+
+		assertEquals("{\"cursor\":\"AQID/+8=\"}", json);
+	}
+
+	@Test
+	void rawCursorSerializerKeepsOtherCursorsAsString() throws Exception {
+		String json = new ObjectMapper().writeValueAsString(new Holder("{\"id\":1}"));
+
+		assertEquals("{\"cursor\":\"{\\\"id\\\":1}\"}", json);
+	}
+
+	static class Holder {
+		@JsonSerialize(using = ResponseFormats.RawCursorSerializer.class)
+		public final String cursor;
+
+		Holder(String cursor) {
+			this.cursor = cursor;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.cursorbasepagination.controller;
+
+import com.example.cursorbasepagination.dto.request.FeedRequest;
+import com.example.cursorbasepagination.service.PostService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PostControllerTest {
+
+	private final PostService postService = mock(PostService.class);
+	private final PostController controller = new PostController();
+
+	PostControllerTest() {
+		ReflectionTestUtils.setField(controller, "postService", postService);
+		when(postService.getFeeds(any())).thenReturn(Map.of());
+	}
+
+	@Test
+	void feedsWithinRowBudgetAreServed() {
+		assertEquals(HttpStatus.OK, controller.getFeeds(feeds(50, null), null).getStatusCode());
+		assertEquals(HttpStatus.OK, controller.getFeeds(feeds(5, 100), null).getStatusCode());
+		verify(postService, times(2)).getFeeds(any());
+	}
+
+	@Test
+	void perFeedLimitCountsTowardsRowBudget() {
+		// 50 feed × 11 bài viết vượt 500 dòng của một câu lệnh
+		ResponseStatusException error = assertThrows(ResponseStatusException.class,
+				() -> controller.getFeeds(feeds(50, 11), null));
+
+		assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+		assertThrows(ResponseStatusException.class, () -> controller.getFeeds(feeds(1, 501), null));
+		verify(postService, never()).getFeeds(any());
+	}
+
+	@Test
+	void tooManyFeedsAreRejected() {
+		assertThrows(ResponseStatusException.class, () -> controller.getFeeds(feeds(51, 1), null));
+		assertThrows(ResponseStatusException.class, () -> controller.getFeeds(feeds(0, null), null));
+	}
+
+	private static FeedRequest feeds(int count, Integer limit) {
+		List<FeedRequest.FeedSpec> specs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			FeedRequest.FeedSpec spec = new FeedRequest.FeedSpec();
+			spec.setUserId((long) i);
+			specs.add(spec);
+		}
+		FeedRequest request = new FeedRequest();
+		request.setFeeds(specs);
+		request.setLimit(limit);
+		return request;
+	}
+}
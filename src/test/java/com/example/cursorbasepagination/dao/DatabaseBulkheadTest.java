@@ -0,0 +1,94 @@
+package com.example.cursorbasepagination.dao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DatabaseBulkheadTest {
+
+	private final Executor executor = mock(Executor.class);
+	private final Configuration configuration = new Configuration();
+	private final MappedStatement statement = new MappedStatement.Builder(configuration,
+			"PostMapper.streamWithFilters", new StaticSqlSource(configuration, "SELECT 1"), SqlCommandType.SELECT)
+			.build();
+
+	// Một permit, chờ tối đa 10 ms
+	private final DatabaseBulkhead bulkhead = new DatabaseBulkhead(mock(DataSource.class), new SimpleMeterRegistry(),
+			true, 1, Duration.ofMillis(10));
+
+	@Test
+	void queryReleasesPermitWhenItReturns() throws Throwable {
+		when(executor.query(any(), any(), any(), any())).thenReturn(List.of());
+
+		bulkhead.intercept(query());
+		// Permit đã được trả nên câu lệnh kế tiếp chạy được ngay
+		assertEquals(List.of(), bulkhead.intercept(query()));
+	}
+
+	@Test
+	void cursorHoldsPermitUntilClosed() throws Throwable {
+		Cursor<Object> cursor = mock(Cursor.class);
+		when(executor.queryCursor(any(), any(), any())).thenReturn(cursor);
+		when(executor.query(any(), any(), any(), any())).thenReturn(List.of());
+
+		Cursor<?> wrapped = (Cursor<?>) bulkhead.intercept(queryCursor());
+		assertThrows(DatabaseBulkhead.BulkheadFullException.class, () -> bulkhead.intercept(query()));
+
+		wrapped.close();
+		verify(cursor).close();
+		assertEquals(List.of(), bulkhead.intercept(query()));
+	}
+
+	@Test
+	void closingTwiceReleasesOnce() throws Throwable {
+		when(executor.queryCursor(any(), any(), any())).thenReturn(mock(Cursor.class));
+
+		Cursor<?> first = (Cursor<?>) bulkhead.intercept(queryCursor());
+		first.close();
+		first.close();
+
+		Cursor<?> second = (Cursor<?>) bulkhead.intercept(queryCursor());
+		// Nếu close thứ hai trả thêm permit thì câu lệnh này sẽ không bị từ chối
+		assertThrows(DatabaseBulkhead.BulkheadFullException.class, () -> bulkhead.intercept(queryCursor()));
+		second.close();
+	}
+
+	@Test
+	void failedStatementReleasesPermit() throws Throwable {
+		when(executor.queryCursor(any(), any(), any())).thenThrow(new IllegalStateException("mất kết nối"));
+		when(executor.query(any(), any(), any(), any())).thenReturn(List.of());
+
+		// Invocation.proceed bọc lỗi của executor, Plugin sẽ gỡ ra khi chạy thật
+		assertThrows(InvocationTargetException.class, () -> bulkhead.intercept(queryCursor()));
+		assertEquals(List.of(), bulkhead.intercept(query()));
+	}
+
+	private Invocation query() throws NoSuchMethodException {
+		return new Invocation(executor, Executor.class.getMethod("query",
+				MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class),
+				new Object[]{statement, null, RowBounds.DEFAULT, null});
+	}
+
+	private Invocation queryCursor() throws NoSuchMethodException {
+		return new Invocation(executor, Executor.class.getMethod("queryCursor",
+				MappedStatement.class, Object.class, RowBounds.class),
+				new Object[]{statement, null, RowBounds.DEFAULT});
+	}
+}
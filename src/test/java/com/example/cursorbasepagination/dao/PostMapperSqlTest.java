@@ -0,0 +1,71 @@
+package com.example.cursorbasepagination.dao;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostMapperSqlTest {
+
+	private static final String NAMESPACE = PostMapper.class.getName() + ".";
+
+	private final Configuration configuration = configuration();
+
+	@Test
+	void searchReadsOnlyProjectedColumnsInsideDerivedTable() {
+		Map<String, Object> params = searchParams();
+		params.put("fields", Set.of("title"));
+
+		String sql = sql("searchByTitle", params);
+
+		String derived = sql.substring(sql.indexOf("FROM ("), sql.indexOf(") ranked"));
+		assertTrue(derived.contains("id, created_at , title"));
+		assertFalse(derived.contains("content"));
+		assertFalse(sql("searchByTitlePrevious", params).contains("content"));
+	}
+
+	@Test
+	void searchWithoutFieldsReadsAllColumns() {
+		String sql = sql("searchByTitle", searchParams());
+
+		assertTrue(sql.contains("content"));
+		assertTrue(sql.contains("AS score"));
+	}
+
+	private String sql(String statement, Map<String, Object> params) {
+		return configuration.getMappedStatement(NAMESPACE + statement).getBoundSql(params).getSql()
+				.replaceAll("\\s+", " ");
+	}
+
+	private static Map<String, Object> searchParams() {
+		Map<String, Object> params = new HashMap<>();
+		params.put("query", "mysql");
+		params.put("firstScore", 1.0);
+		params.put("limit", 11);
+		return params;
+	}
+
+	// Cấu hình giống application.properties: alias của entity và biến seekMode
+	private static Configuration configuration() {
+		Configuration configuration = new Configuration();
+		Properties variables = new Properties();
+		variables.setProperty("seekMode", "EXPANDED");
+		configuration.setVariables(variables);
+		configuration.getTypeAliasRegistry().registerAliases("com.example.cursorbasepagination.entity");
+		String resource = "mapper/PostMapper.xml";
+		try (InputStream mapper = Resources.getResourceAsStream(resource)) {
+			new XMLMapperBuilder(mapper, configuration, resource, configuration.getSqlFragments()).parse();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		return configuration;
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.cursorbasepagination.event;
+
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostsChangedEventTest {
+
+	@Test
+	void globalEventAffectsEveryFilter() {
+		PostsChangedEvent event = PostsChangedEvent.all();
+
+		assertTrue(event.isGlobal());
+		assertTrue(event.affects(PostFilter.none()));
+		assertTrue(event.affects(PostFilter.of("x", "news", 1L, null, null)));
+	}
+
+	@Test
+	void unfilteredFeedIsAlwaysAffected() {
+		PostsChangedEvent event = new PostsChangedEvent(Set.of("news"), Set.of(1L));
+
+		assertFalse(event.isGlobal());
+		assertTrue(event.affects(PostFilter.none()));
+	}
+
+	@Test
+	void matchesOnCategory() {
+		PostsChangedEvent event = new PostsChangedEvent(Set.of("news"), Set.of(1L));
+
+		assertTrue(event.affects(PostFilter.of(null, "news", null, null, null)));
+		assertFalse(event.affects(PostFilter.of(null, "sport", null, null, null)));
+	}
+
+	@Test
+	void matchesOnUserId() {
+		PostsChangedEvent event = new PostsChangedEvent(Set.of("news"), Set.of(1L));
+
+		assertTrue(event.affects(PostFilter.of(null, null, 1L, null, null)));
+		assertFalse(event.affects(PostFilter.of(null, null, 2L, null, null)));
+	}
+
+	@Test
+	void categoryAndUserMustBothMatch() {
+		PostsChangedEvent event = new PostsChangedEvent(Set.of("news"), Set.of(1L));
+
+		assertTrue(event.affects(PostFilter.of(null, "news", 1L, null, null)));
+		assertFalse(event.affects(PostFilter.of(null, "news", 2L, null, null)));
+		assertFalse(event.affects(PostFilter.of(null, "sport", 1L, null, null)));
+	}
+
+	@Test
+	void titleAndDateConditionsAreIgnored() {
+		PostsChangedEvent event = new PostsChangedEvent(Set.of("news"), Set.of(1L));
+		Date start = new Date(0);
+		Date end = new Date(1_000L);
+
+		// Không xét title/ngày nên luôn vô hiệu hóa thừa thay vì bỏ sót
+		assertTrue(event.affects(PostFilter.of("unrelated", "news", null, start, end)));
+	}
+
+	@Test
+	void missingSetsAreTreatedAsEmpty() {
+		PostsChangedEvent onlyUsers = new PostsChangedEvent(null, Set.of(1L));
+
+		assertFalse(onlyUsers.isGlobal());
+		assertTrue(onlyUsers.getCategories().isEmpty());
+		assertFalse(onlyUsers.affects(PostFilter.of(null, "news", null, null, null)));
+		assertTrue(onlyUsers.affects(PostFilter.of(null, null, 1L, null, null)));
+	}
+
+	@Test
+	void insertedEventKnowsNoExistingPostChanged() {
+		PostsChangedEvent inserted = PostsChangedEvent.inserted(Set.of("news"), Set.of(1L));
+		PostsChangedEvent unknown = new PostsChangedEvent(Set.of("news"), Set.of(1L));
+
+		assertTrue(inserted.hasPostIds());
+		assertTrue(inserted.getPostIds().isEmpty());
+		assertTrue(inserted.affects(PostFilter.of(null, "news", null, null, null)));
+		assertFalse(unknown.hasPostIds());
+		assertTrue(new PostsChangedEvent(null, Set.of(1L), Set.of(7L)).getPostIds().contains(7L));
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.cursorbasepagination.monitoring;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IndexUsageVerifierTest {
+
+	private static final String NAMESPACE = PostMapper.class.getName() + ".";
+
+	@Test
+	void statementsThatDoNotReadPostsAreExcluded() throws Exception {
+		Set<String> ids = IndexUsageVerifier.statementIds(configuration());
+
+		assertTrue(ids.contains(NAMESPACE + "findWithFiltersNextPage"));
+		assertTrue(ids.contains(NAMESPACE + "findSortedPage"));
+		assertFalse(ids.contains(NAMESPACE + "findPartitions"));
+		assertFalse(ids.contains(NAMESPACE + "findInPartitionOlder"));
+		assertFalse(ids.contains(NAMESPACE + "explainWithFilters"));
+		// Câu lệnh ghi không được EXPLAIN
+		assertFalse(ids.contains(NAMESPACE + "insertBatch"));
+	}
+
+	@Test
+	void everyStatementBindsWithSampleParams() throws Exception {
+		Configuration configuration = configuration();
+
+		for (String id : IndexUsageVerifier.statementIds(configuration)) {
+			MappedStatement ms = configuration.getMappedStatement(id);
+			for (Map.Entry<String, Map<String, Object>> shape : IndexUsageVerifier.filterShapes().entrySet()) {
+				Map<String, Object> params = shape.getValue();
+				BoundSql boundSql = assertDoesNotThrow(() -> ms.getBoundSql(params), id + " [" + shape.getKey() + "]");
+				assertDoesNotThrow(() -> new DefaultParameterHandler(ms, params, boundSql)
+						.setParameters(mock(PreparedStatement.class)), id + " [" + shape.getKey() + "]");
+			}
+		}
+	}
+
+	@Test
+	void shapesUseTheirFilterInFeedsAndSort() throws Exception {
+		Configuration configuration = configuration();
+		Map<String, Object> byCategory = IndexUsageVerifier.filterShapes().get("category");
+
+		String feeds = configuration.getMappedStatement(NAMESPACE + "findFeeds").getBoundSql(byCategory).getSql();
+		String sorted = configuration.getMappedStatement(NAMESPACE + "findSortedPage").getBoundSql(byCategory)
+				.getSql();
+
+		assertTrue(feeds.contains("category = ?"));
+		assertTrue(sorted.contains("ORDER BY category"));
+	}
+
+	// Cấu hình giống application.properties: alias của entity và biến seekMode
+	private static Configuration configuration() throws Exception {
+		Configuration configuration = new Configuration();
+		Properties variables = new Properties();
+		variables.setProperty("seekMode", "EXPANDED");
+		configuration.setVariables(variables);
+		configuration.getTypeAliasRegistry().registerAliases("com.example.cursorbasepagination.entity");
+		String resource = "mapper/PostMapper.xml";
+		try (InputStream mapper = Resources.getResourceAsStream(resource)) {
+			new XMLMapperBuilder(mapper, configuration, resource, configuration.getSqlFragments()).parse();
+		}
+		return configuration;
+	}
+}
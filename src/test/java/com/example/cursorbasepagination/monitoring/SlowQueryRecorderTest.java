@@ -0,0 +1,182 @@
+package com.example.cursorbasepagination.monitoring;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.util.keyset.KeysetCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SlowQueryRecorderTest {
+
+	private static final String NAMESPACE = PostMapper.class.getName() + ".";
+
+	private final Executor executor = mock(Executor.class);
+	private final Configuration configuration = new Configuration();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	// Ngưỡng 0: mọi câu lệnh đều là câu lệnh chậm; tối đa 2 bản ghi mỗi giây
+	private final SlowQueryRecorder recorder = new SlowQueryRecorder(registry, true, Duration.ZERO, 1.0, 2, 10,
+			Duration.ofMinutes(10), Duration.ofSeconds(1), 16);
+
+	@AfterEach
+	void tearDown() {
+		recorder.shutdown();
+	}
+
+	@Test
+	void renderKeepsScalarsAndHidesObjects() {
+		assertEquals(5L, SlowQueryRecorder.render(5L));
+		assertEquals(true, SlowQueryRecorder.render(true));
+		assertNull(SlowQueryRecorder.render(null));
+		assertEquals("1970-01-01T00:00:01Z", SlowQueryRecorder.render(new Date(1000)));
+		assertEquals("ASC", SlowQueryRecorder.render(SortOrder.ASC));
+		// Bài viết có thể chứa nội dung người dùng nên chỉ ghi tên kiểu
+		assertEquals("<Post>", SlowQueryRecorder.render(new Post()));
+	}
+
+	@Test
+	void renderCapsLongStringsAndLists() {
+		String longText = "a".repeat(100);
+
+		assertEquals("a".repeat(64) + "...", SlowQueryRecorder.render(longText));
+		assertEquals(List.of(1, "<Post>"), SlowQueryRecorder.render(List.of(1, new Post())));
+		assertEquals("21 phần tử", SlowQueryRecorder.render(Collections.nCopies(21, 1L)));
+	}
+
+	@Test
+	void parametersSkipGeneratedNames() {
+		Map<String, Object> params = new HashMap<>();
+		params.put("category", "news");
+		params.put("limit", 10);
+		params.put("param1", "news");
+		params.put("param2", 10);
+
+		assertEquals(Map.of("category", "news", "limit", 10), SlowQueryRecorder.parameters(params));
+		assertEquals(Map.of("value", 7L), SlowQueryRecorder.parameters(7L));
+		assertTrue(SlowQueryRecorder.parameters(null).isEmpty());
+	}
+
+	@Test
+	void recordsStatementParametersAndCursor() throws Throwable {
+		Map<String, Object> params = new HashMap<>();
+		params.put("category", "news");
+		params.put("lastId", 42L);
+		params.put("lastCreatedAt", new Date(1000));
+
+		recorder.intercept(query("findWithFiltersNextPage", "SELECT *\n  FROM posts", params));
+
+		SlowQuery record = recorder.getRecords().get(0);
+		assertEquals("findWithFiltersNextPage", record.getStatement());
+		assertEquals("SELECT * FROM posts", record.getSql());
+		assertEquals("success", record.getOutcome());
+		assertEquals("news", record.getParameters().get("category"));
+		assertEquals(Map.of("direction", "next", "lastId", 42L, "lastCreatedAt", "1970-01-01T00:00:01Z"),
+				record.getCursor());
+	}
+
+	@Test
+	void keysetCursorValuesAreRendered() throws Throwable {
+		Map<String, Object> params = new HashMap<>();
+		params.put("cursor", new KeysetCursor(List.of(new Date(1000), 42L), null));
+
+		recorder.intercept(query("findSortedNextPage", "SELECT * FROM posts", params));
+
+		assertEquals(Map.of("direction", "next", "values", List.of("1970-01-01T00:00:01Z", 42L)),
+				recorder.getRecords().get(0).getCursor());
+	}
+
+	@Test
+	void recordsAreRateLimitedPerSecond() throws Throwable {
+		for (int i = 0; i < 3; i++) {
+			recorder.intercept(query("findWithFiltersFirstPage", "SELECT * FROM posts", null));
+		}
+
+		assertEquals(2, recorder.getRecords().size());
+		assertEquals(1, registry.get("pagination.slow-query").tag("result", "rate-limited").counter().count());
+	}
+
+	@Test
+	void sameShapeSharesOnePlan() throws Throwable {
+		SlowQueryRecorder unlimited = new SlowQueryRecorder(registry, true, Duration.ZERO, 1.0, 100, 10,
+				Duration.ofMinutes(10), Duration.ofSeconds(1), 16);
+		try {
+			unlimited.intercept(query("findWithFiltersFirstPage", "SELECT * FROM posts", null));
+			unlimited.intercept(query("findWithFiltersFirstPage", "SELECT  *  FROM posts", null));
+			unlimited.intercept(query("findWithFiltersFirstPage", "SELECT * FROM posts WHERE category = ?", null));
+
+			List<SlowQuery> records = unlimited.getRecords();
+			// Mới nhất trước: câu lệnh có WHERE là một dạng khác
+			assertSame(records.get(1).getPlan(), records.get(2).getPlan());
+			assertNotSame(records.get(0).getPlan(), records.get(1).getPlan());
+		} finally {
+			unlimited.shutdown();
+		}
+	}
+
+	@Test
+	void otherStatementsAreIgnored() throws Throwable {
+		Map<String, Object> params = new HashMap<>();
+		params.put("list", List.of(new Post()));
+
+		recorder.intercept(new Invocation(executor, Executor.class.getMethod("query",
+				MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class),
+				new Object[]{statement("OtherMapper.find", "SELECT 1", SqlCommandType.SELECT, false), null,
+						RowBounds.DEFAULT, null}));
+		recorder.intercept(query("explainWithFilters", "SELECT * FROM posts", null));
+		recorder.intercept(new Invocation(executor, Executor.class.getMethod("update",
+				MappedStatement.class, Object.class),
+				new Object[]{statement("insertBatch", "INSERT INTO posts VALUES (?)", SqlCommandType.INSERT, true),
+						params}));
+
+		List<SlowQuery> records = recorder.getRecords();
+		assertEquals(1, records.size());
+		// Câu lệnh ghi không có EXPLAIN và bài viết chỉ được ghi tên kiểu
+		assertNull(records.get(0).getPlan());
+		assertEquals(List.of("<Post>"), records.get(0).getParameters().get("list"));
+	}
+
+	@Test
+	void disabledNeverRecords() throws Throwable {
+		SlowQueryRecorder disabled = new SlowQueryRecorder(registry, false, Duration.ZERO, 1.0, 5, 10,
+				Duration.ofMinutes(10), Duration.ofSeconds(1), 16);
+		try {
+			disabled.intercept(query("findWithFiltersFirstPage", "SELECT * FROM posts", null));
+
+			assertTrue(disabled.getRecords().isEmpty());
+			verify(executor).query(any(), any(), any(), any());
+		} finally {
+			disabled.shutdown();
+		}
+	}
+
+	private Invocation query(String statement, String sql, Object parameter) throws NoSuchMethodException {
+		return new Invocation(executor, Executor.class.getMethod("query",
+				MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class),
+				new Object[]{statement(statement, sql, SqlCommandType.SELECT, true), parameter,
+						RowBounds.DEFAULT, null});
+	}
+
+	private MappedStatement statement(String id, String sql, SqlCommandType type, boolean postMapper) {
+		return new MappedStatement.Builder(configuration, postMapper ? NAMESPACE + id : id,
+				new StaticSqlSource(configuration, sql), type).build();
+	}
+
+	private enum SortOrder {
+		ASC
+	}
+}
@@ -0,0 +1,238 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dao.PostShards;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.event.PostsChangedEvent;
+import com.example.cursorbasepagination.util.cursor.BinaryCursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class LiveTailHubTest {
+
+	private static final PostFilter FILTER = PostFilter.none();
+
+	private final BinaryCursorCodec codec = new BinaryCursorCodec();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	// Bảng posts giả: truy vấn trả về các hàng mới hơn cursor theo (created_at, id) tăng dần
+	private final List<Post> rows = new CopyOnWriteArrayList<>();
+	private final PostMapper mapper = mock(PostMapper.class);
+	private LiveTailHub hub;
+
+	LiveTailHubTest() {
+		when(mapper.findWithFiltersPreviousPage(any(), any(), any(), any(), any(), any(), any(), anyInt(), any()))
+				.thenAnswer(invocation -> newerThan(invocation.getArgument(5), invocation.getArgument(6),
+						invocation.getArgument(7)));
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (hub != null) {
+			hub.shutdown();
+		}
+	}
+
+	@Test
+	void deliversNewPostsOnceAndAdvancesWatermark() throws IOException {
+		hub = hub(1, 16);
+		SseEmitter emitter = emitter();
+		hub.subscribe(FILTER, cursor(0, 1000), emitter);
+		rows.add(post(1, 1500));
+		rows.add(post(2, 2000));
+
+		hub.pollAll();
+		hub.pollAll();
+
+		verify(emitter, after(100).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+		assertEquals(List.of(List.of(1L, 2L)), sentIds(emitter));
+	}
+
+	@Test
+	void lateCommitInsideOverlapIsDeliveredOnce() throws IOException {
+		hub = hub(100, 16);
+		SseEmitter emitter = emitter();
+		hub.subscribe(FILTER, cursor(0, 1000), emitter);
+		rows.add(post(1, 2000));
+		hub.pollAll();
+
+		// Commit muộn với created_at sớm hơn watermark nhưng còn trong cửa sổ overlap
+		rows.add(post(2, 1800));
+		hub.onPostsChanged(PostsChangedEvent.all());
+		hub.pollAll();
+		hub.onPostsChanged(PostsChangedEvent.all());
+		hub.pollAll();
+
+		verify(emitter, after(100).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+		assertEquals(List.of(List.of(1L), List.of(2L)), sentIds(emitter));
+		assertEquals(1, registry.get("pagination.live-tail.late").counter().count());
+	}
+
+	@Test
+	void postsUpToConnectCursorAreNotSent() throws IOException {
+		hub = hub(1, 16);
+		SseEmitter emitter = emitter();
+		rows.add(post(4, 1900));
+		rows.add(post(5, 2000));
+		rows.add(post(6, 2100));
+		// Client đã có bài viết 5 và mọi bài viết trước đó
+		hub.subscribe(FILTER, cursor(5, 2000), emitter);
+
+		hub.pollAll();
+
+		verify(emitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+		assertEquals(List.of(List.of(6L)), sentIds(emitter));
+	}
+
+	@Test
+	void idleFilterReadsOverlapOnlyEveryNPolls() {
+		hub = hub(3, 16);
+		hub.subscribe(FILTER, cursor(0, 1000), emitter());
+
+		for (int i = 0; i < 6; i++) {
+			hub.pollAll();
+		}
+
+		// 6 truy vấn chính và 2 lần đọc lại cửa sổ overlap (lần poll thứ 3 và thứ 6)
+		verify(mapper, times(8)).findWithFiltersPreviousPage(
+				any(), any(), any(), any(), any(), any(), any(), anyInt(), any());
+	}
+
+	@Test
+	void fullQueueUnsubscribesAndClosesAfterDrain() throws Exception {
+		hub = hub(1, 1);
+		SseEmitter emitter = emitter();
+		CountDownLatch sending = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			sending.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+		hub.subscribe(FILTER, cursor(0, 1000), emitter);
+
+		rows.add(post(1, 1100));
+		hub.pollAll();
+		assertTrue(sending.await(5, TimeUnit.SECONDS));
+		// Lô thứ hai nằm trong hàng đợi, lô thứ ba làm hàng đợi tràn
+		rows.add(post(2, 1200));
+		hub.pollAll();
+		rows.add(post(3, 1300));
+		hub.pollAll();
+
+		assertEquals(0, gauge("pagination.live-tail.subscribers"));
+		assertEquals(0, gauge("pagination.live-tail.filters"));
+		assertEquals(1, registry.get("pagination.live-tail.slow-disconnects").counter().count());
+
+		release.countDown();
+		verify(emitter, timeout(1000)).complete();
+		verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+	}
+
+	@Test
+	void failedSendClosesOnlyThatSubscriber() throws IOException {
+		hub = hub(1, 16);
+		SseEmitter broken = emitter();
+		IOException failure = new IOException("client đã ngắt kết nối");
+		doThrow(failure).when(broken).send(any(SseEmitter.SseEventBuilder.class));
+		SseEmitter healthy = emitter();
+		hub.subscribe(FILTER, cursor(0, 1000), broken);
+		hub.subscribe(FILTER, cursor(0, 1000), healthy);
+
+		rows.add(post(1, 1100));
+		hub.pollAll();
+
+		verify(broken, timeout(1000)).completeWithError(failure);
+		verify(healthy, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+		// Poller của bộ lọc còn giữ cho subscriber còn lại
+		assertEquals(1, gauge("pagination.live-tail.subscribers"));
+		assertEquals(1, gauge("pagination.live-tail.filters"));
+	}
+
+	@Test
+	void rejectsSubscribersOverLimit() {
+		hub = new LiveTailHub(mapper, noShards(), codec, registry, false, Duration.ofHours(1), 100, 1,
+				Duration.ofMinutes(1), Duration.ofHours(1), 1, Duration.ofSeconds(5), 1, 1, 16);
+		hub.subscribe(FILTER, null, emitter());
+
+		assertThrows(RejectedExecutionException.class, () -> hub.subscribe(FILTER, null, emitter()));
+		assertEquals(1, gauge("pagination.live-tail.subscribers"));
+	}
+
+	// Hub không tự poll (enabled = false), test gọi pollAll trực tiếp
+	private LiveTailHub hub(int overlapEvery, int sendQueueSize) {
+		return new LiveTailHub(mapper, noShards(), codec, registry, false, Duration.ofHours(1), 100, 100,
+				Duration.ofMinutes(1), Duration.ofHours(1), 1, Duration.ofSeconds(5), overlapEvery, 1, sendQueueSize);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ObjectProvider<PostShards> noShards() {
+		return mock(ObjectProvider.class);
+	}
+
+	private static SseEmitter emitter() {
+		return mock(SseEmitter.class);
+	}
+
+	private String cursor(long id, long createdAt) {
+		return codec.encode(new PostCursor(id, createdAt));
+	}
+
+	private double gauge(String name) {
+		return registry.get(name).gauge().value();
+	}
+
+	private List<Post> newerThan(Long id, Date createdAt, int limit) {
+		return rows.stream()
+				.filter(post -> post.getCreatedAt().getTime() > createdAt.getTime()
+						|| (post.getCreatedAt().getTime() == createdAt.getTime() && post.getId() > id))
+				.sorted(Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId))
+				.limit(limit)
+				.toList();
+	}
+
+	// id các bài viết trong từng sự kiện "posts" đã gửi
+	@SuppressWarnings("unchecked")
+	private static List<List<Long>> sentIds(SseEmitter emitter) throws IOException {
+		ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+		verify(emitter, atLeast(0)).send(events.capture());
+		List<List<Long>> sent = new ArrayList<>();
+		for (SseEmitter.SseEventBuilder event : events.getAllValues()) {
+			for (ResponseBodyEmitter.DataWithMediaType part : event.build()) {
+				if (part.getData() instanceof List<?> posts) {
+					sent.add(((List<Post>) posts).stream().map(Post::getId).toList());
+				}
+			}
+		}
+		return sent;
+	}
+
+	private static Post post(long id, long createdAt) {
+		Post post = new Post();
+		post.setId(id);
+		post.setCreatedAt(new Date(createdAt));
+		return post;
+	}
+}
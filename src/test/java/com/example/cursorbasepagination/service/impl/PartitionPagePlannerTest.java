@@ -0,0 +1,156 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PartitionPagePlannerTest {
+
+	private final PostMapper postMapper = mock(PostMapper.class);
+	// Số bài viết có trong mỗi phân vùng khớp với truy vấn
+	private final Map<String, Integer> available = new HashMap<>();
+	// Các lần truy vấn phân vùng theo thứ tự: "tên:limit"
+	private final List<String> queries = new ArrayList<>();
+
+	private PartitionPagePlanner planner;
+
+	@BeforeEach
+	void setUp() {
+		when(postMapper.findPartitions()).thenReturn(List.of(
+				partition("p202401", "'2024-02-01 00:00:00'"),
+				partition("p202402", "'2024-03-01 00:00:00'"),
+				partition("pmax", "MAXVALUE")));
+		when(postMapper.findInPartitionOlder(anyString(), any(), any(), any(), any(), any(), any(), any(), anyInt(), any()))
+				.thenAnswer(invocation -> rows(invocation.getArgument(0), invocation.getArgument(8)));
+		when(postMapper.findInPartitionNewer(anyString(), any(), any(), any(), any(), any(), any(), any(), anyInt(), any()))
+				.thenAnswer(invocation -> rows(invocation.getArgument(0), invocation.getArgument(8)));
+
+		planner = new PartitionPagePlanner(postMapper, new SimpleMeterRegistry(), true, Duration.ofMinutes(10));
+		available.put("p202401", 10);
+		available.put("p202402", 10);
+		available.put("pmax", 10);
+	}
+
+	@Test
+	void inactiveWhenDisabledOrNotPartitioned() {
+		assertTrue(planner.isActive());
+		assertFalse(new PartitionPagePlanner(postMapper, new SimpleMeterRegistry(), false, Duration.ofMinutes(10))
+				.isActive());
+
+		PostMapper plain = mock(PostMapper.class);
+		when(plain.findPartitions()).thenReturn(List.of());
+		assertFalse(new PartitionPagePlanner(plain, new SimpleMeterRegistry(), true, Duration.ofMinutes(10))
+				.isActive());
+	}
+
+	@Test
+	void invalidPartitionNameDisablesPlanner() {
+		PostMapper mapper = mock(PostMapper.class);
+		when(mapper.findPartitions()).thenReturn(List.of(partition("p1; DROP TABLE posts", "MAXVALUE")));
+
+		assertFalse(new PartitionPagePlanner(mapper, new SimpleMeterRegistry(), true, Duration.ofMinutes(10))
+				.isActive());
+	}
+
+	@Test
+	void olderStartsAtCursorPartitionAndStopsWhenFull() {
+		List<Post> page = planner.older(PostFilter.none(), cursorAt("2024-02-15 00:00:00"), 5, null);
+
+		assertEquals(5, page.size());
+		assertEquals(List.of("p202402:5"), queries);
+	}
+
+	@Test
+	void olderSpillsIntoOlderPartitionsWithRemainingLimit() {
+		available.put("p202402", 3);
+
+		List<Post> page = planner.older(PostFilter.none(), cursorAt("2024-02-15 00:00:00"), 5, null);
+
+		assertEquals(5, page.size());
+		assertEquals(List.of("p202402:5", "p202401:2"), queries);
+	}
+
+	@Test
+	void olderWithoutCursorStartsAtNewestPartition() {
+		available.put("pmax", 0);
+
+		planner.older(PostFilter.none(), null, 5, null);
+
+		assertEquals(List.of("pmax:5", "p202402:5"), queries);
+	}
+
+	@Test
+	void olderStartsAtEndDateWhenItIsEarlierThanCursor() {
+		PostFilter filter = PostFilter.of(null, null, null, null, Timestamp.valueOf("2024-01-20 00:00:00"));
+
+		planner.older(filter, cursorAt("2024-02-15 00:00:00"), 5, null);
+
+		assertEquals(List.of("p202401:5"), queries);
+	}
+
+	@Test
+	void olderPrunesPartitionsBeforeStartDate() {
+		available.put("p202402", 1);
+		PostFilter filter = PostFilter.of(null, null, null, Timestamp.valueOf("2024-02-10 00:00:00"), null);
+
+		List<Post> page = planner.older(filter, cursorAt("2024-02-15 00:00:00"), 5, null);
+
+		// p202401 kết thúc trước startDate nên không được truy vấn dù trang chưa đủ
+		assertEquals(1, page.size());
+		assertEquals(List.of("p202402:5"), queries);
+	}
+
+	@Test
+	void newerSpillsIntoNewerPartitions() {
+		available.put("p202401", 2);
+
+		List<Post> page = planner.newer(PostFilter.none(), cursorAt("2024-01-15 00:00:00"), 5, null);
+
+		assertEquals(5, page.size());
+		assertEquals(List.of("p202401:5", "p202402:3"), queries);
+	}
+
+	@Test
+	void newerPrunesPartitionsAfterEndDate() {
+		available.put("p202401", 2);
+		PostFilter filter = PostFilter.of(null, null, null, null, Timestamp.valueOf("2024-01-31 00:00:00"));
+
+		List<Post> page = planner.newer(filter, cursorAt("2024-01-15 00:00:00"), 5, null);
+
+		assertEquals(2, page.size());
+		assertEquals(List.of("p202401:5"), queries);
+	}
+
+	private List<Post> rows(String partition, int limit) {
+		queries.add(partition + ":" + limit);
+		int count = Math.min(limit, available.getOrDefault(partition, 0));
+		List<Post> rows = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			rows.add(new Post());
+		}
+		return rows;
+	}
+
+	private static PostCursor cursorAt(String createdAt) {
+		return new PostCursor(1L, Timestamp.valueOf(createdAt).getTime());
+	}
+
+	private static Map<String, Object> partition(String name, String description) {
+		Map<String, Object> row = new HashMap<>();
+		row.put("name", name);
+		row.put("description", description);
+		return row;
+	}
+}
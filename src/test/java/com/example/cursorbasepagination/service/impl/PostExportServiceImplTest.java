@@ -0,0 +1,223 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.config.ResponseFormats;
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dao.PostShards;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.service.PostExportService.ExportFormat;
+import com.example.cursorbasepagination.util.cursor.BinaryCursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class PostExportServiceImplTest {
+
+	private static final PostFilter FILTER = PostFilter.none();
+
+	private final BinaryCursorCodec codec = new BinaryCursorCodec();
+	private final PostExportServiceImpl service = new PostExportServiceImpl();
+
+	PostExportServiceImplTest() {
+		ReflectionTestUtils.setField(service, "cursorCodec", codec);
+		ReflectionTestUtils.setField(service, "responseFormats", new ResponseFormats(new ObjectMapper()));
+		ReflectionTestUtils.setField(service, "checkpointInterval", 2);
+		ReflectionTestUtils.setField(service, "shardBatchSize", 2);
+	}
+
+	@Test
+	void csvQuotesOnlyFieldsThatNeedIt() throws IOException {
+		Post post = post(1, 1000);
+		post.setUserId(7L);
+		post.setCategory("news");
+		post.setTitle("a, \"b\"");
+		post.setContent("dòng 1\ndòng 2");
+		stream(post);
+
+		List<String> lines = export(null, null, ExportFormat.CSV).lines().toList();
+
+		assertEquals("id,created_at,user_id,category,title,content", lines.get(0));
+		assertEquals("1,1970-01-01T00:00:01Z,7,news,\"a, \"\"b\"\"\",\"dòng 1", lines.get(1));
+		assertEquals("dòng 2\"", lines.get(2));
+	}
+
+	@Test
+	void csvColumnsFollowFieldsAndNullsAreEmpty() throws IOException {
+		stream(post(1, 1000));
+
+		List<String> lines = export(null, new LinkedHashSet<>(List.of("title", "userId")), ExportFormat.CSV)
+				.lines().toList();
+
+		// Thứ tự cột cố định, không theo thứ tự của fields
+		assertEquals("id,created_at,user_id,title", lines.get(0));
+		assertEquals("1,1970-01-01T00:00:01Z,,", lines.get(1));
+	}
+
+	@Test
+	void checkpointEveryIntervalAndAtTheEnd() throws IOException {
+		stream(post(5, 5000), post(4, 4000), post(3, 3000), post(2, 2000), post(1, 1000));
+
+		List<String> checkpoints = checkpoints(export(null, null, ExportFormat.CSV));
+
+		assertEquals(List.of(cursor(4, 4000), cursor(2, 2000), cursor(1, 1000)), checkpoints);
+	}
+
+	@Test
+	void noExtraCheckpointWhenLastRowFallsOnInterval() throws IOException {
+		stream(post(4, 4000), post(3, 3000), post(2, 2000), post(1, 1000));
+
+		assertEquals(List.of(cursor(3, 3000), cursor(1, 1000)), checkpoints(export(null, null, ExportFormat.CSV)));
+	}
+
+	@Test
+	void ndjsonWritesOneRowPerLineAndOmitsNullsWhenProjected() throws IOException {
+		Post post = post(1, 1000);
+		post.setTitle("t1");
+		stream(post);
+
+		List<String> lines = export(null, Set.of("title"), ExportFormat.NDJSON).lines().toList();
+
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0).contains("\"title\":\"t1\""));
+		assertFalse(lines.get(0).contains("content"));
+		assertEquals("{\"checkpoint\":\"" + cursor(1, 1000) + "\"}", lines.get(1));
+	}
+
+	@Test
+	void shardedExportMergesBatchesUntilShortBatch() throws IOException {
+		PostMapper first = table(post(5, 5000), post(3, 3000), post(1, 1000));
+		PostMapper second = table(post(4, 4000), post(2, 2000));
+		shards(first, second);
+
+		String csv = export(null, Set.of(), ExportFormat.CSV);
+
+		assertEquals(List.of("5", "4", "3", "2", "1"), ids(csv));
+		// Lô 2 + 2 + 1: lô thiếu thì dừng
+		verify(first).findWithFiltersFirstPage(any(), any(), any(), any(), any(), anyInt(), any());
+		verify(first, times(2)).findWithFiltersNextPage(any(), any(), any(), any(), any(), any(), any(), anyInt(), any());
+	}
+
+	@Test
+	void shardedExportStopsOnEmptyBatchAfterFullOne() throws IOException {
+		PostMapper first = table(post(4, 4000), post(2, 2000));
+		PostMapper second = table(post(3, 3000), post(1, 1000));
+		shards(first, second);
+
+		assertEquals(List.of("4", "3", "2", "1"), ids(export(null, Set.of(), ExportFormat.CSV)));
+		verify(first, times(2)).findWithFiltersNextPage(any(), any(), any(), any(), any(), any(), any(), anyInt(), any());
+	}
+
+	@Test
+	void shardedExportResumesAfterCheckpoint() throws IOException {
+		PostMapper first = table(post(5, 5000), post(3, 3000), post(1, 1000));
+		PostMapper second = table(post(4, 4000), post(2, 2000));
+		shards(first, second);
+
+		String csv = export(new PostCursor(4, 4000), Set.of(), ExportFormat.CSV);
+
+		assertEquals(List.of("3", "2", "1"), ids(csv));
+		verify(first, never()).findWithFiltersFirstPage(any(), any(), any(), any(), any(), anyInt(), any());
+	}
+
+	@Test
+	void checkpointFromAnotherFilterIsRejected() {
+		String other = codec.scopedTo(PostFilter.of(null, "news", null, null, null).hashCode())
+				.encode(new PostCursor(1, 1000));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> service.decodeCheckpoint(PostFilter.of(null, "sports", null, null, null), other));
+		assertThrows(IllegalArgumentException.class, () -> service.decodeCheckpoint(FILTER, "không-phải-cursor"));
+		assertNull(service.decodeCheckpoint(FILTER, null));
+	}
+
+	private String export(PostCursor resumeFrom, Set<String> fields, ExportFormat format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.export(FILTER, resumeFrom, fields, format, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	// Export không phân mảnh đọc từ một cursor MyBatis
+	@SuppressWarnings("unchecked")
+	private void stream(Post... posts) {
+		SqlSessionFactory factory = mock(SqlSessionFactory.class);
+		SqlSession session = mock(SqlSession.class);
+		PostMapper mapper = mock(PostMapper.class);
+		Cursor<Post> cursor = mock(Cursor.class);
+		when(factory.openSession()).thenReturn(session);
+		when(session.getMapper(PostMapper.class)).thenReturn(mapper);
+		when(mapper.streamWithFilters(any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(cursor);
+		when(cursor.iterator()).thenAnswer(invocation -> List.of(posts).iterator());
+		ReflectionTestUtils.setField(service, "sqlSessionFactory", factory);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void shards(PostMapper... mappers) {
+		PostShards shards = mock(PostShards.class);
+		when(shards.query(any(), any())).thenAnswer(invocation -> {
+			Function<PostMapper, Object> query = invocation.getArgument(1);
+			List<Object> results = new ArrayList<>();
+			for (PostMapper mapper : mappers) {
+				results.add(query.apply(mapper));
+			}
+			return results;
+		});
+		ReflectionTestUtils.setField(service, "postShards", shards);
+	}
+
+	// Một shard giả: các trang keyset theo (created_at, id) giảm dần
+	private static PostMapper table(Post... rows) {
+		List<Post> sorted = new ArrayList<>(List.of(rows));
+		sorted.sort(Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId).reversed());
+		PostMapper mapper = mock(PostMapper.class);
+		when(mapper.findWithFiltersFirstPage(any(), any(), any(), any(), any(), anyInt(), any()))
+				.thenAnswer(invocation -> sorted.stream().limit(invocation.<Integer>getArgument(5)).toList());
+		when(mapper.findWithFiltersNextPage(any(), any(), any(), any(), any(), any(), any(), anyInt(), any()))
+				.thenAnswer(invocation -> {
+					long lastId = invocation.getArgument(5);
+					long lastCreatedAt = invocation.<Date>getArgument(6).getTime();
+					return sorted.stream()
+							.filter(post -> post.getCreatedAt().getTime() < lastCreatedAt
+									|| (post.getCreatedAt().getTime() == lastCreatedAt && post.getId() < lastId))
+							.limit(invocation.<Integer>getArgument(7))
+							.toList();
+				});
+		return mapper;
+	}
+
+	private String cursor(long id, long createdAt) {
+		return codec.scopedTo(FILTER.hashCode()).encode(new PostCursor(id, createdAt));
+	}
+
+	private static List<String> checkpoints(String csv) {
+		return csv.lines().filter(line -> line.startsWith("# checkpoint="))
+				.map(line -> line.substring("# checkpoint=".length())).toList();
+	}
+
+	// Cột id của các dòng dữ liệu CSV
+	private static List<String> ids(String csv) {
+		return csv.lines().skip(1).filter(line -> !line.startsWith("#"))
+				.map(line -> line.substring(0, line.indexOf(','))).toList();
+	}
+
+	private static Post post(long id, long createdAt) {
+		Post post = new Post();
+		post.setId(id);
+		post.setCreatedAt(new Date(createdAt));
+		return post;
+	}
+}
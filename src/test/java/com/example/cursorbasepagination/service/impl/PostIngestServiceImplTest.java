@@ -0,0 +1,49 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.entity.Post;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostIngestServiceImplTest {
+
+	@Test
+	void validPostHasNoError() {
+		assertNull(PostIngestServiceImpl.validate(post("title", 1L, "news")));
+		// category không bắt buộc
+		assertNull(PostIngestServiceImpl.validate(post("title", 1L, null)));
+	}
+
+	@Test
+	void nullElementIsRejected() {
+		assertEquals("Phần tử không được là null", PostIngestServiceImpl.validate(null));
+	}
+
+	@Test
+	void titleIsRequired() {
+		assertEquals("title không được rỗng", PostIngestServiceImpl.validate(post(null, 1L, null)));
+		assertEquals("title không được rỗng", PostIngestServiceImpl.validate(post("  ", 1L, null)));
+	}
+
+	@Test
+	void userIdIsRequired() {
+		assertEquals("userId là bắt buộc", PostIngestServiceImpl.validate(post("title", null, null)));
+	}
+
+	@Test
+	void lengthsFollowTheSchema() {
+		assertNull(PostIngestServiceImpl.validate(post("t".repeat(255), 1L, "c".repeat(64))));
+		assertEquals("title dài quá 255 ký tự",
+				PostIngestServiceImpl.validate(post("t".repeat(256), 1L, null)));
+		assertEquals("category dài quá 64 ký tự",
+				PostIngestServiceImpl.validate(post("title", 1L, "c".repeat(65))));
+	}
+
+	private static Post post(String title, Long userId, String category) {
+		Post post = new Post();
+		post.setTitle(title);
+		post.setUserId(userId);
+		post.setCategory(category);
+		return post;
+	}
+}
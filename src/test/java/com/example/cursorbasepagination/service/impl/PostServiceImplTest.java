@@ -0,0 +1,293 @@
+package com.example.cursorbasepagination.service.impl;
+
+import com.example.cursorbasepagination.cache.PostRowCache;
+import com.example.cursorbasepagination.dao.PostMapper;
+import com.example.cursorbasepagination.dto.request.CursorPageRequest;
+import com.example.cursorbasepagination.dto.request.FeedQuery;
+import com.example.cursorbasepagination.dto.request.FeedRequest;
+import com.example.cursorbasepagination.dto.request.PostFilter;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.entity.FeedPost;
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.entity.ScoredPost;
+import com.example.cursorbasepagination.monitoring.PaginationMetrics;
+import com.example.cursorbasepagination.util.cursor.BinaryCursorCodec;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import com.example.cursorbasepagination.util.cursor.PostCursor;
+import com.example.cursorbasepagination.util.cursor.SearchCursor;
+import com.example.cursorbasepagination.util.cursor.SearchCursorCodec;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PostServiceImplTest {
+
+	private final PostMapper mapper = mock(PostMapper.class);
+	private final PostRowCache postRowCache = mock(PostRowCache.class);
+	private final BinaryCursorCodec cursorCodec = new BinaryCursorCodec();
+	private final SearchCursorCodec searchCursorCodec = new SearchCursorCodec();
+	private final PostServiceImpl service = new PostServiceImpl();
+
+	PostServiceImplTest() {
+		ReflectionTestUtils.setField(service, "postMapper", mapper);
+		ReflectionTestUtils.setField(service, "postRowCache", postRowCache);
+		ReflectionTestUtils.setField(service, "paginationMetrics", mock(PaginationMetrics.class));
+		ReflectionTestUtils.setField(service, "cursorCodec", cursorCodec);
+		ReflectionTestUtils.setField(service, "searchCursorCodec", searchCursorCodec);
+	}
+
+	@Test
+	void searchFirstPageCursorCarriesScoreOfLastItem() {
+		when(mapper.searchByTitle(eq("java"), any(), any(), isNull(), isNull(), isNull(), eq(3), any()))
+				.thenReturn(List.of(scored(3, 9.0, 3000), scored(2, 5.0, 2000), scored(1, 5.0, 1000)));
+
+		CursorPageResponse<ScoredPost> page = service.searchPosts("java", null, null, request(null, 2, null));
+
+		assertEquals(List.of(3L, 2L), ids(page));
+		assertTrue(page.isHasNext());
+		assertFalse(page.isHasPrevious());
+		SearchCursor next = searchCodec("java").decode(page.getNextCursor());
+		assertEquals(5.0, next.getScore());
+		assertEquals(2000, next.getCreatedAtMillis());
+		assertEquals(2, next.getId());
+	}
+
+	@Test
+	void searchNextPageSeeksFromCursor() {
+		String cursor = searchCodec("java").encode(new SearchCursor(5.0, 2000, 2, null));
+		when(mapper.searchByTitle(eq("java"), any(), any(), eq(5.0), eq(new Date(2000)), eq(2L), eq(3), any()))
+				.thenReturn(List.of(scored(1, 5.0, 1000)));
+
+		CursorPageResponse<ScoredPost> page = service.searchPosts("java", null, null,
+				request(cursor, 2, CursorPageRequest.PaginationDirection.NEXT));
+
+		assertEquals(List.of(1L), ids(page));
+		assertFalse(page.isHasNext());
+		// Không có truy vấn kiểm tra biên cho tìm kiếm: đang ở giữa danh sách thì coi như còn trang trước
+		assertTrue(page.isHasPrevious());
+	}
+
+	@Test
+	void searchPreviousPageIsReturnedInRelevanceOrder() {
+		String cursor = searchCodec("java").encode(new SearchCursor(5.0, 1000, 1, null));
+		// Truy vấn trang trước trả về theo thứ tự ngược (danh sách sửa được như của MyBatis)
+		when(mapper.searchByTitlePrevious(eq("java"), any(), any(), eq(5.0), eq(new Date(1000)), eq(1L), eq(3), any()))
+				.thenReturn(new ArrayList<>(List.of(scored(2, 5.0, 2000), scored(3, 9.0, 3000))));
+
+		CursorPageResponse<ScoredPost> page = service.searchPosts("java", null, null,
+				request(cursor, 2, CursorPageRequest.PaginationDirection.PREVIOUS));
+
+		assertEquals(List.of(3L, 2L), ids(page));
+		assertFalse(page.isHasPrevious());
+		assertTrue(page.isHasNext());
+	}
+
+	@Test
+	void searchCursorOfAnotherQueryRestartsFromFirstPage() {
+		String cursor = searchCodec("kotlin").encode(new SearchCursor(5.0, 2000, 2, null));
+		when(mapper.searchByTitle(eq("java"), any(), any(), isNull(), isNull(), isNull(), anyInt(), any()))
+				.thenReturn(List.of(scored(3, 9.0, 3000)));
+
+		CursorPageResponse<ScoredPost> page = service.searchPosts("java", null, null,
+				request(cursor, 2, CursorPageRequest.PaginationDirection.NEXT));
+
+		assertEquals(List.of(3L), ids(page));
+		verify(mapper, never()).searchByTitle(any(), any(), any(), eq(5.0), any(), any(), anyInt(), any());
+	}
+
+	@Test
+	void feedsAreReadWithOneStatementAndSplitByIndex() {
+		FeedRequest request = feeds(3, spec("u1", 1L, null), spec(null, 2L, null));
+		when(mapper.findFeeds(anyList(), eq(4), isNull())).thenReturn(List.of(
+				feedPost(0, 14, 4000), feedPost(0, 13, 3000), feedPost(0, 12, 2000), feedPost(0, 11, 1000),
+				feedPost(1, 21, 1500)));
+
+		Map<String, CursorPageResponse<Post>> feeds = service.getFeeds(request);
+
+		// Khóa mặc định là vị trí của feed
+		assertEquals(List.of("u1", "1"), List.copyOf(feeds.keySet()));
+		CursorPageResponse<Post> first = feeds.get("u1");
+		assertEquals(List.of(14L, 13L, 12L), ids(first));
+		assertTrue(first.isHasNext());
+		PostCursor next = feedCodec(1L).decode(first.getNextCursor());
+		assertEquals(12, next.getId());
+		assertEquals(2000, next.getCreatedAtMillis());
+		CursorPageResponse<Post> second = feeds.get("1");
+		assertEquals(List.of(21L), ids(second));
+		assertFalse(second.isHasNext());
+		verify(mapper, times(1)).findFeeds(anyList(), anyInt(), any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void feedCursorIsDecodedWithItsOwnFilter() {
+		String cursor = feedCodec(1L).encode(new PostCursor(12, 2000));
+		// Cursor của feed user 1 không dùng được cho feed user 2
+		FeedRequest request = feeds(3, spec(null, 1L, cursor), spec(null, 2L, cursor));
+		when(mapper.findFeeds(anyList(), anyInt(), any())).thenReturn(List.of());
+
+		service.getFeeds(request);
+
+		ArgumentCaptor<List<FeedQuery>> queries = ArgumentCaptor.forClass(List.class);
+		verify(mapper).findFeeds(queries.capture(), anyInt(), any());
+		assertEquals(12L, queries.getValue().get(0).getLastId());
+		assertNull(queries.getValue().get(1).getLastId());
+	}
+
+	@Test
+	void feedsAreHydratedOnceWhenRowCacheIsEnabled() {
+		when(postRowCache.isEnabled()).thenReturn(true);
+		FeedRequest request = feeds(3, spec(null, 1L, null), spec(null, 2L, null));
+		request.setFields(Set.of("title"));
+		// Bài viết 5 nằm ở cả hai feed, bài viết 6 đã bị xóa giữa hai pha
+		when(mapper.findFeeds(anyList(), anyInt(), eq(Set.of()))).thenReturn(List.of(
+				feedPost(0, 5, 5000), feedPost(0, 6, 4000), feedPost(1, 5, 5000)));
+		when(postRowCache.hydrate(anyList(), eq(Set.of("title")))).thenReturn(List.of(post(5, 5000)));
+
+		Map<String, CursorPageResponse<Post>> feeds = service.getFeeds(request);
+
+		assertEquals(List.of(5L), ids(feeds.get("0")));
+		assertEquals(List.of(5L), ids(feeds.get("1")));
+		verify(postRowCache, times(1)).hydrate(anyList(), any());
+	}
+
+	private CursorCodec<SearchCursor> searchCodec(String query) {
+		return searchCursorCodec.scopedTo(PostFilter.of(query, null, null, null, null).hashCode());
+	}
+
+	@Test
+	void aroundReturnsNewerAnchorOlderWithCursors() {
+		when(mapper.findById(eq(5L), any())).thenReturn(post(5, 5000));
+		// Phía mới hơn tăng dần, phía cũ hơn giảm dần, mỗi phía thừa một bài
+		when(mapper.findAround(eq(5L), eq(new Date(5000)), eq(3), eq(2), any())).thenReturn(List.of(
+				feedPost(0, 6, 6000), feedPost(0, 7, 7000), feedPost(0, 8, 8000),
+				feedPost(1, 4, 4000)));
+
+		CursorPageResponse<Post> window = service.getPostsAround(5L, 2, 1, null);
+
+		assertEquals(List.of(7L, 6L, 5L, 4L), ids(window));
+		assertTrue(window.isHasPrevious());
+		assertFalse(window.isHasNext());
+		assertNull(window.getNextCursor());
+		PostCursor previous = cursorCodec.decode(window.getPreviousCursor());
+		assertEquals(7, previous.getId());
+		assertEquals(7000, previous.getCreatedAtMillis());
+	}
+
+	@Test
+	void aroundMissingPostReturnsNull() {
+		assertNull(service.getPostsAround(5L, 2, 2, null));
+		verify(mapper, never()).findAround(any(), any(), anyInt(), anyInt(), any());
+	}
+
+	@Test
+	void aroundWithZeroSideOnlyProbesThatSide() {
+		when(mapper.findById(eq(5L), any())).thenReturn(post(5, 5000));
+		when(mapper.findAround(any(), any(), anyInt(), anyInt(), any())).thenReturn(List.of(
+				feedPost(0, 6, 6000), feedPost(1, 4, 4000), feedPost(1, 3, 3000)));
+
+		CursorPageResponse<Post> window = service.getPostsAround(5L, 0, 1, null);
+
+		assertEquals(List.of(5L, 4L), ids(window));
+		assertTrue(window.isHasPrevious());
+		assertTrue(window.isHasNext());
+		assertEquals(5, cursorCodec.decode(window.getPreviousCursor()).getId());
+		assertEquals(4, cursorCodec.decode(window.getNextCursor()).getId());
+	}
+
+	@Test
+	void startPositionBecomesCursorOnlyForFirstPage() {
+		CursorPageRequest next = request(null, 10, CursorPageRequest.PaginationDirection.NEXT);
+		next.setLastCreatedAt(new Date(5000));
+		PostServiceImpl.applyStartPosition(next, cursorCodec);
+		// Không có lastId: lấy cả các bài viết tạo đúng lúc 5000
+		assertEquals(Long.MAX_VALUE, cursorCodec.decode(next.getCursor()).getId());
+		assertEquals(5000, cursorCodec.decode(next.getCursor()).getCreatedAtMillis());
+
+		CursorPageRequest previous = request(null, 10, CursorPageRequest.PaginationDirection.PREVIOUS);
+		previous.setLastCreatedAt(new Date(5000));
+		PostServiceImpl.applyStartPosition(previous, cursorCodec);
+		assertEquals(0, cursorCodec.decode(previous.getCursor()).getId());
+
+		CursorPageRequest withId = request(null, 10, CursorPageRequest.PaginationDirection.NEXT);
+		withId.setLastCreatedAt(new Date(5000));
+		withId.setLastId(42L);
+		PostServiceImpl.applyStartPosition(withId, cursorCodec);
+		assertEquals(42, cursorCodec.decode(withId.getCursor()).getId());
+
+		String cursor = cursorCodec.encode(new PostCursor(1, 1000));
+		CursorPageRequest withCursor = request(cursor, 10, CursorPageRequest.PaginationDirection.NEXT);
+		withCursor.setLastCreatedAt(new Date(5000));
+		PostServiceImpl.applyStartPosition(withCursor, cursorCodec);
+		assertEquals(cursor, withCursor.getCursor());
+	}
+
+	private CursorCodec<PostCursor> feedCodec(long userId) {
+		return cursorCodec.scopedTo(PostFilter.of(null, null, userId, null, null).hashCode());
+	}
+
+	private static FeedRequest feeds(int limit, FeedRequest.FeedSpec... specs) {
+		FeedRequest request = new FeedRequest();
+		request.setFeeds(List.of(specs));
+		request.setLimit(limit);
+		return request;
+	}
+
+	private static FeedRequest.FeedSpec spec(String key, Long userId, String cursor) {
+		FeedRequest.FeedSpec spec = new FeedRequest.FeedSpec();
+		spec.setKey(key);
+		spec.setUserId(userId);
+		spec.setCursor(cursor);
+		return spec;
+	}
+
+	private static FeedPost feedPost(int feedIndex, long id, long createdAt) {
+		FeedPost post = new FeedPost();
+		post.setFeedIndex(feedIndex);
+		post.setId(id);
+		post.setCreatedAt(new Date(createdAt));
+		return post;
+	}
+
+	private static Post post(long id, long createdAt) {
+		Post post = new Post();
+		post.setId(id);
+		post.setCreatedAt(new Date(createdAt));
+		return post;
+	}
+
+	private static List<Long> ids(CursorPageResponse<? extends Post> page) {
+		return page.getItems().stream().map(Post::getId).toList();
+	}
+
+	private static CursorPageRequest request(String cursor, int limit, CursorPageRequest.PaginationDirection direction) {
+		CursorPageRequest request = new CursorPageRequest();
+		request.setCursor(cursor);
+		request.setLimit(limit);
+		if (direction != null) {
+			request.setDirection(direction);
+		}
+		return request;
+	}
+
+	private static ScoredPost scored(long id, double score, long createdAt) {
+		ScoredPost post = new ScoredPost();
+		post.setId(id);
+		post.setScore(score);
+		post.setCreatedAt(new Date(createdAt));
+		return post;
+	}
+}
@@ -0,0 +1,115 @@
+package com.example.cursorbasepagination.util;
+
+import com.example.cursorbasepagination.dto.request.CursorPageRequest;
+import com.example.cursorbasepagination.dto.response.CursorPageResponse;
+import com.example.cursorbasepagination.util.cursor.CursorCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorUtilsTest {
+
+	// Danh sách giảm dần như thứ tự (created_at, id) DESC, cursor là chính giá trị
+	private final List<Integer> rows = new ArrayList<>(List.of(10, 9, 8, 7, 6, 5, 4, 3, 2, 1));
+
+	private final CursorCodec<Integer> codec = new CursorCodec<>() {
+		@Override
+		public String encode(Integer cursor) {
+			return cursor != null ? String.valueOf(cursor) : null;
+		}
+
+		@Override
+		public Integer decode(String cursor) {
+			return cursor == null || cursor.isEmpty() ? null : Integer.valueOf(cursor);
+		}
+	};
+
+	@Test
+	void firstPageHasNoPrevious() {
+		CursorPageResponse<Integer> page = page(null, CursorPageRequest.PaginationDirection.NEXT, 3);
+
+		assertEquals(List.of(10, 9, 8), page.getItems());
+		assertTrue(page.isHasNext());
+		assertFalse(page.isHasPrevious());
+		assertEquals("8", page.getNextCursor());
+		assertNull(page.getPreviousCursor());
+	}
+
+	@Test
+	void nextPageProbesPrevious() {
+		CursorPageResponse<Integer> page = page("8", CursorPageRequest.PaginationDirection.NEXT, 3);
+
+		assertEquals(List.of(7, 6, 5), page.getItems());
+		assertTrue(page.isHasNext());
+		assertTrue(page.isHasPrevious());
+		assertEquals("7", page.getPreviousCursor());
+	}
+
+	@Test
+	void previousPageIsReversedAndProbesNext() {
+		CursorPageResponse<Integer> page = page("7", CursorPageRequest.PaginationDirection.PREVIOUS, 3);
+
+		assertEquals(List.of(10, 9, 8), page.getItems());
+		assertFalse(page.isHasPrevious());
+		assertTrue(page.isHasNext());
+		assertEquals("8", page.getNextCursor());
+	}
+
+	@Test
+	void emptyNextPageStillLinksBack() {
+		// Các bài viết sau cursor đã bị xóa
+		rows.removeIf(value -> value < 5);
+
+		CursorPageResponse<Integer> page = page("5", CursorPageRequest.PaginationDirection.NEXT, 3);
+
+		assertTrue(page.getItems().isEmpty());
+		assertFalse(page.isHasNext());
+		assertTrue(page.isHasPrevious());
+		assertEquals("5", page.getPreviousCursor());
+		assertEquals(List.of(8, 7, 6), page("5", CursorPageRequest.PaginationDirection.PREVIOUS, 3).getItems());
+	}
+
+	@Test
+	void emptyPreviousPageStillLinksForward() {
+		CursorPageResponse<Integer> page = page("10", CursorPageRequest.PaginationDirection.PREVIOUS, 3);
+
+		assertTrue(page.getItems().isEmpty());
+		assertFalse(page.isHasPrevious());
+		assertTrue(page.isHasNext());
+		assertEquals("10", page.getNextCursor());
+	}
+
+	@Test
+	void emptyPageAtTheEndHasNoLinks() {
+		CursorPageResponse<Integer> page = page("1", CursorPageRequest.PaginationDirection.NEXT, 3);
+		rows.clear();
+		CursorPageResponse<Integer> emptyTable = page("5", CursorPageRequest.PaginationDirection.NEXT, 3);
+
+		assertTrue(page.getItems().isEmpty());
+		assertTrue(page.isHasPrevious());
+		assertFalse(emptyTable.isHasPrevious());
+		assertNull(emptyTable.getPreviousCursor());
+	}
+
+	private CursorPageResponse<Integer> page(String cursor, CursorPageRequest.PaginationDirection direction,
+											 int limit) {
+		CursorPageRequest request = new CursorPageRequest();
+		request.setCursor(cursor);
+		request.setDirection(direction);
+		request.setLimit(limit);
+		return CursorUtils.handlePagination(
+				request,
+				codec,
+				() -> rows.stream().limit(limit + 1).toList(),
+				c -> rows.stream().filter(v -> v < c).limit(limit + 1).toList(),
+				// Trang trước được truy vấn theo thứ tự tăng dần
+				c -> new ArrayList<>(rows.stream().filter(v -> v > c).sorted().limit(limit + 1).toList()),
+				c -> rows.stream().anyMatch(v -> v > c) ? 1 : 0,
+				c -> rows.stream().anyMatch(v -> v < c) ? 1 : 0,
+				Function.identity());
+	}
+}
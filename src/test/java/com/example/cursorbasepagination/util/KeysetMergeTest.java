@@ -0,0 +1,36 @@
+package com.example.cursorbasepagination.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetMergeTest {
+
+	@Test
+	void mergesDescendingListsUpToLimit() {
+		List<List<Integer>> shards = List.of(
+				List.of(9, 6, 3),
+				List.of(8, 5, 2),
+				List.of(7, 4, 1));
+
+		assertEquals(List.of(9, 8, 7, 6, 5), KeysetMerge.merge(shards, Comparator.reverseOrder(), 5));
+	}
+
+	@Test
+	void handlesEmptyAndUnevenLists() {
+		List<List<Integer>> shards = List.of(
+				List.of(),
+				List.of(10, 1),
+				List.of(5));
+
+		assertEquals(List.of(10, 5, 1), KeysetMerge.merge(shards, Comparator.reverseOrder(), 10));
+	}
+
+	@Test
+	void singleListIsTruncated() {
+		assertEquals(List.of(1, 2), KeysetMerge.merge(List.of(List.of(1, 2, 3)), Comparator.naturalOrder(), 2));
+	}
+}
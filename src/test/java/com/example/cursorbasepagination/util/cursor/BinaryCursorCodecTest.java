@@ -0,0 +1,55 @@
+package com.example.cursorbasepagination.util.cursor;
+
+import com.example.cursorbasepagination.util.CursorUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCursorCodecTest {
+
+	private final BinaryCursorCodec codec = new BinaryCursorCodec();
+
+	@Test
+	void roundTrip() {
+		PostCursor cursor = new PostCursor(123456789L, 1_700_000_000_123L);
+
+		String encoded = codec.encode(cursor);
+		PostCursor decoded = codec.decode(encoded);
+
+		assertFalse(encoded.contains("+") || encoded.contains("/") || encoded.contains("="));
+		assertEquals(cursor.getId(), decoded.getId());
+		assertEquals(cursor.getCreatedAtMillis(), decoded.getCreatedAtMillis());
+		assertNull(decoded.getFilterHash());
+	}
+
+	@Test
+	void decodesLegacyJsonCursor() {
+		Map<String, Object> fields = new LinkedHashMap<>();
+		fields.put("id", 42L);
+		fields.put("createdAt", new Date(1_600_000_000_000L));
+		String legacy = new CursorUtils<Map<String, Object>>().encodeCursor(fields, Function.identity());
+
+		PostCursor decoded = codec.decode(legacy);
+
+		assertEquals(42L, decoded.getId());
+		assertEquals(1_600_000_000_000L, decoded.getCreatedAtMillis());
+	}
+
+	@Test
+	void scopedCodecRejectsCursorFromOtherFilter() {
+		String encoded = codec.scopedTo(1).encode(new PostCursor(1L, 2L));
+
+		assertEquals(1, codec.scopedTo(1).decode(encoded).getFilterHash());
+		assertNull(codec.scopedTo(2).decode(encoded));
+	}
+
+	@Test
+	void rejectsMalformedCursor() {
+		assertThrows(RuntimeException.class, () -> codec.decode("AQ"));
+	}
+}
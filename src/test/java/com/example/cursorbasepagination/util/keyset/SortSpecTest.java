@@ -0,0 +1,123 @@
+package com.example.cursorbasepagination.util.keyset;
+
+import com.example.cursorbasepagination.entity.Post;
+import com.example.cursorbasepagination.util.cursor.KeysetCursorCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortSpecTest {
+
+	@Test
+	void parseAppendsIdTiebreaker() {
+		SortSpec<Post> sort = PostSorts.parse("category:asc,createdAt:desc");
+
+		assertEquals("category:asc,createdAt:desc,id:desc", sort.toString());
+		assertEquals("category ASC, created_at DESC, id DESC", sort.orderByClause());
+	}
+
+	@Test
+	void parseAcceptsReversedIndexOrder() {
+		assertEquals("createdAt:asc,id:asc", PostSorts.parse("created_at:asc").toString());
+	}
+
+	@Test
+	void parseRejectsOrderWithoutIndex() {
+		assertThrows(IllegalArgumentException.class, () -> PostSorts.parse("title:asc,createdAt:desc"));
+		assertThrows(IllegalArgumentException.class, () -> PostSorts.parse("content:asc"));
+	}
+
+	@Test
+	void seekPredicateWithMixedDirections() {
+		SortSpec<Post> sort = PostSorts.parse("category:asc,createdAt:desc");
+		KeysetCursor cursor = new KeysetCursor(Arrays.asList("news", new Date(0), 5L), null);
+
+		assertEquals("((category > #{v[0]}) OR (category = #{v[0]} AND created_at < #{v[1]})"
+						+ " OR (category = #{v[0]} AND created_at = #{v[1]} AND id < #{v[2]}))",
+				sort.seekPredicate(cursor, "v"));
+	}
+
+	@Test
+	void seekPredicateWithNullKey() {
+		SortSpec<Post> sort = PostSorts.parse("category:asc,createdAt:desc");
+		KeysetCursor cursor = new KeysetCursor(Arrays.asList(null, new Date(0), 5L), null);
+
+		// NULL đứng đầu khi ASC: các dòng sau là category khác NULL hoặc cùng NULL với khóa nhỏ hơn
+		assertEquals("((category IS NOT NULL) OR (category IS NULL AND created_at < #{v[1]})"
+						+ " OR (category IS NULL AND created_at = #{v[1]} AND id < #{v[2]}))",
+				sort.seekPredicate(cursor, "v"));
+		assertTrue(sort.matches(cursor));
+	}
+
+	@Test
+	void seekPredicateHasLeadingBound() {
+		KeysetCursor cursor = new KeysetCursor(Arrays.asList(new Date(0), 5L), null);
+
+		assertEquals("created_at <= #{v[0]} AND ((created_at < #{v[0]}) OR (created_at = #{v[0]} AND id < #{v[1]}))",
+				PostSorts.DEFAULT.seekPredicate(cursor, "v"));
+	}
+
+	@Test
+	void cursorRoundTripIsScopedToSort() {
+		SortSpec<Post> sort = PostSorts.parse("category:asc,createdAt:desc");
+		KeysetCursorCodec codec = new KeysetCursorCodec();
+		Post post = new Post();
+		post.setId(42L);
+		post.setCategory("tin tức");
+		post.setCreatedAt(new Date(1_700_000_000_123L));
+
+		String encoded = codec.scopedTo(sort.fingerprint()).encode(sort.cursorOf(post, null));
+		KeysetCursor decoded = codec.scopedTo(sort.fingerprint()).decode(encoded);
+
+		assertEquals(Arrays.asList("tin tức", new Date(1_700_000_000_123L), 42L), decoded.getValues());
+		assertTrue(sort.matches(decoded));
+		assertNull(codec.scopedTo(PostSorts.DEFAULT.fingerprint()).decode(encoded));
+	}
+
+	@Test
+	void cursorWithWrongTypesDoesNotMatch() {
+		KeysetCursor cursor = new KeysetCursor(Arrays.asList("2024-01-01", 5L), null);
+
+		assertFalse(PostSorts.DEFAULT.matches(cursor));
+		assertThrows(IllegalArgumentException.class, () -> PostSorts.DEFAULT.seekPredicate(cursor, "v"));
+	}
+
+	@Test
+	void comparatorFollowsMixedDirectionsWithNullFirst() {
+		SortSpec<Post> sort = PostSorts.parse("category:asc,createdAt:desc");
+		Post uncategorized = post(1L, null, 100L);
+		Post newsOld = post(2L, "news", 100L);
+		Post newsNew = post(3L, "News", 200L);
+		Post sport = post(4L, "sport", 300L);
+
+		List<Post> posts = new ArrayList<>(List.of(sport, newsOld, uncategorized, newsNew));
+		posts.sort(sort.comparator());
+
+		// "News" và "news" bằng nhau như collation _ci nên được phân định bởi created_at DESC
+		assertEquals(List.of(uncategorized, newsNew, newsOld, sport), posts);
+		posts.sort(sort.reversed().comparator());
+		assertEquals(List.of(sport, newsOld, newsNew, uncategorized), posts);
+	}
+
+	@Test
+	void comparatorUsesIdAsTiebreaker() {
+		Post first = post(2L, null, 100L);
+		Post second = post(1L, null, 100L);
+
+		assertTrue(PostSorts.DEFAULT.comparator().compare(first, second) < 0);
+		assertEquals(0, PostSorts.DEFAULT.comparator().compare(first, post(2L, "x", 100L)));
+	}
+
+	private static Post post(long id, String category, long createdAt) {
+		Post post = new Post();
+		post.setId(id);
+		post.setCategory(category);
+		post.setCreatedAt(new Date(createdAt));
+		return post;
+	}
+}